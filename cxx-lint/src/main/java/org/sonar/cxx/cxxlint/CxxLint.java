@@ -37,7 +37,7 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -371,10 +371,10 @@ public class CxxLint {
       || "V120".equals(platformToolset)
       || "V140".equals(platformToolset)) {
       
-      HashMap<String, List<String>> uniqueIncludes = new HashMap<>();
+      HashMap<String, Set<String>> uniqueIncludes = new HashMap<>();
       HashMap<String, Set<String>> uniqueDefines = new HashMap<>();
-      uniqueDefines.put(fileToAnalyse, new HashSet<String>());
-      uniqueIncludes.put(fileToAnalyse, new ArrayList<String>());
+      uniqueDefines.put(fileToAnalyse, new LinkedHashSet<String>());
+      uniqueIncludes.put(fileToAnalyse, new LinkedHashSet<String>());
       CxxVCppBuildLogParser lineOptionsParser = new CxxVCppBuildLogParser(uniqueIncludes, uniqueDefines);
       lineOptionsParser.setPlatform(platform);
       lineOptionsParser.setPlatformToolset(platformToolset);
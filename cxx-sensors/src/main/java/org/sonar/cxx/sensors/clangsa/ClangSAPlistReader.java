@@ -0,0 +1,272 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.clangsa;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import org.codehaus.staxmate.in.SMHierarchicCursor;
+import org.codehaus.staxmate.in.SMInputCursor;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxReportFiles;
+import org.sonar.cxx.sensors.utils.EmptyReportException;
+import org.sonar.cxx.sensors.utils.StaxParser;
+
+import com.ctc.wstx.exc.WstxEOFException;
+import com.dd.plist.BinaryPropertyListParser;
+import com.dd.plist.NSArray;
+import com.dd.plist.NSDictionary;
+import com.dd.plist.NSNumber;
+import com.dd.plist.NSObject;
+import com.dd.plist.NSString;
+import com.dd.plist.PropertyListFormatException;
+
+/**
+ * Streaming reader for the XML property lists written by the Clang Static
+ * Analyzer. Only the file table and the description, check name and location
+ * of each diagnostic are read, the "path" of a diagnostic and all other
+ * entries are skipped without being materialized. Binary property lists are
+ * read with dd-plist.
+ */
+final class ClangSAPlistReader {
+  private static final Logger LOG = Loggers.get(ClangSAPlistReader.class);
+  private static final byte[] BINARY_MAGIC = "bplist".getBytes(StandardCharsets.US_ASCII);
+
+  private ClangSAPlistReader() {
+  }
+
+  /**
+   * @param report the property list, compressed files are decompressed
+   * @return the diagnostics of the report in the order of the report
+   * @throws XMLStreamException if the report is no well-formed XML
+   * @throws IOException if the report cannot be read
+   * @throws PropertyListFormatException if a binary property list is invalid
+   */
+  static List<Diagnostic> read(File report) throws XMLStreamException, IOException, PropertyListFormatException {
+    Handler handler = new Handler();
+    try (InputStream input = CxxReportFiles.open(report)) {
+      if (isBinary(input)) {
+        // binary property lists are rare, they are read as a whole
+        handler.read((NSDictionary) BinaryPropertyListParser.parse(input));
+      } else {
+        new StaxParser(handler).parse(input);
+      }
+    }
+    return handler.resolve();
+  }
+
+  private static boolean isBinary(InputStream input) throws IOException {
+    byte[] magic = new byte[BINARY_MAGIC.length];
+    input.mark(magic.length);
+    int length = 0;
+    int read = 0;
+    while (length < magic.length && (read = input.read(magic, length, magic.length - length)) > 0) {
+      length += read;
+    }
+    input.reset();
+    return Arrays.equals(magic, BINARY_MAGIC);
+  }
+
+  /**
+   * One diagnostic of a report with its file index resolved.
+   */
+  static final class Diagnostic {
+    private final String file;
+    private final String line;
+    private final String checkName;
+    private final String description;
+
+    Diagnostic(String file, String line, String checkName, String description) {
+      this.file = file;
+      this.line = line;
+      this.checkName = checkName;
+      this.description = description;
+    }
+
+    String getFile() {
+      return file;
+    }
+
+    String getLine() {
+      return line;
+    }
+
+    String getCheckName() {
+      return checkName;
+    }
+
+    String getDescription() {
+      return description;
+    }
+  }
+
+  private static final class Handler implements StaxParser.XmlStreamHandler {
+    private final List<String> files = new ArrayList<>();
+    private final List<String[]> diagnostics = new ArrayList<>();
+
+    @Override
+    public void stream(SMHierarchicCursor rootCursor) throws XMLStreamException {
+      try {
+        rootCursor.advance();
+      } catch (WstxEOFException eofExc) {
+        throw new EmptyReportException("Cannot read clangsa report", eofExc);
+      }
+
+      SMInputCursor root = rootCursor.childElementCursor("dict");
+      if (root.getNext() == null) {
+        return;
+      }
+      String key = null;
+      SMInputCursor entry = root.childElementCursor();
+      while (entry.getNext() != null) {
+        if ("key".equals(entry.getLocalName())) {
+          key = entry.getElemStringValue();
+        } else {
+          // "files" is written before or after "diagnostics" depending on the clang version
+          if ("files".equals(key)) {
+            readFiles(entry);
+          } else if ("diagnostics".equals(key)) {
+            readDiagnostics(entry);
+          }
+          key = null;
+        }
+      }
+    }
+
+    private void read(NSDictionary root) {
+      NSObject fileTable = root.objectForKey("files");
+      if (fileTable instanceof NSArray) {
+        for (NSObject file : ((NSArray) fileTable).getArray()) {
+          files.add(file instanceof NSString ? ((NSString) file).getContent() : null);
+        }
+      }
+      NSObject diagnosticList = root.objectForKey("diagnostics");
+      if (!(diagnosticList instanceof NSArray)) {
+        return;
+      }
+      for (NSObject element : ((NSArray) diagnosticList).getArray()) {
+        if (element instanceof NSDictionary) {
+          NSDictionary dict = (NSDictionary) element;
+          String[] diagnostic = new String[4];
+          diagnostic[0] = toString(dict.objectForKey("description"));
+          diagnostic[1] = toString(dict.objectForKey("check_name"));
+          NSObject location = dict.objectForKey("location");
+          if (location instanceof NSDictionary) {
+            diagnostic[2] = toString(((NSDictionary) location).objectForKey("line"));
+            diagnostic[3] = toString(((NSDictionary) location).objectForKey("file"));
+          }
+          diagnostics.add(diagnostic);
+        }
+      }
+    }
+
+    private static String toString(NSObject object) {
+      if (object instanceof NSString) {
+        return ((NSString) object).getContent();
+      }
+      if (object instanceof NSNumber) {
+        return Integer.toString(((NSNumber) object).intValue());
+      }
+      return null;
+    }
+
+    private void readFiles(SMInputCursor array) throws XMLStreamException {
+      SMInputCursor element = array.childElementCursor();
+      while (element.getNext() != null) {
+        // keep the indices of the table, whatever the element is
+        files.add("string".equals(element.getLocalName()) ? element.getElemStringValue() : null);
+      }
+    }
+
+    private void readDiagnostics(SMInputCursor array) throws XMLStreamException {
+      SMInputCursor dict = array.childElementCursor("dict");
+      while (dict.getNext() != null) {
+        // description, check_name, line and file index
+        String[] diagnostic = new String[4];
+        String key = null;
+        SMInputCursor entry = dict.childElementCursor();
+        while (entry.getNext() != null) {
+          if ("key".equals(entry.getLocalName())) {
+            key = entry.getElemStringValue();
+          } else {
+            if ("description".equals(key)) {
+              diagnostic[0] = entry.getElemStringValue();
+            } else if ("check_name".equals(key)) {
+              diagnostic[1] = entry.getElemStringValue();
+            } else if ("location".equals(key)) {
+              readLocation(entry, diagnostic);
+            }
+            // "path" and all other entries are skipped by the cursor
+            key = null;
+          }
+        }
+        diagnostics.add(diagnostic);
+      }
+    }
+
+    private static void readLocation(SMInputCursor dict, String[] diagnostic) throws XMLStreamException {
+      String key = null;
+      SMInputCursor entry = dict.childElementCursor();
+      while (entry.getNext() != null) {
+        if ("key".equals(entry.getLocalName())) {
+          key = entry.getElemStringValue();
+        } else {
+          if ("line".equals(key)) {
+            diagnostic[2] = entry.getElemStringValue().trim();
+          } else if ("file".equals(key)) {
+            diagnostic[3] = entry.getElemStringValue().trim();
+          }
+          key = null;
+        }
+      }
+    }
+
+    private List<Diagnostic> resolve() {
+      List<Diagnostic> result = new ArrayList<>(diagnostics.size());
+      for (String[] diagnostic : diagnostics) {
+        String file = getFile(diagnostic[3]);
+        if (diagnostic[0] == null || diagnostic[1] == null || diagnostic[2] == null || file == null) {
+          LOG.debug("Skipping incomplete clangsa diagnostic '{}'", diagnostic[0]);
+          continue;
+        }
+        result.add(new Diagnostic(file, diagnostic[2], diagnostic[1], diagnostic[0]));
+      }
+      return result;
+    }
+
+    private String getFile(String index) {
+      if (index == null) {
+        return null;
+      }
+      try {
+        int i = Integer.parseInt(index);
+        return i >= 0 && i < files.size() ? files.get(i) : null;
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+  }
+}
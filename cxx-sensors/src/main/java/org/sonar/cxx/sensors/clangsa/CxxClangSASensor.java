@@ -20,6 +20,17 @@
 package org.sonar.cxx.sensors.clangsa;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.stream.XMLStreamException;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
 import org.sonar.api.config.Settings;
@@ -28,12 +39,7 @@ import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.CxxLanguage;
 import org.sonar.cxx.sensors.utils.CxxReportSensor;
 
-import com.dd.plist.PropertyListParser;
-import com.dd.plist.NSDictionary;
-import com.dd.plist.NSArray;
-import com.dd.plist.NSObject;
-import com.dd.plist.NSString;
-import com.dd.plist.NSNumber;
+import com.dd.plist.PropertyListFormatException;
 
 
 /**
@@ -44,6 +50,7 @@ public class CxxClangSASensor extends CxxReportSensor {
   private static final Logger LOG = Loggers.get(CxxClangSASensor.class);
   public static final String REPORT_PATH_KEY = "clangsa.reportPath";
   public static final String KEY = "ClangSA";
+  private final Map<File, Future<List<ClangSAPlistReader.Diagnostic>>> preloadedReports = new ConcurrentHashMap<>();
 
   /**
    * {@inheritDoc}
@@ -62,54 +69,84 @@ public class CxxClangSASensor extends CxxReportSensor {
     descriptor.onlyOnLanguage(this.language.getKey()).name(language.getName() + " ClangSASensor");
   }
 
+  /**
+   * The reports are small and there is one per analyzed translation unit, they
+   * are parsed concurrently before the first one is processed.
+   */
   @Override
-  protected void processReport(final SensorContext context, File report)
-    throws javax.xml.stream.XMLStreamException {
-
-    LOG.debug("Processing clangsa report '{}''", report.getName());
+  protected void preloadReports(SensorContext context, List<File> reports) {
+    preloadedReports.clear();
+    if (reports.size() < 2) {
+      return;
+    }
+    List<Callable<List<ClangSAPlistReader.Diagnostic>>> tasks = new ArrayList<>(reports.size());
+    for (final File report : reports) {
+      tasks.add(() -> ClangSAPlistReader.read(report));
+    }
 
+    int threads = Math.min(reports.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
     try {
-      File f = new File(report.getPath());
-
-      NSDictionary rootDict = (NSDictionary)PropertyListParser.parse(f);
-
-      // Array of file paths where an issue was detected.
-      NSObject[] sourceFiles = ((NSArray)rootDict.objectForKey("files")).getArray();
-
-      NSObject[] diagnostics = ((NSArray)rootDict.objectForKey("diagnostics")).getArray();
-
-      for(NSObject diagnostic:diagnostics){
-        NSDictionary diag = (NSDictionary)diagnostic;
-
-        NSString desc = (NSString)diag.get("description");
-        String description = desc.getContent();
-
-        String checkerName = ((NSString)diag.get("check_name")).getContent();
-
-        NSDictionary location = (NSDictionary)diag.get("location");
-
-        Integer line = ((NSNumber)location.get("line")).intValue();
+      List<Future<List<ClangSAPlistReader.Diagnostic>>> results = executor.invokeAll(tasks);
+      for (int i = 0; i < results.size(); i++) {
+        preloadedReports.put(reports.get(i), results.get(i));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Parsing of clangsa reports was interrupted", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 
-        NSNumber fileIndex = (NSNumber)location.get("file");
+  @Override
+  protected void processReport(final SensorContext context, File report)
+    throws XMLStreamException {
 
-        NSObject filePath = sourceFiles[fileIndex.intValue()];
+    LOG.debug("Processing clangsa report '{}''", report.getName());
 
+    try {
+      for (ClangSAPlistReader.Diagnostic diagnostic : readReport(report)) {
         saveUniqueViolation(context,
             CxxClangSARuleRepository.KEY,
-            ((NSString)filePath).getContent(),
-            line.toString(),
-            checkerName,
-            description);
-
+            diagnostic.getFile(),
+            diagnostic.getLine(),
+            diagnostic.getCheckName(),
+            diagnostic.getDescription());
       }
     } catch (final java.io.IOException
-                  | java.text.ParseException
-                  | javax.xml.parsers.ParserConfigurationException
-                  | org.xml.sax.SAXException
-                  | com.dd.plist.PropertyListFormatException e){
+                  | XMLStreamException
+                  | PropertyListFormatException e){
 
       LOG.error("Failed to parse clangsa report: {}", e);
+      markReportIncomplete();
+
+    }
+  }
 
+  private List<ClangSAPlistReader.Diagnostic> readReport(File report)
+    throws XMLStreamException, IOException, PropertyListFormatException {
+    Future<List<ClangSAPlistReader.Diagnostic>> result = preloadedReports.remove(report);
+    if (result == null) {
+      return ClangSAPlistReader.read(report);
+    }
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Parsing of clangsa reports was interrupted", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof XMLStreamException) {
+        throw (XMLStreamException) cause;
+      } else if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof PropertyListFormatException) {
+        throw (PropertyListFormatException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause.getMessage(), cause);
     }
   }
 
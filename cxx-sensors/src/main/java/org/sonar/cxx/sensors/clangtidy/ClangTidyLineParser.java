@@ -0,0 +1,140 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.clangtidy;
+
+/**
+ * Parser for the issue lines of a clang-tidy report:
+ * <pre>
+ * &lt;path&gt;:&lt;line&gt;:&lt;column&gt;: &lt;level&gt;: &lt;message&gt; [&lt;checkname&gt;]
+ * </pre>
+ * It accepts the same lines and yields the same groups as the regular
+ * expression
+ * <code>(.+|[a-zA-Z]:\\.+):([0-9]+):([0-9]+): ([^:]+): ([^]]+) \[([^]]+)\]</code>
+ * without backtracking: the check name is searched from the end of the line,
+ * the location from the start of the message backwards. Lines which do not end
+ * with ']', like notes and code snippets, are rejected after one character
+ * comparison.
+ */
+final class ClangTidyLineParser {
+
+  private String path;
+  private String lineId;
+  private String message;
+  private String check;
+
+  /**
+   * @param line one line of the report without line terminator
+   * @return true if the line is an issue, its parts are available until the
+   * next call
+   */
+  boolean parse(String line) {
+    int end = line.length() - 1;
+    if (end < 0 || line.charAt(end) != ']') {
+      return false;
+    }
+    // neither message nor check name contain ']'
+    int messageBound = line.lastIndexOf(']', end - 1);
+    int checkStart = findCheckStart(line, end, messageBound);
+    if (checkStart < 0) {
+      return false;
+    }
+    // " [" is at checkStart - 2, the message has at least one character
+    int lastMessageStart = checkStart - 3;
+    // the path is greedy: the rightmost ':' followed by a valid location wins
+    for (int colon = line.lastIndexOf(':', lastMessageStart); colon > 0; colon = line.lastIndexOf(':', colon - 1)) {
+      int messageStart = matchLocation(line, colon);
+      if (messageStart > messageBound && messageStart <= lastMessageStart) {
+        path = line.substring(0, colon);
+        lineId = line.substring(colon + 1, line.indexOf(':', colon + 1));
+        message = line.substring(messageStart, checkStart - 2);
+        check = line.substring(checkStart, end);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  String getPath() {
+    return path;
+  }
+
+  String getLineId() {
+    return lineId;
+  }
+
+  String getMessage() {
+    return message;
+  }
+
+  String getCheck() {
+    return check;
+  }
+
+  /**
+   * @return start of the check name after the rightmost " [" leaving a
+   * non-empty check name and message, or -1
+   */
+  private static int findCheckStart(String line, int end, int messageBound) {
+    for (int bracket = line.lastIndexOf('[', end - 2); bracket > messageBound + 2;
+         bracket = line.lastIndexOf('[', bracket - 1)) {
+      if (line.charAt(bracket - 1) == ' ') {
+        return bracket + 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Matches <code>:[0-9]+:[0-9]+: [^:]+: </code> at the given colon.
+   *
+   * @return start of the message or -1
+   */
+  private static int matchLocation(String line, int colon) {
+    int pos = skipDigits(line, colon + 1);
+    if (pos < 0 || pos >= line.length() || line.charAt(pos) != ':') {
+      return -1;
+    }
+    pos = skipDigits(line, pos + 1);
+    if (pos < 0 || !startsWithColonSpace(line, pos)) {
+      return -1;
+    }
+    int levelStart = pos + 2;
+    int levelEnd = line.indexOf(':', levelStart);
+    if (levelEnd <= levelStart || !startsWithColonSpace(line, levelEnd)) {
+      return -1;
+    }
+    return levelEnd + 2;
+  }
+
+  /**
+   * @return position after at least one digit or -1
+   */
+  private static int skipDigits(String line, int start) {
+    int pos = start;
+    while (pos < line.length() && line.charAt(pos) >= '0' && line.charAt(pos) <= '9') {
+      pos++;
+    }
+    return pos > start ? pos : -1;
+  }
+
+  private static boolean startsWithColonSpace(String line, int pos) {
+    return pos + 1 < line.length() && line.charAt(pos) == ':' && line.charAt(pos + 1) == ' ';
+  }
+}
@@ -19,12 +19,10 @@
  */
 package org.sonar.cxx.sensors.clangtidy;
 
+import java.io.BufferedReader;
 import java.io.File;
-import java.nio.charset.StandardCharsets;
-import java.util.Scanner;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
@@ -32,6 +30,7 @@ import org.sonar.api.config.Settings;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.CxxLanguage;
+import org.sonar.cxx.CxxReportFiles;
 import org.sonar.cxx.sensors.utils.CxxReportSensor;
 
 /**
@@ -83,35 +82,29 @@ public class CxxClangTidySensor extends CxxReportSensor {
     final String reportCharset = getParserStringProperty(this.language.getPluginProperty(REPORT_CHARSET_DEF), "UTF-8");
     LOG.debug("Parsing 'clang-tidy' report, CharSet= '{}'", reportCharset);
 
-    try (Scanner scanner = new Scanner(report, reportCharset)) {
+    try (InputStream input = CxxReportFiles.open(report);
+         BufferedReader reader = new BufferedReader(new InputStreamReader(input, reportCharset))) {
       // E:\Development\SonarQube\cxx\sonar-cxx\sonar-cxx-plugin\src\test\resources\org\sonar\plugins\cxx\reports-project\clang-tidy-reports\..\..\cpd.cc:76:20: warning: ISO C++11 does not allow conversion from string literal to 'char *' [clang-diagnostic-writable-strings]
       // <path>:<line>:<column>: <level>: <message> [<checkname>]
       // relative paths
-      final String regex = "(.+|[a-zA-Z]:\\\\.+):([0-9]+):([0-9]+): ([^:]+): ([^]]+) \\[([^]]+)\\]";
-      final Pattern pattern = Pattern.compile(regex);
+      final ClangTidyLineParser parser = new ClangTidyLineParser();
 
-      while (scanner.hasNextLine()) {
-        String line = scanner.nextLine();
-        final Matcher matcher = pattern.matcher(line);
-        if (matcher.matches()) {
-          MatchResult m = matcher.toMatchResult();
-          String path = m.group(1);
-          String lineId = m.group(2);
-          String message = m.group(5);
-          String check = m.group(6);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (parser.parse(line)) {
           saveUniqueViolation(context,
             CxxClangTidyRuleRepository.KEY,
-            path,
-            lineId,
-            check,
-            message);
+            parser.getPath(),
+            parser.getLineId(),
+            parser.getCheck(),
+            parser.getMessage());
         }
       }
-    } catch (final java.io.FileNotFoundException
+    } catch (final java.io.IOException
       | java.lang.IllegalArgumentException
-      | java.lang.IllegalStateException
-      | java.util.InputMismatchException e) {
+      | java.lang.IllegalStateException e) {
       LOG.error("Failed to parse clang-tidy report: {}", e);
+      markReportIncomplete();
     }
   }
 
@@ -20,7 +20,7 @@
 package org.sonar.cxx.sensors.compiler;
 
 import java.io.File;
-import java.util.List;
+import java.util.function.Consumer;
 import java.util.Objects;
 
 import javax.annotation.Nullable;
@@ -113,6 +113,9 @@ public interface CompilerParser {
     
   }
 
-  void processReport(final SensorContext context, File report, String charset, String reportRegEx, List<Warning> warnings)
-    throws java.io.FileNotFoundException;
+  /**
+   * Reads the build log and passes every warning found to the consumer.
+   */
+  void processReport(final SensorContext context, File report, String charset, String reportRegEx,
+                     Consumer<Warning> warnings) throws java.io.IOException;
 }
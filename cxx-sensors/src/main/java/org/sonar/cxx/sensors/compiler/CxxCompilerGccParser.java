@@ -19,20 +19,12 @@
  */
 package org.sonar.cxx.sensors.compiler;
 
-import java.io.File;
-import java.util.List;
-import java.util.Scanner;
-import java.util.regex.Pattern;
-import java.util.regex.MatchResult;
-import org.sonar.api.batch.sensor.SensorContext;
-import org.sonar.api.utils.log.Logger;
-import org.sonar.api.utils.log.Loggers;
+import java.util.regex.Matcher;
 
 /**
  * {@inheritDoc}
  */
-public class CxxCompilerGccParser implements CompilerParser {
-  private static final Logger LOG = Loggers.get(CxxCompilerGccParser.class);
+public class CxxCompilerGccParser extends CxxCompilerParser {
   public static final String COMPILER_KEY = "GCC";
   // search for single line with compiler warning message - order for groups: 1 = file, 2 = line, 3 = message, 4=id
   public static final String DEFAULT_REGEX_DEF = "^(.*):([0-9]+):[0-9]+:\\x20warning:\\x20(.*)\\x20\\[(.*)\\]$";
@@ -77,30 +69,19 @@ public class CxxCompilerGccParser implements CompilerParser {
    * {@inheritDoc}
    */
   @Override
-  public void processReport(final SensorContext context, File report, String charset, String reportRegEx, List<Warning> warnings) throws java.io.FileNotFoundException {
-    LOG.info("Parsing '{}' format", COMPILER_KEY);
-
-    Scanner scanner = new Scanner(report, charset);
-    Pattern p = Pattern.compile(reportRegEx, Pattern.MULTILINE);
-    LOG.debug("Using pattern : '{}'", p);
-    MatchResult matchres;
-    while (scanner.findWithinHorizon(p, 0) != null) {
-      matchres = scanner.match();
-      String filename = matchres.group(1).trim();
-      String line = matchres.group(2);
-      String msg = matchres.group(3);
-      String id = matchres.group(4).replaceAll("=$", "");
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Scanner-matches file='{}' line='{}' id='{}' msg={}",
-        new Object[]{filename, line, id, msg});
-        }
-      warnings.add(new Warning(filename, line, id, msg));
-    }
-    scanner.close();
+  protected String defaultLineFilter() {
+    return "warning:";
   }
 
+  /**
+   * {@inheritDoc}
+   */
   @Override
-  public String toString() {
-    return getClass().getSimpleName();
+  protected Warning createWarning(Matcher matcher) {
+    String filename = matcher.group(1).trim();
+    String line = matcher.group(2);
+    String msg = matcher.group(3);
+    String id = matcher.group(4).replaceAll("=$", "");
+    return new Warning(filename, line, id, msg);
   }
 }
@@ -0,0 +1,105 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.CheckForNull;
+
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxBuildLogReader;
+
+/**
+ * The base class of compiler parsers: the build log is read line by line,
+ * large logs in concurrently parsed chunks, and the warnings are handed to the
+ * consumer in file order.
+ */
+public abstract class CxxCompilerParser implements CompilerParser {
+  private static final Logger LOG = Loggers.get(CxxCompilerParser.class);
+
+  /**
+   * Text contained in every line the default regular expression matches.
+   * Lines without it are skipped without running the regular expression.
+   *
+   * @return literal text or null if all lines have to be matched
+   */
+  @CheckForNull
+  protected abstract String defaultLineFilter();
+
+  /**
+   * Creates the warning from a line matching the regular expression, may be
+   * called concurrently for large logs
+   */
+  protected abstract Warning createWarning(Matcher matcher);
+
+  /**
+   * {@inheritDoc}
+   *
+   * The literal line filter is only used together with the default regular
+   * expression, a configured expression may match lines without it. Every
+   * match of a line is reported, a line may contain several warnings.
+   */
+  @Override
+  public void processReport(final SensorContext context, File report, String charset, String reportRegEx,
+                            Consumer<Warning> warnings) throws IOException {
+    LOG.info("Parsing '{}' format ({})", key(), charset);
+    Pattern p = Pattern.compile(reportRegEx);
+    LOG.debug("Using pattern : '{}'", p);
+    String filter = reportRegEx.equals(defaultRegexp()) ? defaultLineFilter() : null;
+    CxxBuildLogReader.processLines(report, Charset.forName(charset), (String line) -> {
+      if (filter != null && !line.contains(filter)) {
+        return null;
+      }
+      Matcher matcher = p.matcher(line);
+      List<Warning> lineWarnings = null;
+      while (matcher.find()) {
+        Warning warning = createWarning(matcher);
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Scanner-matches file='{}' line='{}' id='{}' msg={}",
+            new Object[]{warning.filename, warning.line, warning.id, warning.msg});
+        }
+        if (lineWarnings == null) {
+          lineWarnings = Collections.singletonList(warning);
+        } else {
+          if (lineWarnings.size() == 1) {
+            lineWarnings = new ArrayList<>(lineWarnings);
+          }
+          lineWarnings.add(warning);
+        }
+      }
+      return lineWarnings;
+    }, (List<Warning> lineWarnings) -> lineWarnings.forEach(warnings));
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
+}
@@ -22,8 +22,6 @@ package org.sonar.cxx.sensors.compiler;
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.LinkedList;
-import java.util.List;
 
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
@@ -116,22 +114,21 @@ public class CxxCompilerSensor extends CxxReportSensor {
     final CompilerParser parser = getCompilerParser();
     final String reportCharset = getParserStringProperty(this.language.getPluginProperty(REPORT_CHARSET_DEF), parser.defaultCharset());
     final String reportRegEx = getParserStringProperty(this.language.getPluginProperty(REPORT_REGEX_DEF), parser.defaultRegexp());
-    final List<CompilerParser.Warning> warnings = new LinkedList<>();
 
     // Iterate through the lines of the input file
     LOG.info("Scanner '{}' initialized with report '{}', CharSet= '{}'",
       new Object[]{parser.key(), report, reportCharset});
     try {
-      parser.processReport(context, report, reportCharset, reportRegEx, warnings);
-      for (CompilerParser.Warning w : warnings) {
+      parser.processReport(context, report, reportCharset, reportRegEx, (CompilerParser.Warning w) -> {
         if (isInputValid(w)) {
           saveUniqueViolation(context, parser.rulesRepositoryKey(), w.filename, w.line, w.id, w.msg);
         } else {
           LOG.warn("C-Compiler warning: '{}''{}'", w.id, w.msg);
         }
-      }
-    } catch (java.io.FileNotFoundException|java.lang.IllegalArgumentException e) {
+      });
+    } catch (java.io.IOException|java.lang.IllegalArgumentException e) {
       LOG.error("processReport Exception: {} - not processed '{}'", report, e);
+      markReportIncomplete();
     }
   }
 
@@ -19,27 +19,20 @@
  */
 package org.sonar.cxx.sensors.compiler;
 
-import java.io.File;
-import java.util.List;
-import java.util.Scanner;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.regex.MatchResult;
-import org.sonar.api.batch.sensor.SensorContext;
-import org.sonar.api.utils.log.Logger;
-import org.sonar.api.utils.log.Loggers;
-
 
 /**
  * {@inheritDoc}
  */
-public class CxxCompilerVcParser implements CompilerParser {
-  private static final Logger LOG = Loggers.get(CxxCompilerVcParser.class);
+public class CxxCompilerVcParser extends CxxCompilerParser {
   public static final String COMPILER_KEY = "Visual C++";
   // search for single line with compiler warning message VS2008 - order for groups: 1 = file, 2 = line, 3 = ID, 4=message
   public static final String DEFAULT_REGEX_DEF = "^(.*)\\((\\d+)\\)\\x20:\\x20warning\\x20(C\\d+):(.*)$";
   // sample regex for VS2012/2013: "^.*>(?<filename>.*)\\((?<line>\\d+)\\):\\x20warning\\x20(?<id>C\\d+):(?<message>.*)$";
   // get value with e.g. scanner.match().group("filename");
   public static final String DEFAULT_CHARSET_DEF = "UTF-8"; // use "UTF-16" for VS2010 build log or TFS Team build log file
+  private static final Pattern MP_PREFIX = Pattern.compile("^\\d+>.*$");
 
   /**
    * {@inheritDoc}
@@ -77,39 +70,27 @@ public class CxxCompilerVcParser implements CompilerParser {
    * {@inheritDoc}
    */
   @Override
-  public void processReport(final SensorContext context, File report, String charset, 
-                            String reportRegEx, List<Warning> warnings) throws java.io.FileNotFoundException {
-    LOG.info("Parsing 'Visual C++' format ({})", charset);
+  protected String defaultLineFilter() {
+    return " warning C";
+  }
 
-    Scanner scanner = new Scanner(report, charset);
-    Pattern p = Pattern.compile(reportRegEx, Pattern.MULTILINE);
-    LOG.info("Using pattern : '{}'", p);
-    MatchResult matchres;
-    while (scanner.findWithinHorizon(p, 0) != null) {
-      matchres = scanner.match();
-      String filename = removeMPPrefix(matchres.group(1).trim());
-      String line = matchres.group(2);
-      String id = matchres.group(3);
-      String msg = matchres.group(4);
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Scanner-matches file='{}' line='{}' id='{}' msg={}",
-        new Object[]{filename, line, id, msg});
-      }
-      warnings.add(new Warning(filename, line, id, msg));
-    }
-    scanner.close();
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Warning createWarning(Matcher matcher) {
+    String filename = removeMPPrefix(matcher.group(1).trim());
+    String line = matcher.group(2);
+    String id = matcher.group(3);
+    String msg = matcher.group(4);
+    return new Warning(filename, line, id, msg);
   }
 
   private String removeMPPrefix(String fpath) {
     // /MP (Build with Multiple Processes) will create a line prefix with the job number eg. '   42>'
-    if (fpath.matches("^\\d+>.*$")) {
+    if (MP_PREFIX.matcher(fpath).matches()) {
       return fpath.substring(fpath.indexOf('>')+1, fpath.length());
     }
     return fpath;
   }
-  
-  @Override
-  public String toString() {
-    return getClass().getSimpleName();
-  }
 }
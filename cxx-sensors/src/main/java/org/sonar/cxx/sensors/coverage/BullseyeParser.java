@@ -34,94 +34,43 @@ import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.utils.PathUtils;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
-import org.sonar.cxx.sensors.utils.StaxParser;
 
 /**
  * {@inheritDoc}
  */
-public class BullseyeParser extends CxxCoverageParser {
+public class BullseyeParser extends CxxXmlCoverageParser {
   private static final Logger LOG = Loggers.get(BullseyeParser.class);
-  private static volatile String prevLine;
-  private static int totalconditions;
-  private static int totalcoveredconditions;
+  private String prevLine;
+  private int totalconditions;
+  private int totalcoveredconditions;
 
   public BullseyeParser() {
     // no operation but necessary for list of coverage parsers 
   }
 
+  @Override
+  public boolean isSupportedRootElement(String rootElement) {
+    return "BullseyeCoverage".equals(rootElement);
+  }
+
   /**
    * {@inheritDoc}
+   *
+   * Source files can be direct children of the root element or nested in
+   * folders, both are collected while walking the tree once.
    */
   @Override
-  public void processReport(final SensorContext context, File report, final Map<String, CoverageMeasures> coverageData)
+  public void processRootElement(final SensorContext context, SMHierarchicCursor rootCursor,
+                                 final Map<String, CoverageMeasures> coverageData)
     throws XMLStreamException {
     LOG.debug("Parsing 'Bullseye' format");
-    StaxParser topLevelparser = new StaxParser(new StaxParser.XmlStreamHandler() {
-      /**
-       * {@inheritDoc}
-       */
-      @Override
-      public void stream(SMHierarchicCursor rootCursor) throws XMLStreamException {
-        rootCursor.advance();
-        collectCoverageLeafNodes(rootCursor.getAttrValue("dir"), rootCursor.childElementCursor("src"), coverageData);
-      }
-    });
-
-    StaxParser parser = new StaxParser(new StaxParser.XmlStreamHandler() {
-      /**
-       * {@inheritDoc}
-       */
-      @Override
-      public void stream(SMHierarchicCursor rootCursor) throws XMLStreamException {
-        rootCursor.advance();
-        collectCoverage2(rootCursor.getAttrValue("dir"), rootCursor.childElementCursor("folder"), coverageData);
-      }
-    });
-
-    topLevelparser.parse(report);
-    parser.parse(report);
-  }
-
-  private static void collectCoverageLeafNodes(String refPath, SMInputCursor folder, 
-                                               final Map<String, CoverageMeasures> coverageData)
-    throws XMLStreamException {
-
-    String correctPath = ensureRefPathIsCorrect(refPath);
-
-    while (folder.getNext() != null) {
-      File fileName = new File(correctPath, folder.getAttrValue("name"));
-      recTreeTopWalk(fileName, folder, coverageData);
-    }
-  }
-
-  private static void recTreeTopWalk(File fileName, SMInputCursor folder, 
-                                     final Map<String, CoverageMeasures> coverageData)
-    throws XMLStreamException {
-    SMInputCursor child = folder.childElementCursor();
-    while (child.getNext() != null) {
-      CoverageMeasures fileMeasuresBuilderIn = CoverageMeasures.create();
-
-      funcWalk(child, fileMeasuresBuilderIn);
-      coverageData.put(fileName.getPath(), fileMeasuresBuilderIn);
-    }
-  }
-
-  private static void collectCoverage2(String refPath, SMInputCursor folder, 
-                                       final Map<String, CoverageMeasures> coverageData)
-    throws XMLStreamException {
-
-    String correctPath = ensureRefPathIsCorrect(refPath);
-
-    LinkedList<String> path = new LinkedList<>();
-    while (folder.getNext() != null) {
-      String folderName = folder.getAttrValue("name");
-      path.add(folderName);
-      recTreeWalk(correctPath, folder, path, coverageData);
-      path.removeLast();
-    }
+    prevLine = null;
+    totalconditions = 0;
+    totalcoveredconditions = 0;
+    recTreeWalk(rootCursor.getAttrValue("dir"), rootCursor, new LinkedList<>(), coverageData);
   }
 
-  private static void probWalk(SMInputCursor prob, CoverageMeasures fileMeasuresBuilderIn) throws XMLStreamException {
+  private void probWalk(SMInputCursor prob, CoverageMeasures fileMeasuresBuilderIn) throws XMLStreamException {
     String line = prob.getAttrValue("line");
     String kind = prob.getAttrValue("kind");
     String event = prob.getAttrValue("event");
@@ -132,7 +81,7 @@ public class BullseyeParser extends CxxCoverageParser {
     prevLine = line;
   }
 
-  private static void funcWalk(SMInputCursor func, CoverageMeasures fileMeasuresBuilderIn) throws XMLStreamException {
+  private void funcWalk(SMInputCursor func, CoverageMeasures fileMeasuresBuilderIn) throws XMLStreamException {
     SMInputCursor prob = func.childElementCursor();
     while (prob.getNext() != null) {
       probWalk(prob, fileMeasuresBuilderIn);
@@ -140,14 +89,14 @@ public class BullseyeParser extends CxxCoverageParser {
     saveConditions(fileMeasuresBuilderIn);
   }
 
-  private static void fileWalk(SMInputCursor file, CoverageMeasures fileMeasuresBuilderIn) throws XMLStreamException {
+  private void fileWalk(SMInputCursor file, CoverageMeasures fileMeasuresBuilderIn) throws XMLStreamException {
     SMInputCursor func = file.childElementCursor();
     while (func.getNext() != null) {
       funcWalk(func, fileMeasuresBuilderIn);
     }
   }
 
-  private static void recTreeWalk(String refPath, SMInputCursor folder, List<String> path, 
+  private void recTreeWalk(String refPath, SMInputCursor folder, List<String> path, 
                            final Map<String, CoverageMeasures> coverageData)
     throws XMLStreamException {
 
@@ -163,8 +112,8 @@ public class BullseyeParser extends CxxCoverageParser {
         CoverageMeasures fileMeasuresBuilderIn = CoverageMeasures.create();
         fileWalk(child, fileMeasuresBuilderIn);
         if (LOG.isDebugEnabled()) {
-          LOG.debug("lines covered: '{}':'{}'", filePath, fileMeasuresBuilderIn.getCoveredLines());
-          LOG.debug("condition covered: '{}':'{}'", filePath, fileMeasuresBuilderIn.getCoveredConditions());
+          LOG.debug("lines covered: '{}':'{}'", filePath, fileMeasuresBuilderIn.getCoveredLinesCount());
+          LOG.debug("condition covered: '{}':'{}'", filePath, fileMeasuresBuilderIn.getCoveredConditionsCount());
         }
         coverageData.put(filePath, fileMeasuresBuilderIn);
       } else {
@@ -174,7 +123,7 @@ public class BullseyeParser extends CxxCoverageParser {
     }
   }
 
-  private static void saveConditions(CoverageMeasures fileMeasuresBuilderIn) {
+  private void saveConditions(CoverageMeasures fileMeasuresBuilderIn) {
     if (totalconditions > 0) {
       if (totalcoveredconditions == 0) {
         fileMeasuresBuilderIn.setHits(Integer.parseInt(prevLine), 0);
@@ -187,7 +136,7 @@ public class BullseyeParser extends CxxCoverageParser {
     totalcoveredconditions = 0;
   }
 
-  private static void updateMeasures(String kind, String event, String line, CoverageMeasures fileMeasuresBuilderIn) {
+  private void updateMeasures(String kind, String event, String line, CoverageMeasures fileMeasuresBuilderIn) {
 
     switch (kind.toLowerCase(Locale.ENGLISH)) {
       case "decision":
@@ -221,7 +170,7 @@ public class BullseyeParser extends CxxCoverageParser {
   /**
    * @param event
    */
-  private static void setTotalCoveredConditions(String event) {
+  private void setTotalCoveredConditions(String event) {
     switch (event.toLowerCase(Locale.ENGLISH)) {
       case "full":
         totalcoveredconditions += 2;
@@ -238,11 +187,6 @@ public class BullseyeParser extends CxxCoverageParser {
     }
   }
 
-  @Override
-  public String toString() {
-    return getClass().getSimpleName();
-  }
-
   private static String ensureRefPathIsCorrect(@Nullable String refPath) {
     if (refPath == null || refPath.isEmpty() ) {
       return refPath;
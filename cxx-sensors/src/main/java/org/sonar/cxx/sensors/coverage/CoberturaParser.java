@@ -19,7 +19,6 @@
  */
 package org.sonar.cxx.sensors.coverage;
 
-import java.io.File;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -31,55 +30,51 @@ import org.codehaus.staxmate.in.SMInputCursor;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
-import org.sonar.cxx.sensors.utils.CxxUtils;
-import org.sonar.cxx.sensors.utils.StaxParser;
 
 /**
  * {@inheritDoc}
  */
-public class CoberturaParser extends CxxCoverageParser {
+public class CoberturaParser extends CxxXmlCoverageParser {
   private static final Logger LOG = Loggers.get(CoberturaParser.class);
+  private static final Pattern CONDITION_PATTERN = Pattern.compile("\\((.*?)\\)");
 
   public CoberturaParser() {
     // no operation but necessary for list of coverage parsers 
   }
 
+  @Override
+  public boolean isSupportedRootElement(String rootElement) {
+    return "coverage".equals(rootElement);
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
-  public void processReport(final SensorContext context, File report, final Map<String, CoverageMeasures> coverageData)
+  public void processRootElement(final SensorContext context, SMHierarchicCursor rootCursor,
+                                 final Map<String, CoverageMeasures> coverageData)
     throws XMLStreamException {
     LOG.debug("Parsing 'Cobertura' format");
-    StaxParser parser = new StaxParser(new StaxParser.XmlStreamHandler() {
-      /**
-       * {@inheritDoc}
-       */
-      @Override
-      public void stream(SMHierarchicCursor rootCursor) throws XMLStreamException {
-        rootCursor.advance();
-        collectPackageMeasures(context, rootCursor.descendantElementCursor("package"), coverageData);
-      }
-    });
-    parser.parse(report);
+    collectPackageMeasures(rootCursor.descendantElementCursor("package"), coverageData);
   }
 
-  private void collectPackageMeasures(final SensorContext context, SMInputCursor pack, Map<String, CoverageMeasures> coverageData)
+  private void collectPackageMeasures(SMInputCursor pack, Map<String, CoverageMeasures> coverageData)
     throws XMLStreamException {
     while (pack.getNext() != null) {
-      collectFileMeasures(context, pack.descendantElementCursor("class"), coverageData);
+      collectFileMeasures(pack.descendantElementCursor("class"), coverageData);
     }
   }
 
-  private void collectFileMeasures(final SensorContext context, SMInputCursor clazz, Map<String, CoverageMeasures> coverageData)
+  private void collectFileMeasures(SMInputCursor clazz, Map<String, CoverageMeasures> coverageData)
     throws XMLStreamException {
     while (clazz.getNext() != null) {
-      String normalPath = CxxUtils.normalizePathFull(clazz.getAttrValue("filename"), context.fileSystem().baseDir().getAbsolutePath());
-      if (normalPath != null) {
-        CoverageMeasures builder = coverageData.get(normalPath);
+      // paths are normalized by the sensor once the whole report is read
+      String fileName = clazz.getAttrValue("filename");
+      if (fileName != null) {
+        CoverageMeasures builder = coverageData.get(fileName);
         if (builder == null) {
           builder = CoverageMeasures.create();
-          coverageData.put(normalPath, builder);
+          coverageData.put(fileName, builder);
         }
         collectFileData(clazz, builder);
       }
@@ -101,8 +96,7 @@ public class CoberturaParser extends CxxCoverageParser {
       String isBranch = line.getAttrValue("branch");
       String text = line.getAttrValue("condition-coverage");
       if (text != null && "true".equals(isBranch) && !text.trim().isEmpty()) {
-        Pattern p = Pattern.compile("\\((.*?)\\)");
-        Matcher m = p.matcher(text);
+        Matcher m = CONDITION_PATTERN.matcher(text);
         if (m.find()) {
           String[] conditions = m.group(1).split("/");
           builder.setConditions(lineId, Integer.parseInt(conditions[1]), Integer.parseInt(conditions[0]));
@@ -110,9 +104,4 @@ public class CoberturaParser extends CxxCoverageParser {
       }
     }
   }
-
-  @Override
-  public String toString() {
-    return getClass().getSimpleName();
-  }
 }
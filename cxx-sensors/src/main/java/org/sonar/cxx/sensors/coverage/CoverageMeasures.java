@@ -19,64 +19,275 @@
  */
 package org.sonar.cxx.sensors.coverage;
 
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.Set;
-
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
+import java.util.TreeMap;
 
 /**
+ * Coverage measures of one source file. The measures are stored in primitive
+ * arrays indexed by line number, lines without measure are marked with a
+ * negative hit count. Lines beyond {@link #DENSE_LIMIT} are kept in a sparse
+ * map, so a bogus line number in a report does not allocate huge arrays.
  *
  * @author jocs
  */
 class CoverageMeasures {
-  private final Map<Integer, CoverageMeasure> lineMeasures = new HashMap<>();
-  
+  private static final int NO_MEASURE = -1;
+  private static final int INITIAL_CAPACITY = 64;
+  static final int DENSE_LIMIT = 1 << 16;
+  private static final int HITS = 0;
+  private static final int CONDITIONS = 1;
+  private static final int COVERED = 2;
+
+  private int[] hits = new int[0];
+  private int[] conditions = new int[0];
+  private int[] coveredConditions = new int[0];
+  // hits, conditions and covered conditions of the lines beyond DENSE_LIMIT
+  private TreeMap<Integer, int[]> sparse;
+  private int size;
+
   private CoverageMeasures() {
     // empty
   }
-  
+
   static CoverageMeasures create() {
     return new CoverageMeasures();
   }
 
+  /**
+   * Adds hits to a line, the sum saturates at Integer.MAX_VALUE
+   */
   void setHits(int lineId, int hits) {
-    lineMeasures.computeIfAbsent(lineId, v -> new CoverageMeasure(lineId));
-    CoverageMeasure coverageMeasure = lineMeasures.get(lineId);
-    coverageMeasure.setHits(hits);
+    if (lineId < 0) {
+      return;
+    }
+    if (lineId >= DENSE_LIMIT) {
+      int[] measure = sparseLine(lineId);
+      measure[HITS] = addSaturated(measure[HITS], hits);
+      return;
+    }
+    touch(lineId);
+    this.hits[lineId] = addSaturated(this.hits[lineId], hits);
   }
 
   void setConditions(int lineId, int totalConditions, int coveredConditions) {
-    lineMeasures.computeIfAbsent(lineId, v -> new CoverageMeasure(lineId));
-    CoverageMeasure coverageMeasure = lineMeasures.get(lineId);
-    coverageMeasure.setConditions(totalConditions, coveredConditions);
-  }
-
-  Collection<CoverageMeasure> getCoverageMeasures() {
-    Map<Integer, CoverageMeasure> measures = new HashMap<>();
-    measures.putAll(lineMeasures);
-    return measures.values();
-  }  
-  
-  Set<Integer> getCoveredLines() {
-    Set<Integer> coveredLines = Sets.newHashSet();
-    lineMeasures.forEach((key, value) -> {
-      if (value.getHits() != 0) {
-        coveredLines.add(value.getLine());
+    if (lineId < 0) {
+      return;
+    }
+    if (lineId >= DENSE_LIMIT) {
+      int[] measure = sparseLine(lineId);
+      measure[CONDITIONS] = totalConditions;
+      measure[COVERED] = coveredConditions;
+      return;
+    }
+    touch(lineId);
+    this.conditions[lineId] = totalConditions;
+    this.coveredConditions[lineId] = coveredConditions;
+  }
+
+  /**
+   * Adds conditions to a line, used by formats reporting each branch separately
+   */
+  void addConditions(int lineId, int totalConditions, int coveredConditions) {
+    if (lineId < 0) {
+      return;
+    }
+    if (lineId >= DENSE_LIMIT) {
+      int[] measure = sparseLine(lineId);
+      measure[CONDITIONS] = addSaturated(measure[CONDITIONS], totalConditions);
+      measure[COVERED] = addSaturated(measure[COVERED], coveredConditions);
+      return;
+    }
+    touch(lineId);
+    this.conditions[lineId] = addSaturated(this.conditions[lineId], totalConditions);
+    this.coveredConditions[lineId] = addSaturated(this.coveredConditions[lineId], coveredConditions);
+  }
+
+  /**
+   * Merges the measures of another report for the same source file into this
+   * one: hits are added, conditions take the maximum of both reports.
+   *
+   * @param other measures to add
+   */
+  void merge(CoverageMeasures other) {
+    if (other.hits.length > hits.length) {
+      grow(other.hits.length);
+    }
+    for (int line = 0; line < other.hits.length; line++) {
+      if (other.hits[line] != NO_MEASURE) {
+        touch(line);
+        hits[line] = addSaturated(hits[line], other.hits[line]);
+        conditions[line] = Math.max(conditions[line], other.conditions[line]);
+        coveredConditions[line] = Math.max(coveredConditions[line], other.coveredConditions[line]);
+      }
+    }
+    if (other.sparse != null) {
+      for (Map.Entry<Integer, int[]> line : other.sparse.entrySet()) {
+        int[] measure = sparseLine(line.getKey());
+        measure[HITS] = addSaturated(measure[HITS], line.getValue()[HITS]);
+        measure[CONDITIONS] = Math.max(measure[CONDITIONS], line.getValue()[CONDITIONS]);
+        measure[COVERED] = Math.max(measure[COVERED], line.getValue()[COVERED]);
+      }
+    }
+  }
+
+  /**
+   * Calls the visitor for each line with a measure in ascending line order
+   */
+  void forEach(LineMeasureVisitor visitor) {
+    for (int line = 0; line < hits.length; line++) {
+      if (hits[line] != NO_MEASURE) {
+        visitor.visit(line, hits[line], conditions[line], coveredConditions[line]);
+      }
+    }
+    if (sparse != null) {
+      for (Map.Entry<Integer, int[]> line : sparse.entrySet()) {
+        int[] measure = line.getValue();
+        visitor.visit(line.getKey(), measure[HITS], measure[CONDITIONS], measure[COVERED]);
+      }
+    }
+  }
+
+  /**
+   * Releases the unused capacity behind the last line with a measure
+   */
+  void trim() {
+    int length = hits.length;
+    while (length > 0 && hits[length - 1] == NO_MEASURE) {
+      length--;
+    }
+    if (length < hits.length) {
+      hits = Arrays.copyOf(hits, length);
+      conditions = Arrays.copyOf(conditions, length);
+      coveredConditions = Arrays.copyOf(coveredConditions, length);
+    }
+  }
+
+  /**
+   * @return estimated heap usage of the measures in bytes
+   */
+  long estimatedSize() {
+    // object header and fields plus three int arrays with their headers,
+    // a sparse line takes a map entry, its key and an int[3]
+    return 40L + 3L * (16L + 4L * hits.length) + (sparse != null ? 88L * sparse.size() : 0L);
+  }
+
+  /**
+   * @return number of lines with a measure
+   */
+  int size() {
+    return size;
+  }
+
+  int getHits(int lineId) {
+    if (lineId >= DENSE_LIMIT) {
+      return getSparse(lineId, HITS);
+    }
+    return hasMeasure(lineId) ? hits[lineId] : 0;
+  }
+
+  int getConditions(int lineId) {
+    if (lineId >= DENSE_LIMIT) {
+      return getSparse(lineId, CONDITIONS);
+    }
+    return hasMeasure(lineId) ? conditions[lineId] : 0;
+  }
+
+  int getCoveredConditions(int lineId) {
+    if (lineId >= DENSE_LIMIT) {
+      return getSparse(lineId, COVERED);
+    }
+    return hasMeasure(lineId) ? coveredConditions[lineId] : 0;
+  }
+
+  int getCoveredLinesCount() {
+    int count = 0;
+    for (int value : hits) {
+      if (value > 0) {
+        count++;
+      }
+    }
+    if (sparse != null) {
+      for (int[] measure : sparse.values()) {
+        if (measure[HITS] > 0) {
+          count++;
+        }
       }
-    });
-    return ImmutableSet.copyOf(coveredLines);
-  }
-  
-  Set<Integer> getCoveredConditions() {
-    Set<Integer> coveredConditionLines = Sets.newHashSet();
-    lineMeasures.forEach((key, value) -> {
-      if (value.getCoveredConditions() != 0) {
-        coveredConditionLines.add(value.getLine());
+    }
+    return count;
+  }
+
+  int getCoveredConditionsCount() {
+    int count = 0;
+    for (int line = 0; line < hits.length; line++) {
+      if (hits[line] != NO_MEASURE && coveredConditions[line] != 0) {
+        count++;
+      }
+    }
+    if (sparse != null) {
+      for (int[] measure : sparse.values()) {
+        if (measure[COVERED] != 0) {
+          count++;
+        }
       }
-    });
-    return ImmutableSet.copyOf(coveredConditionLines);
+    }
+    return count;
+  }
+
+  private boolean hasMeasure(int lineId) {
+    return lineId >= 0 && lineId < hits.length && hits[lineId] != NO_MEASURE;
+  }
+
+  private int getSparse(int lineId, int index) {
+    int[] measure = sparse != null ? sparse.get(lineId) : null;
+    return measure != null ? measure[index] : 0;
+  }
+
+  private int[] sparseLine(int lineId) {
+    if (sparse == null) {
+      sparse = new TreeMap<>();
+    }
+    int[] measure = sparse.get(lineId);
+    if (measure == null) {
+      measure = new int[3];
+      sparse.put(lineId, measure);
+      size++;
+    }
+    return measure;
+  }
+
+  private void touch(int lineId) {
+    if (lineId >= hits.length) {
+      int capacity = Math.max(INITIAL_CAPACITY, hits.length + (hits.length >> 1));
+      grow(Math.min(DENSE_LIMIT, Math.max(lineId + 1, capacity)));
+    }
+    if (hits[lineId] == NO_MEASURE) {
+      hits[lineId] = 0;
+      size++;
+    }
+  }
+
+  private void grow(int capacity) {
+    int oldCapacity = hits.length;
+    hits = Arrays.copyOf(hits, capacity);
+    Arrays.fill(hits, oldCapacity, capacity, NO_MEASURE);
+    conditions = Arrays.copyOf(conditions, capacity);
+    coveredConditions = Arrays.copyOf(coveredConditions, capacity);
+  }
+
+  private static int addSaturated(int value, int add) {
+    long sum = (long) value + add;
+    if (sum > Integer.MAX_VALUE) {
+      return Integer.MAX_VALUE;
+    }
+    return sum < 0 ? 0 : (int) sum;
+  }
+
+  /**
+   * Callback for {@link CoverageMeasures#forEach}
+   */
+  @FunctionalInterface
+  interface LineMeasureVisitor {
+    void visit(int line, int hits, int conditions, int coveredConditions);
   }
 }
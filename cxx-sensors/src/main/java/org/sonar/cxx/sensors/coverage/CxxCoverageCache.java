@@ -19,33 +19,149 @@
  */
 package org.sonar.cxx.sensors.coverage;
 
-import java.util.HashMap;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.annotation.CheckForNull;
 import org.sonar.api.batch.BatchSide;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 
 /**
+ * Keeps the parsed coverage reports of the analysis, so that a report shared
+ * by several modules is parsed only once. The measures of each report are
+ * indexed by normalized source path and held by soft references: they are
+ * dropped by the garbage collector when memory runs low and the least recently
+ * used reports are evicted when the cache exceeds its size limit.
  *
  * @author jocs
  */
 @BatchSide
 public class CxxCoverageCache {
 
-  private final static Map<String, Map<String, CoverageMeasures>> CACHE_UNIT = new HashMap<>();
-  private final static Map<String, Map<String, CoverageMeasures>> CACHE_IT = new HashMap<>();
-  private final static Map<String, Map<String, CoverageMeasures>> CACHE_OVERALL = new HashMap<>();
-  
+  private static final Logger LOG = Loggers.get(CxxCoverageCache.class);
+
+  /**
+   * share of the maximum heap size the cache may use
+   */
+  private static final int MAX_HEAP_SHARE_PERCENT = 25;
+
+  private final ReportCache cacheUnit;
+  private final ReportCache cacheIt;
+  private final ReportCache cacheOverall;
+
   public CxxCoverageCache() {
+    this(Runtime.getRuntime().maxMemory() / 100 * MAX_HEAP_SHARE_PERCENT);
+  }
+
+  /**
+   * @param maxSize maximum estimated size of all cached measures in bytes
+   */
+  public CxxCoverageCache(long maxSize) {
+    cacheUnit = new ReportCache("unit", maxSize);
+    cacheIt = new ReportCache("integration", maxSize);
+    cacheOverall = new ReportCache("overall", maxSize);
+  }
+
+  public ReportCache unitCoverageCache() {
+    return cacheUnit;
+  }
+
+  public ReportCache integrationCoverageCache() {
+    return cacheIt;
   }
 
-  public Map<String, Map<String, CoverageMeasures>> unitCoverageCache() {
-    return CACHE_UNIT;
+  public ReportCache overallCoverageCache() {
+    return cacheOverall;
   }
 
-  public Map<String, Map<String, CoverageMeasures>> integrationCoverageCache() {
-    return CACHE_IT;
+  /**
+   * Cache of the measures of one coverage type, mapping the absolute path of a
+   * report to the measures of the report indexed by normalized source path
+   */
+  public static final class ReportCache {
+
+    private final String name;
+    private final long maxSize;
+    private final Map<String, Entry> reports = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    ReportCache(String name, long maxSize) {
+      this.name = name;
+      this.maxSize = maxSize;
+    }
+
+    /**
+     * @param reportPath absolute path of the report
+     * @return measures of the report or null if not cached or already evicted
+     */
+    @CheckForNull
+    synchronized Map<String, CoverageMeasures> get(String reportPath) {
+      Entry entry = reports.get(reportPath);
+      if (entry == null) {
+        return null;
+      }
+      Map<String, CoverageMeasures> measures = entry.measures.get();
+      if (measures == null) {
+        LOG.debug("{} coverage of report '{}' was evicted from cache", name, reportPath);
+        reports.remove(reportPath);
+        size -= entry.size;
+      }
+      return measures;
+    }
+
+    /**
+     * @param reportPath absolute path of the report
+     * @param measures measures of the report, indexed by normalized source path
+     */
+    synchronized void put(String reportPath, Map<String, CoverageMeasures> measures) {
+      long entrySize = 0;
+      for (Map.Entry<String, CoverageMeasures> file : measures.entrySet()) {
+        entrySize += 2L * file.getKey().length() + file.getValue().estimatedSize();
+      }
+      Entry previous = reports.put(reportPath, new Entry(Collections.unmodifiableMap(measures), entrySize));
+      if (previous != null) {
+        size -= previous.size;
+      }
+      size += entrySize;
+      evict();
+      LOG.debug("{} coverage cache holds {} report(s) with an estimated size of {} KB", name, reports.size(),
+        size / 1024);
+    }
+
+    /**
+     * @return estimated size of the cached measures in bytes
+     */
+    synchronized long size() {
+      return size;
+    }
+
+    private void evict() {
+      Iterator<Map.Entry<String, Entry>> iterator = reports.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<String, Entry> eldest = iterator.next();
+        if (size <= maxSize || reports.size() == 1) {
+          if (eldest.getValue().measures.get() != null) {
+            continue;
+          }
+        } else {
+          LOG.debug("{} coverage of report '{}' evicted from cache", name, eldest.getKey());
+        }
+        size -= eldest.getValue().size;
+        iterator.remove();
+      }
+    }
   }
 
-  public Map<String, Map<String, CoverageMeasures>> overallCoverageCache() {
-    return CACHE_OVERALL;
+  private static final class Entry {
+    private final SoftReference<Map<String, CoverageMeasures>> measures;
+    private final long size;
+
+    Entry(Map<String, CoverageMeasures> measures, long size) {
+      this.measures = new SoftReference<>(measures);
+      this.size = size;
+    }
   }
 }
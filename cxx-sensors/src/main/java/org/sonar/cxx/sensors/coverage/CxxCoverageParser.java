@@ -23,4 +23,25 @@ package org.sonar.cxx.sensors.coverage;
  * The base class for coverage report parsers
  */
 public abstract class CxxCoverageParser implements CoverageParser {
+
+  /**
+   * @param rootElement name of the root element of a XML report
+   * @return true if the parser is able to read reports with this root element
+   */
+  public boolean isSupportedRootElement(String rootElement) {
+    return false;
+  }
+
+  /**
+   * @param firstLine first non-empty line of a text report
+   * @return true if the parser is able to read reports starting with this line
+   */
+  public boolean isSupportedTextReport(String firstLine) {
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
 }
@@ -1,382 +1,573 @@
-/*
- * Sonar C++ Plugin (Community)
- * Copyright (C) 2010-2017 SonarOpenCommunity
- * http://github.com/SonarOpenCommunity/sonar-cxx
- *
- * This program is free software; you can redistribute it and/or
- * modify it under the terms of the GNU Lesser General Public
- * License as published by the Free Software Foundation; either
- * version 3 of the License, or (at your option) any later version.
- *
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
- * Lesser General Public License for more details.
- *
- * You should have received a copy of the GNU Lesser General Public License
- * along with this program; if not, write to the Free Software Foundation,
- * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
- */
-package org.sonar.cxx.sensors.coverage;
-
-import java.io.File;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import javax.annotation.Nullable;
-
-import javax.xml.stream.XMLStreamException;
-
-import org.sonar.api.batch.fs.FilePredicates;
-import org.sonar.api.batch.fs.FileSystem;
-
-import org.sonar.api.batch.sensor.SensorContext;
-import org.sonar.api.batch.fs.InputFile;
-import org.sonar.api.batch.sensor.SensorDescriptor;
-import org.sonar.api.batch.sensor.coverage.NewCoverage;
-import org.sonar.api.config.Settings;
-import org.sonar.api.batch.sensor.coverage.CoverageType;
-import org.sonar.api.utils.PathUtils;
-import org.sonar.api.utils.Version;
-import org.sonar.api.utils.log.Logger;
-import org.sonar.api.utils.log.Loggers;
-import org.sonar.cxx.CxxLanguage;
-import org.sonar.cxx.sensors.utils.CxxReportSensor;
-import org.sonar.cxx.sensors.utils.CxxUtils;
-import org.sonar.cxx.sensors.utils.EmptyReportException;
-
-/**
- * {@inheritDoc}
- */
-public class CxxCoverageSensor extends CxxReportSensor {
-  private static final Logger LOG = Loggers.get(CxxCoverageSensor.class);
-
-  // Configuration properties before SQ 6.2
-  @Deprecated
-  public static final String REPORT_PATH_KEY = "coverage.reportPath";
-  @Deprecated
-  public static final String IT_REPORT_PATH_KEY = "coverage.itReportPath";
-  @Deprecated
-  public static final String OVERALL_REPORT_PATH_KEY = "coverage.overallReportPath";
-  @Deprecated
-  public static final String FORCE_ZERO_COVERAGE_KEY = "coverage.forceZeroCoverage";
-
-  // Configuration properties for SQ 6.2
-  public static final Version SQ_6_2 = Version.create(6, 2);
-  private boolean isSQ_6_2_or_newer;
-
-  // ToDo - cleanup reportPath properties 
-  // a) deprecate old feature ant style search 
-  // b) support comma separated list of coverage files
-  //public static final String REPORT_PATHS_KEY = "coverage.reportPaths";
-
-  private final List<CoverageParser> parsers = new LinkedList<>();
-  private final CxxCoverageCache cache;
-  public static final String KEY = "Coverage";
-
-  /**
-   * {@inheritDoc}
-   * @param cache for all coverage data
-   * @param language for current analysis
-   * @param context for current file
-   */
-  public CxxCoverageSensor(CxxCoverageCache cache, CxxLanguage language, SensorContext context) {
-    super(language, context.settings());
-    this.cache = cache;
-    if (context.getSonarQubeVersion().isGreaterThanOrEqual(SQ_6_2)) {
-      isSQ_6_2_or_newer = true;
-    }
-    parsers.add(new CoberturaParser());
-    parsers.add(new BullseyeParser());
-    parsers.add(new VisualStudioParser());
-  }
-
-  @Override
-  public void describe(SensorDescriptor descriptor) {
-    descriptor.onlyOnLanguage(this.language.getKey()).name(language.getName() + " CoverageSensor");
-  }
-
-  /**
-   * {@inheritDoc}
-   */
-  @Override
-  public void execute(SensorContext context) {
-    // do nothing
-  }
-
-  /**
-   * {@inheritDoc}
-   * @param context for coverage analysis
-   * @param linesOfCodeByFile use for FORCE_ZERO_COVERAGE_KEY feature 
-   */
-  public void execute(SensorContext context, Map<InputFile, Set<Integer>> linesOfCodeByFile) {
-    Settings settings = context.settings();
-    String[] reportsKey = settings.getStringArray(getReportPathKey());
-    LOG.info("Searching coverage reports by path with basedir '{}' and search prop '{}'", 
-        context.fileSystem().baseDir(), getReportPathKey());
-    LOG.info("Searching for coverage reports '{}'", Arrays.toString(reportsKey));
-    
-    Map<String, CoverageMeasures> coverageMeasures = null;
-    Map<String, CoverageMeasures> itCoverageMeasures = null;
-    Map<String, CoverageMeasures> overallCoverageMeasures = null;
-
-    LOG.info("Coverage BaseDir '{}' ", context.fileSystem().baseDir());
-
-    if (context.settings().hasKey(getReportPathKey())) {
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Parsing unit test coverage reports");
-      }
-
-      List<File> reports = getReports(context.settings(), context.fileSystem().baseDir(), getReportPathKey());
-      coverageMeasures = processReports(context, reports, this.cache.unitCoverageCache());
-      saveMeasures(context, coverageMeasures, CoverageType.UNIT);
-    }
-
-    if (settings.hasKey(getITReportPathKey())) {
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Parsing integration test coverage reports");
-      }
-      warnUsageOfDeprecatedProperty(settings, getITReportPathKey());
-      List<File> itReports = getReports(settings, context.fileSystem().baseDir(), getITReportPathKey());
-      itCoverageMeasures = processReports(context, itReports, this.cache.integrationCoverageCache());
-      saveMeasures(context, itCoverageMeasures, CoverageType.IT);
-    }
-
-    if (settings.hasKey(getOverallReportPathKey())) {
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Parsing overall test coverage reports");
-      }
-      warnUsageOfDeprecatedProperty(settings, getOverallReportPathKey());
-      List<File> overallReports = getReports(settings, 
-                                             context.fileSystem().baseDir(), getOverallReportPathKey());
-      overallCoverageMeasures = processReports(context, overallReports, this.cache.overallCoverageCache());
-      saveMeasures(context, overallCoverageMeasures, CoverageType.OVERALL);
-    }
-
-    if (settings.getBoolean(getForceZeroCoverageKey())) {
-      if (isSQ_6_2_or_newer) {
-        LOG.warn("Deprecated property '{}' ignored.", getForceZeroCoverageKey());
-      } else {
-        LOG.info("Zeroing coverage information for untouched files");
-        zeroMeasuresWithoutReports(context, coverageMeasures,
-                                            itCoverageMeasures,
-                                            overallCoverageMeasures, 
-                                            linesOfCodeByFile);
-      }
-    }
-  }
-
-  private void zeroMeasuresWithoutReports(
-    SensorContext context,
-    @Nullable Map<String, CoverageMeasures> coverageMeasures,
-    @Nullable Map<String, CoverageMeasures> itCoverageMeasures,
-    @Nullable Map<String, CoverageMeasures> overallCoverageMeasures,
-    Map<InputFile, Set<Integer>> linesOfCode
-  ) {
-
-    FileSystem fileSystem = context.fileSystem();
-    FilePredicates p = fileSystem.predicates();
-    Iterable<InputFile> inputFiles = fileSystem.inputFiles(p.and(p.hasType(InputFile.Type.MAIN),
-                                                           p.hasLanguage(this.language.getKey())));
-
-    for (InputFile inputFile : inputFiles) {
-      Set<Integer> linesOfCodeForFile = linesOfCode.get(inputFile);
-      String file = CxxUtils.normalizePath(inputFile.absolutePath());
-
-      if (coverageMeasures != null && !coverageMeasures.containsKey(file)) {
-        saveZeroValueForResource(inputFile, context, CoverageType.UNIT, linesOfCodeForFile);
-      }
-
-      if (itCoverageMeasures != null && !itCoverageMeasures.containsKey(file)) {
-        saveZeroValueForResource(inputFile, context, CoverageType.IT, linesOfCodeForFile);
-      }
-
-      if (overallCoverageMeasures != null && !overallCoverageMeasures.containsKey(file)) {
-        saveZeroValueForResource(inputFile, context, CoverageType.OVERALL, linesOfCodeForFile);
-      }
-    }
-  }
-
-  private void saveZeroValueForResource(InputFile inputFile, SensorContext context, CoverageType ctype, 
-                                        @Nullable Set<Integer> linesOfCode) {
-    if (linesOfCode != null) {
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Zeroing {} coverage measures for file '{}'", ctype, inputFile.relativePath());
-      }
-      NewCoverage newCoverage = context.newCoverage()
-        .onFile(inputFile)
-        .ofType(ctype);
-
-      try {
-        linesOfCode.forEach((Integer line) -> newCoverage.lineHits(line, 0));
-        } catch (RuntimeException ex) {
-        LOG.error("Cannot save Line Hits for Line '{}' : '{}', ignoring measure", 
-            inputFile.relativePath(), ex);
-        CxxUtils.validateRecovery(ex, this.language);
-      }
-
-      try {
-        newCoverage.save();
-      } catch (RuntimeException ex) {
-        LOG.error("Cannot save measure '{}' : '{}', ignoring measure", inputFile.relativePath(), ex);
-        CxxUtils.validateRecovery(ex, this.language);
-      }
-    }
-  }
-
-  private Map<String, CoverageMeasures> processReports(final SensorContext context, List<File> reports, 
-                                                       Map<String, Map<String, CoverageMeasures>> cacheCov) {
-    Map<String, CoverageMeasures> measuresTotal = new HashMap<>();
-
-    for (File report : reports) {
-      if (!cacheCov.containsKey(report.getAbsolutePath())) {
-        for (CoverageParser parser : parsers) {
-          try {
-            parseCoverageReport(parser, context, report, measuresTotal);
-            if (LOG.isDebugEnabled()) {
-              LOG.debug("cached measures for '{}' : current cache content data = '{}'", report.getAbsolutePath(),
-                  cacheCov.size());
-            }
-            cacheCov.put(report.getAbsolutePath(), measuresTotal);
-            // Only use first coverage parser which handles the data correctly
-            break;
-          } catch (EmptyReportException e) {
-            LOG.debug("Report is empty {}", e);
-          }
-        }
-        if (cacheCov.get(report.getAbsolutePath()) != null) {
-          measuresTotal.putAll(cacheCov.get(report.getAbsolutePath()));
-        }
-      } else {
-        measuresTotal = cacheCov.get(report.getAbsolutePath());
-        if (LOG.isDebugEnabled()) {
-          LOG.debug("Processing report '{}' skipped - already in cache", report);
-        }
-      }
-    }
-    return measuresTotal;
-  }
-
-  /**
-   * @param parser
-   * @param context
-   * @param report
-   * @param measuresTotal
-   * @return true if report was parsed and results are available otherwise false
-   */
-  private void parseCoverageReport(CoverageParser parser, final SensorContext context, File report,
-                                      Map<String, CoverageMeasures> measuresTotal) {
-    Map<String, CoverageMeasures> measuresForReport = new HashMap<>();
-    try {
-      parser.processReport(context, report, measuresForReport);
-    } catch (XMLStreamException e) {
-      throw new EmptyReportException("Coverage report" + report + "cannot be parsed by" + parser, e); 
-    }
-
-    if (measuresForReport.isEmpty()) {
-      throw new EmptyReportException("Coverage report " + report + " result is empty (parsed by " + parser +")");
-    }
-
-    measuresTotal.putAll(measuresForReport);
-    LOG.info("Added coverage report '{}' (parsed by: {})", report, parser);
-  }
-
-  private void saveMeasures(SensorContext context,
-    Map<String, CoverageMeasures> coverageMeasures,
-    CoverageType ctype) {
-    for (Map.Entry<String, CoverageMeasures> entry : coverageMeasures.entrySet()) {
-      String filePath = PathUtils.sanitize(entry.getKey());
-      if (filePath!= null) {
-        filePath = CxxUtils.normalizePathFull(filePath, context.fileSystem().baseDir().getAbsolutePath());
-        InputFile cxxFile = context.fileSystem().inputFile(context.fileSystem().predicates().hasPath(filePath));
-        if (LOG.isDebugEnabled()) {
-          LOG.debug("save coverage measure for file: '{}' cxxFile = '{}'", filePath, cxxFile);
-        }
-        if (cxxFile != null) {
-
-          NewCoverage newCoverage = context.newCoverage()
-                    .onFile(cxxFile)        
-                    .ofType(ctype);
-
-          Collection<CoverageMeasure> measures = entry.getValue().getCoverageMeasures();
-          if (LOG.isDebugEnabled()) {
-            LOG.debug("Saving '{}' coverage measures for file '{}'", measures.size(), filePath);
-          }
-          
-          measures.forEach((CoverageMeasure measure) -> checkCoverage(newCoverage, measure));
-
-          try {
-            newCoverage.save();
-          } catch(RuntimeException ex) {
-            LOG.error("Cannot save measure for file '{}' , ignoring measure. ", filePath, ex);
-            CxxUtils.validateRecovery(ex, this.language);
-          }
-          LOG.info("Saved '{}' coverage measures for file '{}'", measures.size(), filePath);
-        } else {
-          if (LOG.isDebugEnabled()) {
-            LOG.debug("Cannot find the file '{}', ignoring coverage measures", filePath);
-          } else if (filePath.startsWith(context.fileSystem().baseDir().getAbsolutePath())) {
-            LOG.warn("Cannot find the file '{}', ignoring coverage measures", filePath);
-          }
-        }
-      } else {
-        if (LOG.isDebugEnabled()) {
-          LOG.debug("Cannot sanitize file path '{}'", entry.getKey());
-        }
-      }
-    }
-  }
-
-  /**
-   * @param newCoverage
-   * @param measure
-   */
-  private void checkCoverage(NewCoverage newCoverage, CoverageMeasure measure) {
-    try {
-      newCoverage.lineHits(measure.getLine(), measure.getHits());
-      newCoverage.conditions(measure.getLine(), measure.getConditions(), measure.getCoveredConditions());
-    } catch(RuntimeException ex) {
-      LOG.error("Cannot save Conditions Hits for Line '{}' , ignoring measure. ", 
-                 measure.getLine(), ex);
-      CxxUtils.validateRecovery(ex, this.language);
-    }
-  }
-
-  private void warnUsageOfDeprecatedProperty(Settings settings, String reportPathProperty) {
-    if (isSQ_6_2_or_newer && !settings.hasKey(getReportPathKey())) {
-      LOG.warn("Property '{}' is deprecated. Please use '{}' instead.", reportPathProperty, getReportPathKey());
-    }
-  }
-  
-  @Override
-  protected String getSensorKey() {
-    return KEY;
-  }  
-
-  @Override
-  public String getReportPathKey() {
-// ToDo - Support new style
-//    if (isSQ_6_2_or_newer) {
-//      return this.language.getPluginProperty(REPORT_PATHS_KEY);
-//    }
-    return this.language.getPluginProperty(REPORT_PATH_KEY);
-  }
-
-  protected String getITReportPathKey() {
-   return this.language.getPluginProperty(IT_REPORT_PATH_KEY);
-  }
-
-  protected String getOverallReportPathKey() {
-    return this.language.getPluginProperty(OVERALL_REPORT_PATH_KEY);
-   }
-
-  protected String getForceZeroCoverageKey() {
-    return this.language.getPluginProperty(FORCE_ZERO_COVERAGE_KEY);
-   }
-
-}
-
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.coverage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.codehaus.staxmate.in.SMHierarchicCursor;
+import org.sonar.api.batch.fs.FilePredicates;
+import org.sonar.api.batch.fs.FileSystem;
+
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.batch.sensor.coverage.NewCoverage;
+import org.sonar.api.config.Settings;
+import org.sonar.api.batch.sensor.coverage.CoverageType;
+import org.sonar.api.utils.PathUtils;
+import org.sonar.api.utils.Version;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxLanguage;
+import org.sonar.cxx.CxxProfiler;
+import org.sonar.cxx.CxxReportFiles;
+import org.sonar.cxx.sensors.utils.CxxReportSensor;
+import org.sonar.cxx.sensors.utils.CxxUtils;
+import org.sonar.cxx.sensors.utils.EmptyReportException;
+import org.sonar.cxx.sensors.utils.StaxParser;
+
+/**
+ * {@inheritDoc}
+ */
+public class CxxCoverageSensor extends CxxReportSensor {
+  private static final Logger LOG = Loggers.get(CxxCoverageSensor.class);
+
+  // Configuration properties before SQ 6.2
+  @Deprecated
+  public static final String REPORT_PATH_KEY = "coverage.reportPath";
+  @Deprecated
+  public static final String IT_REPORT_PATH_KEY = "coverage.itReportPath";
+  @Deprecated
+  public static final String OVERALL_REPORT_PATH_KEY = "coverage.overallReportPath";
+  @Deprecated
+  public static final String FORCE_ZERO_COVERAGE_KEY = "coverage.forceZeroCoverage";
+
+  // Configuration properties for SQ 6.2
+  public static final Version SQ_6_2 = Version.create(6, 2);
+  private boolean isSQ_6_2_or_newer;
+
+  // ToDo - cleanup reportPath properties 
+  // a) deprecate old feature ant style search 
+  // b) support comma separated list of coverage files
+  //public static final String REPORT_PATHS_KEY = "coverage.reportPaths";
+
+  private final CxxCoverageCache cache;
+  public static final String KEY = "Coverage";
+
+  /**
+   * {@inheritDoc}
+   * @param cache for all coverage data
+   * @param language for current analysis
+   * @param context for current file
+   */
+  public CxxCoverageSensor(CxxCoverageCache cache, CxxLanguage language, SensorContext context) {
+    super(language, context.settings());
+    this.cache = cache;
+    if (context.getSonarQubeVersion().isGreaterThanOrEqual(SQ_6_2)) {
+      isSQ_6_2_or_newer = true;
+    }
+  }
+
+  /**
+   * Parsers keep state while reading a report, so every report gets its own
+   * parser instances.
+   */
+  private static List<CxxCoverageParser> createParsers() {
+    List<CxxCoverageParser> parsers = new LinkedList<>();
+    parsers.add(new CoberturaParser());
+    parsers.add(new BullseyeParser());
+    parsers.add(new VisualStudioParser());
+    parsers.add(new LcovParser());
+    parsers.add(new GcovParser());
+    return parsers;
+  }
+
+  @Override
+  public void describe(SensorDescriptor descriptor) {
+    descriptor.onlyOnLanguage(this.language.getKey()).name(language.getName() + " CoverageSensor");
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void execute(SensorContext context) {
+    // do nothing
+  }
+
+  @Override
+  protected boolean isParsedInBackground() {
+    // coverage reports are parsed by the squid sensor
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}
+   * @param context for coverage analysis
+   * @param linesOfCodeByFile use for FORCE_ZERO_COVERAGE_KEY feature 
+   */
+  public void execute(SensorContext context, Map<InputFile, Set<Integer>> linesOfCodeByFile) {
+    Settings settings = context.settings();
+    String[] reportsKey = settings.getStringArray(getReportPathKey());
+    LOG.info("Searching coverage reports by path with basedir '{}' and search prop '{}'", 
+        context.fileSystem().baseDir(), getReportPathKey());
+    LOG.info("Searching for coverage reports '{}'", Arrays.toString(reportsKey));
+    
+    Map<InputFile, CoverageMeasures> coverageMeasures = null;
+    Map<InputFile, CoverageMeasures> itCoverageMeasures = null;
+    Map<InputFile, CoverageMeasures> overallCoverageMeasures = null;
+
+    LOG.info("Coverage BaseDir '{}' ", context.fileSystem().baseDir());
+    Map<String, InputFile> moduleFiles = getInputFileResolver(context).canonicalPaths();
+
+    if (context.settings().hasKey(getReportPathKey())) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Parsing unit test coverage reports");
+      }
+
+      List<File> reports = getReports(context.settings(), context.fileSystem().baseDir(), getReportPathKey());
+      coverageMeasures = processReports(context, reports, this.cache.unitCoverageCache(), moduleFiles);
+      saveMeasures(context, coverageMeasures, CoverageType.UNIT);
+    }
+
+    if (settings.hasKey(getITReportPathKey())) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Parsing integration test coverage reports");
+      }
+      warnUsageOfDeprecatedProperty(settings, getITReportPathKey());
+      List<File> itReports = getReports(settings, context.fileSystem().baseDir(), getITReportPathKey());
+      itCoverageMeasures = processReports(context, itReports, this.cache.integrationCoverageCache(), moduleFiles);
+      saveMeasures(context, itCoverageMeasures, CoverageType.IT);
+    }
+
+    if (settings.hasKey(getOverallReportPathKey())) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Parsing overall test coverage reports");
+      }
+      warnUsageOfDeprecatedProperty(settings, getOverallReportPathKey());
+      List<File> overallReports = getReports(settings, 
+                                             context.fileSystem().baseDir(), getOverallReportPathKey());
+      overallCoverageMeasures = processReports(context, overallReports, this.cache.overallCoverageCache(),
+                                               moduleFiles);
+      saveMeasures(context, overallCoverageMeasures, CoverageType.OVERALL);
+    }
+
+    if (settings.getBoolean(getForceZeroCoverageKey())) {
+      if (isSQ_6_2_or_newer) {
+        LOG.warn("Deprecated property '{}' ignored.", getForceZeroCoverageKey());
+      } else {
+        LOG.info("Zeroing coverage information for untouched files");
+        zeroMeasuresWithoutReports(context, coverageMeasures,
+                                            itCoverageMeasures,
+                                            overallCoverageMeasures, 
+                                            linesOfCodeByFile);
+      }
+    }
+  }
+
+  private void zeroMeasuresWithoutReports(
+    SensorContext context,
+    @Nullable Map<InputFile, CoverageMeasures> coverageMeasures,
+    @Nullable Map<InputFile, CoverageMeasures> itCoverageMeasures,
+    @Nullable Map<InputFile, CoverageMeasures> overallCoverageMeasures,
+    Map<InputFile, Set<Integer>> linesOfCode
+  ) {
+
+    FileSystem fileSystem = context.fileSystem();
+    FilePredicates p = fileSystem.predicates();
+    Iterable<InputFile> inputFiles = fileSystem.inputFiles(p.and(p.hasType(InputFile.Type.MAIN),
+                                                           p.hasLanguage(this.language.getKey())));
+
+    for (InputFile inputFile : inputFiles) {
+      Set<Integer> linesOfCodeForFile = linesOfCode.get(inputFile);
+
+      if (coverageMeasures != null && !coverageMeasures.containsKey(inputFile)) {
+        saveZeroValueForResource(inputFile, context, CoverageType.UNIT, linesOfCodeForFile);
+      }
+
+      if (itCoverageMeasures != null && !itCoverageMeasures.containsKey(inputFile)) {
+        saveZeroValueForResource(inputFile, context, CoverageType.IT, linesOfCodeForFile);
+      }
+
+      if (overallCoverageMeasures != null && !overallCoverageMeasures.containsKey(inputFile)) {
+        saveZeroValueForResource(inputFile, context, CoverageType.OVERALL, linesOfCodeForFile);
+      }
+    }
+  }
+
+  private void saveZeroValueForResource(InputFile inputFile, SensorContext context, CoverageType ctype, 
+                                        @Nullable Set<Integer> linesOfCode) {
+    if (linesOfCode != null) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Zeroing {} coverage measures for file '{}'", ctype, inputFile.relativePath());
+      }
+      NewCoverage newCoverage = context.newCoverage()
+        .onFile(inputFile)
+        .ofType(ctype);
+
+      try {
+        linesOfCode.forEach((Integer line) -> newCoverage.lineHits(line, 0));
+        } catch (RuntimeException ex) {
+        LOG.error("Cannot save Line Hits for Line '{}' : '{}', ignoring measure", 
+            inputFile.relativePath(), ex);
+        CxxUtils.validateRecovery(ex, this.language);
+      }
+
+      try {
+        newCoverage.save();
+      } catch (RuntimeException ex) {
+        LOG.error("Cannot save measure '{}' : '{}', ignoring measure", inputFile.relativePath(), ex);
+        CxxUtils.validateRecovery(ex, this.language);
+      }
+    }
+  }
+
+  /**
+   * Parses the reports concurrently and merges the measures per source file:
+   * hits of all reports are added, conditions keep the maximum of all reports.
+   * Only the measures of files belonging to the module are merged.
+   */
+  private Map<InputFile, CoverageMeasures> processReports(final SensorContext context, List<File> reports, 
+                                                          CxxCoverageCache.ReportCache cacheCov,
+                                                          final Map<String, InputFile> moduleFiles) {
+    final Map<InputFile, CoverageMeasures> measuresTotal = new ConcurrentHashMap<>();
+    List<File> reportsToParse = new ArrayList<>();
+
+    for (File report : reports) {
+      Map<String, CoverageMeasures> cachedMeasures = cacheCov.get(report.getAbsolutePath());
+      if (cachedMeasures != null) {
+        mergeMeasures(measuresTotal, cachedMeasures, moduleFiles);
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Processing report '{}' skipped - already in cache", report);
+        }
+      } else {
+        reportsToParse.add(report);
+      }
+    }
+
+    if (reportsToParse.isEmpty()) {
+      return measuresTotal;
+    }
+
+    List<Callable<Map<String, CoverageMeasures>>> tasks = new ArrayList<>();
+    for (final File report : reportsToParse) {
+      tasks.add(() -> {
+        try {
+          Map<String, CoverageMeasures> measuresForReport = parseCoverageReport(context, report);
+          mergeMeasures(measuresTotal, measuresForReport, moduleFiles);
+          return measuresForReport;
+        } catch (EmptyReportException e) {
+          LOG.debug("Report is empty {}", e);
+          return null;
+        }
+      });
+    }
+
+    int threads = Math.min(reportsToParse.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Map<String, CoverageMeasures>>> results = executor.invokeAll(tasks);
+      for (int i = 0; i < results.size(); i++) {
+        Map<String, CoverageMeasures> measuresForReport = getResult(results.get(i));
+        if (measuresForReport != null) {
+          String reportPath = reportsToParse.get(i).getAbsolutePath();
+          cacheCov.put(reportPath, measuresForReport);
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("cached measures for '{}' : current cache size = '{}' bytes", reportPath, cacheCov.size());
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Parsing of coverage reports was interrupted", e);
+    } finally {
+      executor.shutdownNow();
+    }
+    return measuresTotal;
+  }
+
+  private static Map<String, CoverageMeasures> getResult(Future<Map<String, CoverageMeasures>> result)
+    throws InterruptedException {
+    try {
+      return result.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * Adds the measures of one report to the total. The measures of the report
+   * are left unchanged, they are kept in the cache. The source paths of the
+   * report are canonical, so the files of the module are looked up directly,
+   * iterating over the smaller of both maps.
+   */
+  private static void mergeMeasures(Map<InputFile, CoverageMeasures> measuresTotal,
+                                    Map<String, CoverageMeasures> measuresForReport,
+                                    Map<String, InputFile> moduleFiles) {
+    if (moduleFiles.size() < measuresForReport.size()) {
+      for (Map.Entry<String, InputFile> entry : moduleFiles.entrySet()) {
+        CoverageMeasures measures = measuresForReport.get(entry.getKey());
+        if (measures != null) {
+          mergeMeasures(measuresTotal, entry.getValue(), measures);
+        }
+      }
+      return;
+    }
+    for (Map.Entry<String, CoverageMeasures> entry : measuresForReport.entrySet()) {
+      InputFile inputFile = moduleFiles.get(entry.getKey());
+      if (inputFile == null) {
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Cannot find the file '{}' in module, ignoring coverage measures", entry.getKey());
+        }
+        continue;
+      }
+      mergeMeasures(measuresTotal, inputFile, entry.getValue());
+    }
+  }
+
+  private static void mergeMeasures(Map<InputFile, CoverageMeasures> measuresTotal, InputFile inputFile,
+                                    CoverageMeasures measuresForFile) {
+    measuresTotal.compute(inputFile, (InputFile file, CoverageMeasures total) -> {
+      CoverageMeasures measures = total == null ? CoverageMeasures.create() : total;
+      measures.merge(measuresForFile);
+      return measures;
+    });
+  }
+
+  /**
+   * Reads only the first line of a text report or the root element of a XML
+   * report to select the parser which supports the report format
+   *
+   * @param report
+   * @return parser for the report format
+   */
+  static CxxCoverageParser selectParser(File report) {
+    String firstLine = readFirstLine(report);
+    if (firstLine.startsWith("<")) {
+      return selectXmlParser(report);
+    }
+    for (CxxCoverageParser coverageParser : createParsers()) {
+      if (coverageParser.isSupportedTextReport(firstLine)) {
+        return coverageParser;
+      }
+    }
+    LOG.warn("Coverage report '{}' has an unknown format (first line '{}'), skipped", report, firstLine);
+    throw new EmptyReportException("Coverage report " + report + " has an unknown format (first line '"
+      + firstLine + "')");
+  }
+
+  private static String readFirstLine(File report) {
+    try (BufferedReader reader = CxxReportFiles.newReader(report, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.replace("\uFEFF", "").trim();
+        if (!line.isEmpty()) {
+          return line;
+        }
+      }
+    } catch (IOException | UncheckedIOException e) {
+      // XML reports in other encodings are left to the XML parser
+      return "<";
+    }
+    throw new EmptyReportException("Coverage report " + report + " is empty");
+  }
+
+  private static CxxCoverageParser selectXmlParser(File report) {
+    final StringBuilder rootElement = new StringBuilder();
+    StaxParser parser = new StaxParser((SMHierarchicCursor rootCursor) -> {
+      rootCursor.advance();
+      rootElement.append(rootCursor.getLocalName());
+    });
+    try {
+      parser.parse(report);
+    } catch (XMLStreamException e) {
+      throw new EmptyReportException("Coverage report " + report + " cannot be parsed", e);
+    }
+
+    for (CxxCoverageParser coverageParser : createParsers()) {
+      if (coverageParser.isSupportedRootElement(rootElement.toString())) {
+        return coverageParser;
+      }
+    }
+    LOG.warn("Coverage report '{}' has an unknown format (root element '{}'), skipped", report, rootElement);
+    throw new EmptyReportException("Coverage report " + report + " has an unknown format (root element '"
+      + rootElement + "')");
+  }
+
+  /**
+   * @param context
+   * @param report
+   * @return measures of the report
+   */
+  private Map<String, CoverageMeasures> parseCoverageReport(final SensorContext context, File report) {
+    CxxCoverageParser parser = selectParser(report);
+    Map<String, CoverageMeasures> measuresForReport = new HashMap<>();
+    try (CxxProfiler.Timer timer = CxxProfiler.start("report " + parser.getClass().getSimpleName())) {
+      parser.processReport(context, report, measuresForReport);
+    } catch (XMLStreamException e) {
+      throw new EmptyReportException("Coverage report" + report + "cannot be parsed by" + parser, e); 
+    }
+
+    if (measuresForReport.isEmpty()) {
+      throw new EmptyReportException("Coverage report " + report + " result is empty (parsed by " + parser +")");
+    }
+
+    LOG.info("Added coverage report '{}' (parsed by: {})", report, parser);
+    return normalizePaths(measuresForReport, context.fileSystem().baseDir().getAbsolutePath());
+  }
+
+  /**
+   * Replaces the source paths of a report by canonical absolute paths, the
+   * measures of paths resolving to the same file are merged. This is done once
+   * per report, the normalized measures are kept in the cache.
+   */
+  private static Map<String, CoverageMeasures> normalizePaths(Map<String, CoverageMeasures> measuresForReport,
+                                                              String baseDir) {
+    Map<String, CoverageMeasures> normalized = new HashMap<>();
+    for (Map.Entry<String, CoverageMeasures> entry : measuresForReport.entrySet()) {
+      String filePath = PathUtils.sanitize(entry.getKey());
+      if (filePath != null) {
+        filePath = resolveFilename(baseDir, filePath);
+      }
+      if (filePath != null) {
+        String canonical = CxxUtils.normalizePath(filePath);
+        filePath = canonical != null ? canonical : filePath;
+      }
+      if (filePath == null) {
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Cannot sanitize file path '{}'", entry.getKey());
+        }
+        continue;
+      }
+      CoverageMeasures measures = entry.getValue();
+      CoverageMeasures previous = normalized.putIfAbsent(filePath, measures);
+      if (previous != null) {
+        previous.merge(measures);
+        measures = previous;
+      }
+      measures.trim();
+    }
+    return normalized;
+  }
+
+  private void saveMeasures(SensorContext context,
+    Map<InputFile, CoverageMeasures> coverageMeasures,
+    CoverageType ctype) {
+    for (Map.Entry<InputFile, CoverageMeasures> entry : coverageMeasures.entrySet()) {
+      InputFile cxxFile = entry.getKey();
+      String filePath = cxxFile.relativePath();
+      NewCoverage newCoverage = context.newCoverage()
+                .onFile(cxxFile)        
+                .ofType(ctype);
+
+      CoverageMeasures measures = entry.getValue();
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Saving '{}' coverage measures for file '{}'", measures.size(), filePath);
+      }
+
+      measures.forEach((int line, int hits, int conditions, int coveredConditions)
+        -> checkCoverage(newCoverage, line, hits, conditions, coveredConditions));
+
+      try {
+        newCoverage.save();
+      } catch(RuntimeException ex) {
+        LOG.error("Cannot save measure for file '{}' , ignoring measure. ", filePath, ex);
+        CxxUtils.validateRecovery(ex, this.language);
+      }
+      LOG.info("Saved '{}' coverage measures for file '{}'", measures.size(), filePath);
+    }
+  }
+
+  /**
+   * @param newCoverage
+   * @param line
+   * @param hits
+   * @param conditions
+   * @param coveredConditions
+   */
+  private void checkCoverage(NewCoverage newCoverage, int line, int hits, int conditions, int coveredConditions) {
+    try {
+      newCoverage.lineHits(line, hits);
+      newCoverage.conditions(line, conditions, coveredConditions);
+    } catch(RuntimeException ex) {
+      LOG.error("Cannot save Conditions Hits for Line '{}' , ignoring measure. ", 
+                 line, ex);
+      CxxUtils.validateRecovery(ex, this.language);
+    }
+  }
+
+  private void warnUsageOfDeprecatedProperty(Settings settings, String reportPathProperty) {
+    if (isSQ_6_2_or_newer && !settings.hasKey(getReportPathKey())) {
+      LOG.warn("Property '{}' is deprecated. Please use '{}' instead.", reportPathProperty, getReportPathKey());
+    }
+  }
+  
+  @Override
+  protected String getSensorKey() {
+    return KEY;
+  }  
+
+  @Override
+  public String getReportPathKey() {
+// ToDo - Support new style
+//    if (isSQ_6_2_or_newer) {
+//      return this.language.getPluginProperty(REPORT_PATHS_KEY);
+//    }
+    return this.language.getPluginProperty(REPORT_PATH_KEY);
+  }
+
+  protected String getITReportPathKey() {
+   return this.language.getPluginProperty(IT_REPORT_PATH_KEY);
+  }
+
+  protected String getOverallReportPathKey() {
+    return this.language.getPluginProperty(OVERALL_REPORT_PATH_KEY);
+   }
+
+  protected String getForceZeroCoverageKey() {
+    return this.language.getPluginProperty(FORCE_ZERO_COVERAGE_KEY);
+   }
+
+}
+
@@ -0,0 +1,61 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.coverage;
+
+import java.io.File;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.codehaus.staxmate.in.SMHierarchicCursor;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.cxx.sensors.utils.StaxParser;
+
+/**
+ * The base class for coverage report parsers reading XML reports
+ */
+public abstract class CxxXmlCoverageParser extends CxxCoverageParser {
+
+  /**
+   * Reads the report content, the cursor is already positioned on the root
+   * element
+   *
+   * @param context
+   * @param rootCursor cursor positioned on the root element
+   * @param coverageData A Map mapping source file names to coverage measures.
+   * @throws javax.xml.stream.XMLStreamException
+   */
+  public abstract void processRootElement(final SensorContext context, SMHierarchicCursor rootCursor,
+                                          Map<String, CoverageMeasures> coverageData)
+    throws XMLStreamException;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void processReport(final SensorContext context, File report, final Map<String, CoverageMeasures> coverageData)
+    throws XMLStreamException {
+    StaxParser parser = new StaxParser((SMHierarchicCursor rootCursor) -> {
+      rootCursor.advance();
+      processRootElement(context, rootCursor, coverageData);
+    });
+    parser.parse(report);
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.coverage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxReportFiles;
+import org.sonar.cxx.sensors.utils.EmptyReportException;
+
+/**
+ * Reads the annotated sources written by gcov (.gcov files, created with
+ * 'gcov -b' if branch information is needed) line by line.
+ */
+public class GcovParser extends CxxCoverageParser {
+  private static final Logger LOG = Loggers.get(GcovParser.class);
+  private static final Pattern SOURCE_LINE = Pattern.compile("\\s*-:\\s*0:Source:.*");
+
+  public GcovParser() {
+    // no operation but necessary for list of coverage parsers 
+  }
+
+  @Override
+  public boolean isSupportedTextReport(String firstLine) {
+    return SOURCE_LINE.matcher(firstLine).matches();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void processReport(final SensorContext context, File report, final Map<String, CoverageMeasures> coverageData) {
+    LOG.debug("Parsing 'gcov' format");
+    CoverageMeasures measures = CoverageMeasures.create();
+    String sourceFile = null;
+    int currentLine = -1;
+    int lastLine = 0;
+    try (BufferedReader reader = CxxReportFiles.newReader(report, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("branch")) {
+          collectBranch(line, currentLine, measures);
+          continue;
+        }
+        int first = line.indexOf(':');
+        int second = first < 0 ? -1 : line.indexOf(':', first + 1);
+        if (second < 0) {
+          // 'call', 'function' and template instantiation separator lines
+          continue;
+        }
+        long lineId = LcovParser.parseNumber(line, first + 1, second);
+        if (lineId == 0) {
+          if (line.startsWith("Source:", second + 1)) {
+            sourceFile = resolveSource(report, line.substring(second + 8).trim());
+          }
+          continue;
+        }
+        if (lineId <= lastLine || lineId > Integer.MAX_VALUE) {
+          // template instantiations repeat lines already counted for the file
+          currentLine = -1;
+          continue;
+        }
+        lastLine = (int) lineId;
+        currentLine = -1;
+        String count = line.substring(0, first).trim();
+        if ("-".equals(count)) {
+          continue;
+        }
+        currentLine = lastLine;
+        measures.setHits(currentLine, parseCount(count));
+      }
+    } catch (IOException e) {
+      throw new EmptyReportException("Cannot read gcov report", e);
+    }
+    if (sourceFile != null && !sourceFile.isEmpty()) {
+      coverageData.computeIfAbsent(sourceFile, f -> CoverageMeasures.create()).merge(measures);
+    }
+  }
+
+  /**
+   * gcov writes the path as passed to the compiler, relative paths are taken
+   * relative to the report if the file exists there
+   */
+  private static String resolveSource(File report, String source) {
+    File file = new File(source);
+    if (!file.isAbsolute() && report.getParentFile() != null) {
+      File candidate = new File(report.getParentFile(), source);
+      if (candidate.isFile()) {
+        return candidate.getPath();
+      }
+    }
+    return source;
+  }
+
+  /**
+   * Execution count of a line: '#####' and '=====' mark unexecuted lines,
+   * a trailing '*' marks lines containing unexecuted basic blocks
+   */
+  private static int parseCount(String count) {
+    if (count.startsWith("#") || count.startsWith("=")) {
+      return 0;
+    }
+    int end = count.endsWith("*") ? count.length() - 1 : count.length();
+    long hits = LcovParser.parseNumber(count, 0, end);
+    return (int) Math.min(Math.max(hits, 0), Integer.MAX_VALUE);
+  }
+
+  /**
+   * branch  0 taken 5 (fallthrough) / branch  1 taken 0% / branch  2 never executed
+   */
+  private static void collectBranch(String line, int currentLine, CoverageMeasures measures) {
+    if (currentLine < 0) {
+      return;
+    }
+    int taken = line.indexOf("taken ");
+    int covered = 0;
+    if (taken >= 0) {
+      int start = taken + "taken ".length();
+      int end = start;
+      while (end < line.length() && Character.isDigit(line.charAt(end))) {
+        end++;
+      }
+      covered = LcovParser.parseNumber(line, start, end) > 0 ? 1 : 0;
+    }
+    measures.addConditions(currentLine, 1, covered);
+  }
+}
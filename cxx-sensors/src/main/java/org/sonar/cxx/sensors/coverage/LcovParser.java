@@ -0,0 +1,173 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.coverage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxReportFiles;
+import org.sonar.cxx.sensors.utils.EmptyReportException;
+
+/**
+ * Reads lcov tracefiles (.info) line by line. Line hits are taken from the
+ * 'DA' records, each 'BRDA' branch is counted as one condition of its line.
+ * A branch reported by several records of the same file is covered if any of
+ * the records took it.
+ */
+public class LcovParser extends CxxCoverageParser {
+  private static final Logger LOG = Loggers.get(LcovParser.class);
+
+  public LcovParser() {
+    // no operation but necessary for list of coverage parsers 
+  }
+
+  @Override
+  public boolean isSupportedTextReport(String firstLine) {
+    return firstLine.startsWith("TN:") || firstLine.startsWith("SF:");
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void processReport(final SensorContext context, File report, final Map<String, CoverageMeasures> coverageData) {
+    LOG.debug("Parsing 'lcov' format");
+    Map<String, Map<String, Boolean>> branchesPerFile = new HashMap<>();
+    try (BufferedReader reader = CxxReportFiles.newReader(report, StandardCharsets.UTF_8)) {
+      String sourceFile = null;
+      Map<String, Boolean> branches = null;
+      CoverageMeasures record = null;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("SF:")) {
+          sourceFile = line.substring(3).trim();
+          record = CoverageMeasures.create();
+          branches = branchesPerFile.computeIfAbsent(sourceFile, f -> new LinkedHashMap<>());
+        } else if (record == null) {
+          continue;
+        } else if (line.startsWith("DA:")) {
+          collectLineHits(line, record);
+        } else if (line.startsWith("BRDA:")) {
+          collectBranch(line, branches);
+        } else if (line.startsWith("end_of_record")) {
+          // several records of the same file are added, e.g. one record per test
+          saveRecord(sourceFile, record, coverageData);
+          record = null;
+        }
+      }
+      saveRecord(sourceFile, record, coverageData);
+    } catch (IOException e) {
+      throw new EmptyReportException("Cannot read lcov report", e);
+    }
+    saveBranches(branchesPerFile, coverageData);
+  }
+
+  private static void saveRecord(String sourceFile, CoverageMeasures record, Map<String, CoverageMeasures> coverageData) {
+    if (sourceFile != null && record != null && !sourceFile.isEmpty()) {
+      coverageData.computeIfAbsent(sourceFile, f -> CoverageMeasures.create()).merge(record);
+    }
+  }
+
+  /**
+   * DA:&lt;line number&gt;,&lt;execution count&gt;[,&lt;checksum&gt;]
+   */
+  private static void collectLineHits(String line, CoverageMeasures record) {
+    int comma = line.indexOf(',', 3);
+    if (comma < 0) {
+      return;
+    }
+    int end = line.indexOf(',', comma + 1);
+    long lineId = parseNumber(line, 3, comma);
+    long hits = parseNumber(line, comma + 1, end < 0 ? line.length() : end);
+    if (lineId > 0 && hits >= 0) {
+      record.setHits((int) Math.min(lineId, Integer.MAX_VALUE), (int) Math.min(hits, Integer.MAX_VALUE));
+    }
+  }
+
+  /**
+   * BRDA:&lt;line number&gt;,&lt;block number&gt;,&lt;branch number&gt;,&lt;taken&gt;
+   * where taken is '-' if the block containing the branch was never executed
+   */
+  private static void collectBranch(String line, Map<String, Boolean> branches) {
+    int comma = line.indexOf(',', 5);
+    int taken = line.lastIndexOf(',');
+    if (comma < 0 || taken <= comma || parseNumber(line, 5, comma) <= 0) {
+      return;
+    }
+    // key is "<line number>,<block number>,<branch number>"
+    String branch = line.substring(5, taken);
+    if (parseNumber(line, taken + 1, line.length()) > 0) {
+      branches.put(branch, Boolean.TRUE);
+    } else {
+      branches.putIfAbsent(branch, Boolean.FALSE);
+    }
+  }
+
+  private static void saveBranches(Map<String, Map<String, Boolean>> branchesPerFile,
+    Map<String, CoverageMeasures> coverageData) {
+    for (Map.Entry<String, Map<String, Boolean>> file : branchesPerFile.entrySet()) {
+      if (file.getValue().isEmpty() || file.getKey().isEmpty()) {
+        continue;
+      }
+      CoverageMeasures measures = coverageData.computeIfAbsent(file.getKey(), f -> CoverageMeasures.create());
+      for (Map.Entry<String, Boolean> branch : file.getValue().entrySet()) {
+        String key = branch.getKey();
+        long lineId = parseNumber(key, 0, key.indexOf(','));
+        measures.addConditions((int) Math.min(lineId, Integer.MAX_VALUE), 1, branch.getValue() ? 1 : 0);
+      }
+    }
+  }
+
+  /**
+   * Parses a decimal number without creating a substring
+   *
+   * @return the number or -1 if the text is not a number
+   */
+  static long parseNumber(String text, int begin, int end) {
+    int start = begin;
+    int stop = end;
+    while (start < stop && Character.isWhitespace(text.charAt(start))) {
+      start++;
+    }
+    while (stop > start && Character.isWhitespace(text.charAt(stop - 1))) {
+      stop--;
+    }
+    if (start == stop || stop - start > 18) {
+      return -1;
+    }
+    long value = 0;
+    for (int i = start; i < stop; i++) {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+}
@@ -19,7 +19,6 @@
  */
 package org.sonar.cxx.sensors.coverage;
 
-import java.io.File;
 import java.util.Map;
 
 import javax.xml.stream.XMLStreamException;
@@ -29,36 +28,31 @@ import org.codehaus.staxmate.in.SMInputCursor;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
-import org.sonar.cxx.sensors.utils.StaxParser;
 
 /**
  * {@inheritDoc}
  */
-public class VisualStudioParser extends CxxCoverageParser {
+public class VisualStudioParser extends CxxXmlCoverageParser {
   private static final Logger LOG = Loggers.get(VisualStudioParser.class);
 
   public VisualStudioParser() {
     // no operation but necessary for list of coverage parsers 
   }
 
+  @Override
+  public boolean isSupportedRootElement(String rootElement) {
+    return "results".equals(rootElement);
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
-  public void processReport(final SensorContext context, File report, final Map<String, CoverageMeasures> coverageData)
+  public void processRootElement(final SensorContext context, SMHierarchicCursor rootCursor,
+                                 final Map<String, CoverageMeasures> coverageData)
     throws XMLStreamException {
     LOG.debug("Parsing 'Visual Studio' format");
-    StaxParser parser = new StaxParser(new StaxParser.XmlStreamHandler() {
-      /**
-       * {@inheritDoc}
-       */
-      @Override
-      public void stream(SMHierarchicCursor rootCursor) throws XMLStreamException {
-        rootCursor.advance();
-        collectModuleMeasures(rootCursor.descendantElementCursor("module"), coverageData);
-      }
-    });
-    parser.parse(report);
+    collectModuleMeasures(rootCursor.descendantElementCursor("module"), coverageData);
   }
 
   private void collectModuleMeasures(SMInputCursor module, Map<String, CoverageMeasures> coverageData)
@@ -132,9 +126,4 @@ public class VisualStudioParser extends CxxCoverageParser {
       }
     }
   }
-
-  @Override
-  public String toString() {
-    return getClass().getSimpleName();
-  }
 }
@@ -83,6 +83,7 @@ public class CxxCppCheckSensor extends CxxReportSensor {
 
     if (!parsed) {
       LOG.error("Report {} cannot be parsed", report);
+      markReportIncomplete();
     }
   }
 
@@ -20,9 +20,9 @@
 package org.sonar.cxx.sensors.drmemory;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import org.sonar.api.batch.sensor.SensorContext;
-import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorDescriptor;
 import org.sonar.api.config.Settings;
 import org.sonar.api.utils.log.Logger;
@@ -31,7 +31,6 @@ import org.sonar.cxx.CxxLanguage;
 import org.sonar.cxx.sensors.drmemory.DrMemoryParser.DrMemoryError;
 import org.sonar.cxx.sensors.drmemory.DrMemoryParser.DrMemoryError.Location;
 import org.sonar.cxx.sensors.utils.CxxReportSensor;
-import org.sonar.cxx.sensors.utils.CxxUtils;
 
 /**
  * Dr. Memory is a memory monitoring tool capable of identifying memory-related
@@ -77,28 +76,33 @@ public class CxxDrMemorySensor extends CxxReportSensor {
   protected void processReport(final SensorContext context, File report) {
     LOG.debug("Parsing 'Dr Memory' format");
 
-    for (DrMemoryError error : DrMemoryParser.parse(report, defaultCharset())) {
-      if (error.stackTrace.isEmpty()) {
+    try {
+      DrMemoryParser.parse(report, defaultCharset(), (DrMemoryError error) -> saveError(context, error));
+    } catch (IOException e) {
+      // the errors read so far are kept, but the report is not cached
+      LOG.error(DrMemoryParser.feedErrorMessage(e));
+      markReportIncomplete();
+    }
+  }
+
+  private void saveError(SensorContext context, DrMemoryError error) {
+    if (error.stackTrace.isEmpty()) {
+      saveUniqueViolation(context, CxxDrMemoryRuleRepository.KEY,
+              null, null,
+              error.type.getId(), error.message);
+    }
+    for (Location errorLocation : error.stackTrace) {
+      if (isFileInAnalysis(context, errorLocation)) {
         saveUniqueViolation(context, CxxDrMemoryRuleRepository.KEY,
-                null, null,
+                errorLocation.file, errorLocation.line.toString(),
                 error.type.getId(), error.message);
-      }
-      for (Location errorLocation : error.stackTrace) {
-        if (isFileInAnalysis(context, errorLocation)) {
-          saveUniqueViolation(context, CxxDrMemoryRuleRepository.KEY,
-                  errorLocation.file, errorLocation.line.toString(),
-                  error.type.getId(), error.message);
-          break;
-        }
+        break;
       }
     }
   }
 
   private boolean isFileInAnalysis(SensorContext context, Location errorLocation) {
-    String root = context.fileSystem().baseDir().getAbsolutePath();
-    String normalPath = CxxUtils.normalizePathFull(errorLocation.file, root);
-    InputFile inputFile = context.fileSystem().inputFile(context.fileSystem().predicates().is(new File(normalPath)));
-    return inputFile != null;
+    return getInputFileResolver(context).resolve(errorLocation.file) != null;
   }
   
   @Override
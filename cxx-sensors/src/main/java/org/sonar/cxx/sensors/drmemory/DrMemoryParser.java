@@ -21,22 +21,20 @@ package org.sonar.cxx.sensors.drmemory;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
 
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxReportFiles;
 import org.sonar.cxx.sensors.drmemory.DrMemoryParser.DrMemoryError.Location;
 
 public class DrMemoryParser {
   private static final Logger LOG = Loggers.get(DrMemoryParser.class);
-  public static final Pattern rx_message_finder = Pattern.compile("^Error #\\d+:(.*)");
-  public static final Pattern rx_file_finder = Pattern.compile("^.*\\[(.*):(\\d+)\\]$");
+  private static final String ERROR_PREFIX = "Error #";
   public static final int TOP_COUNT = 4;
   
   public enum DrMemoryErrorType {
@@ -83,34 +81,136 @@ public class DrMemoryParser {
   }
 
   public static List<DrMemoryError> parse(File file, String charset) {
-
     List<DrMemoryError> result = new ArrayList<>();
+    try {
+      parse(file, charset, result::add);
+    } catch (IOException e) {
+      LOG.error(feedErrorMessage(e));
+    }
+    return result;
+  }
+
+  static String feedErrorMessage(IOException e) {
+    return new StringBuilder().append("Cannot feed the data into sonar, details: '")
+                              .append(e)
+                              .append("'").toString();
+  }
+
+  /**
+   * Reads the report in a single pass. The errors are separated by blank
+   * lines, an error starts with 'Error #n: TYPE' and every frame line ending
+   * with '[file:line]' adds a location to its stack trace. Each error is
+   * passed to the consumer as soon as its last line is read.
+   *
+   * @param file Dr. Memory results.txt
+   * @param charset encoding of the report
+   * @param errors receives the errors in report order
+   * @throws IOException if the report cannot be read, the errors read so far
+   * were passed to the consumer
+   */
+  public static void parse(File file, String charset, Consumer<DrMemoryError> errors) throws IOException {
+    try (BufferedReader br = CxxReportFiles.newReader(file, Charset.forName(charset))) {
+      DrMemoryError error = null;
+      boolean blockStart = true;
+      String line;
+      int cnt = 0;
 
-    List<String> elements = getElements(file, charset);
-
-    for (String element : elements) {
-      Matcher m = rx_message_finder.matcher(element);
-
-      if (m.find()) {
-        DrMemoryError error = new DrMemoryError();
-        error.type = extractErrorType(m.group(1));
-        String[] elementSplitted = element.split("\\r?\\n");
-        error.message = elementSplitted[0];
-        for (String elementPart : elementSplitted) {
-          Matcher locationMatcher = rx_file_finder.matcher(elementPart);
-          if (locationMatcher.find()) {
-            Location location = new Location();
-            location.file = locationMatcher.group(1);
-            location.line = Integer.valueOf(locationMatcher.group(2));
-            error.stackTrace.add(location);
+      while ((line = br.readLine()) != null) {
+        if (cnt++ <= TOP_COUNT) {
+          // header of the report
+          continue;
+        }
+        if (isBlank(line)) {
+          if (error != null) {
+            errors.accept(error);
+            error = null;
           }
+          blockStart = true;
+          continue;
         }
-        result.add(error);
+        if (blockStart) {
+          blockStart = false;
+          error = startError(line);
+        }
+        if (error != null) {
+          addLocation(error, line);
+        }
+      }
 
+      if (error != null) {
+        errors.accept(error);
       }
     }
+  }
 
-    return result;
+  /**
+   * @return the error for a line 'Error #n: title' or null if the line starts
+   * another block
+   */
+  private static DrMemoryError startError(String line) {
+    if (!line.startsWith(ERROR_PREFIX)) {
+      return null;
+    }
+    int pos = ERROR_PREFIX.length();
+    while (pos < line.length() && isDigit(line.charAt(pos))) {
+      pos++;
+    }
+    if (pos == ERROR_PREFIX.length() || pos == line.length() || line.charAt(pos) != ':') {
+      return null;
+    }
+    DrMemoryError error = new DrMemoryError();
+    error.type = extractErrorType(line.substring(pos + 1));
+    error.message = line;
+    return error;
+  }
+
+  /**
+   * Adds the location of a line ending with '[file:line]', the file is the
+   * text after the last '[' before the line number.
+   */
+  private static void addLocation(DrMemoryError error, String line) {
+    int end = line.length() - 1;
+    if (end < 0 || line.charAt(end) != ']') {
+      return;
+    }
+    int digits = end;
+    while (digits > 0 && isDigit(line.charAt(digits - 1))) {
+      digits--;
+    }
+    int colon = digits - 1;
+    if (digits == end || colon < 0 || line.charAt(colon) != ':') {
+      return;
+    }
+    int bracket = line.lastIndexOf('[', colon - 1);
+    if (bracket < 0) {
+      return;
+    }
+    try {
+      Location location = new Location();
+      location.line = Integer.valueOf(line.substring(digits, end));
+      location.file = line.substring(bracket + 1, colon);
+      error.stackTrace.add(location);
+    } catch (NumberFormatException e) {
+      LOG.debug("Skipping invalid line number in '{}'", line);
+    }
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * @return true if the line contains only whitespace, like the regular
+   * expression {@code ^\s*$}
+   */
+  private static boolean isBlank(String line) {
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c != ' ' && c != '\t' && c != '\n' && c != '\u000B' && c != '\f' && c != '\r') {
+        return false;
+      }
+    }
+    return true;
   }
 
   private static DrMemoryErrorType extractErrorType(String title) {
@@ -126,41 +226,4 @@ public class DrMemoryParser {
   private static String clean(String title) {
     return title.trim();
   }
-
-  public static List<String> getElements(File file, String charset) {
-
-    List<String> list = new ArrayList<>();
-    try (FileInputStream input = new FileInputStream(file)) {
-      BufferedReader br = new BufferedReader(new InputStreamReader(input, charset));
-      StringBuilder sb = new StringBuilder();
-      String line;
-      int cnt = 0;
-
-      while ((line = br.readLine()) != null) {
-        if (cnt > (TOP_COUNT)) {
-          if (line.matches("^\\s*$")) {
-            list.add(sb.toString());
-            sb.setLength(0);
-          } else {
-            sb.append(line);
-            sb.append('\n');
-          }
-        }
-        cnt++;
-      }
-
-      if (sb.length() > 0) {
-        list.add(sb.toString());
-      }
-
-      br.close();
-      input.close();
-    } catch (IOException e) {
-      String msg = new StringBuilder().append("Cannot feed the data into sonar, details: '")
-                                      .append(e)
-                                      .append("'").toString();
-      LOG.error(msg);
-    }
-    return list;
-  }
 }
@@ -22,9 +22,19 @@ package org.sonar.cxx.sensors.other;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.stream.StreamSource;
 
@@ -72,12 +82,12 @@ public class CxxOtherSensor extends CxxReportSensor {
   }
 
   /**
-   * {@inheritDoc}
+   * Creates the reports of the configured XSLT transformations before the
+   * reports are searched.
    */
   @Override
-  public void execute(SensorContext context) {
+  protected void prepareReports(SensorContext context) {
     transformFiles(context.fileSystem().baseDir(), context);
-    super.execute(context);
   }
 
   @Override
@@ -115,6 +125,8 @@ public class CxxOtherSensor extends CxxReportSensor {
   }  
 
   public void transformFiles(final File baseDir, SensorContext context) {
+    // a stylesheet configured several times is compiled once
+    Map<File, Templates> compiledStylesheets = new HashMap<>();
     boolean goOn = true;
     for (int i = 1; (i < 10) && goOn; i++) {
       String stylesheetKey = this.language.getPluginProperty(OTHER_XSLT_KEY + i + STYLESHEET_KEY);
@@ -145,7 +157,7 @@ public class CxxOtherSensor extends CxxReportSensor {
         }
         File stylesheetFile = new File(stylesheet);
         if (stylesheetFile.isAbsolute()) {
-          transformFileList(baseDir.getAbsolutePath(), stylesheetFile, inputs, outputs);
+          transformFileList(baseDir.getAbsolutePath(), stylesheetFile, inputs, outputs, compiledStylesheets);
         }
       }
     }
@@ -170,20 +182,88 @@ public class CxxOtherSensor extends CxxReportSensor {
     return true;
   }
 
-  private void transformFileList(final String baseDir, File stylesheetFile, List<File> inputs, List<String> outputs) {
+  /**
+   * Transforms the inputs concurrently, every thread uses its own transformer
+   * of the compiled stylesheet.
+   */
+  private void transformFileList(final String baseDir, File stylesheetFile, List<File> inputs, List<String> outputs,
+                                 Map<File, Templates> compiledStylesheets) {
+    final Templates templates;
+    try {
+      templates = compileStylesheet(stylesheetFile, compiledStylesheets);
+    } catch (TransformerException e) {
+      // the transformation of every input fails
+      for (int j = 0; j < inputs.size(); j++) {
+        transformationFailed(e);
+      }
+      return;
+    }
+
+    final ThreadLocal<Transformer> transformers = new ThreadLocal<>();
+    List<Callable<Void>> tasks = new ArrayList<>(inputs.size());
     for (int j = 0; j < inputs.size(); j++) {
-      try {
-        String normalizedOutputFilename = resolveFilename(baseDir, outputs.get(j));
-        CxxUtils.transformFile(new StreamSource(stylesheetFile), inputs.get(j), new File(normalizedOutputFilename));
-      } catch (TransformerException e) {
-        String msg = new StringBuilder()
-          .append("Cannot transform report files: '")
-          .append(e)
-          .append("'")
-          .toString();
-        LOG.error(msg);
-        CxxUtils.validateRecovery(e, this.language);
+      final File input = inputs.get(j);
+      final File output = new File(resolveFilename(baseDir, outputs.get(j)));
+      tasks.add(() -> {
+        Transformer transformer = transformers.get();
+        if (transformer == null) {
+          transformer = CxxUtils.newTransformer(templates);
+          transformers.set(transformer);
+        }
+        try {
+          CxxUtils.transformFile(transformer, input, output);
+        } catch (TransformerException | IOException | RuntimeException e) {
+          // don't reuse a transformer in an unknown state
+          transformers.remove();
+          throw e;
+        }
+        return null;
+      });
+    }
+
+    int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      // the errors are reported in the order of the inputs
+      for (Future<Void> result : executor.invokeAll(tasks)) {
+        try {
+          result.get();
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof TransformerException || cause instanceof IOException) {
+            transformationFailed((Exception) cause);
+          } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          } else {
+            throw new IllegalStateException(cause.getMessage(), cause);
+          }
+        }
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Transformation of report files was interrupted", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Templates compileStylesheet(File stylesheetFile, Map<File, Templates> compiledStylesheets)
+    throws TransformerException {
+    Templates templates = compiledStylesheets.get(stylesheetFile);
+    if (templates == null) {
+      templates = CxxUtils.newTemplates(new StreamSource(stylesheetFile));
+      compiledStylesheets.put(stylesheetFile, templates);
     }
+    return templates;
+  }
+
+  private void transformationFailed(Exception e) {
+    String msg = new StringBuilder()
+      .append("Cannot transform report files: '")
+      .append(e)
+      .append("'")
+      .toString();
+    LOG.error(msg);
+    CxxUtils.validateRecovery(e, this.language);
   }
 }
@@ -118,6 +118,7 @@ public class CxxPCLintSensor extends CxxReportSensor {
                 | com.ctc.wstx.exc.WstxEOFException
                 | com.ctc.wstx.exc.WstxIOException e) {
           LOG.error("Ignore XML error from PC-lint '{}'", CxxUtils.getStackTrace(e));
+          markReportIncomplete();
         }
       }
 
@@ -0,0 +1,225 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.performance;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import org.sonar.api.batch.Phase;
+import org.sonar.api.batch.sensor.Sensor;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxLanguage;
+import org.sonar.cxx.CxxProfiler;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Reports the measurements of the {@link CxxProfiler} after all other sensors
+ * of a module: a summary table is logged and a JSON report is written to the
+ * working directory. The measurements are aggregated over the modules
+ * analyzed so far, the report of the last (root) module covers the whole
+ * analysis.
+ *
+ * Besides the phases, the report lists the slowest translation units and the
+ * headers and macros which cost the preprocessor the most time. Headers are
+ * ranked by their time including the headers they include, that is the time
+ * saved if they are force-included or excluded.
+ */
+@Phase(name = Phase.Name.POST)
+public class CxxPerformanceReportSensor implements Sensor {
+
+  private static final Logger LOG = Loggers.get(CxxPerformanceReportSensor.class);
+  public static final String REPORT_FILE_SUFFIX = "-performance.json";
+  public static final int TOP_COUNT = 20;
+  private static final double NANOS_PER_MILLI = 1000000.0;
+  private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+  private final CxxLanguage language;
+
+  /**
+   * {@inheritDoc}
+   */
+  public CxxPerformanceReportSensor(CxxLanguage language) {
+    this.language = language;
+  }
+
+  @Override
+  public void describe(SensorDescriptor descriptor) {
+    descriptor.name(language.getName() + " PerformanceReportSensor");
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void execute(SensorContext context) {
+    if (!CxxProfiler.isEnabled()) {
+      return;
+    }
+    List<CxxProfiler.Phase> phases = CxxProfiler.getPhases();
+    List<CxxProfiler.TranslationUnit> units = top(CxxProfiler.getTranslationUnits());
+    List<CxxProfiler.Phase> headers = top(sortByTotalTime(CxxProfiler.getCosts(CxxProfiler.HEADERS)));
+    List<CxxProfiler.Phase> macros = top(CxxProfiler.getCosts(CxxProfiler.MACROS));
+    logPhases(phases);
+    logTranslationUnits(units);
+    logCosts("Most expensive headers (ordered by total time):", "Header", headers);
+    logCosts("Most expensive macros (ordered by self time):", "Macro", macros);
+
+    File report = new File(context.fileSystem().workDir(), language.getPropertiesKey() + REPORT_FILE_SUFFIX);
+    try {
+      writeReport(report, phases, units, headers, macros);
+      LOG.info("Performance report written to '{}'", report);
+    } catch (IOException e) {
+      LOG.warn("Cannot write the performance report '{}': {}", report, e.getMessage());
+    }
+  }
+
+  private static void logPhases(List<CxxProfiler.Phase> phases) {
+    boolean bytes = CxxProfiler.isAllocationMeasured();
+    StringBuilder sb = new StringBuilder(256);
+    sb.append("Performance report (ordered by self time):\n");
+    sb.append(String.format(Locale.ENGLISH, "%-60s %10s %12s %12s", "Phase", "Calls", "Self [ms]", "Total [ms]"));
+    if (bytes) {
+      sb.append(String.format(Locale.ENGLISH, " %12s %12s", "Self [MB]", "Total [MB]"));
+    }
+    long selfNanos = 0;
+    long selfBytes = 0;
+    for (CxxProfiler.Phase phase : phases) {
+      sb.append('\n').append(String.format(Locale.ENGLISH, "%-60s %10d %12.1f %12.1f", phase.getName(),
+        phase.getCalls(), phase.getSelfNanos() / NANOS_PER_MILLI, phase.getTotalNanos() / NANOS_PER_MILLI));
+      if (bytes) {
+        sb.append(String.format(Locale.ENGLISH, " %12.1f %12.1f",
+          phase.getSelfBytes() / BYTES_PER_MB, phase.getTotalBytes() / BYTES_PER_MB));
+      }
+      selfNanos += phase.getSelfNanos();
+      selfBytes += phase.getSelfBytes();
+    }
+    sb.append('\n').append(String.format(Locale.ENGLISH, "%-60s %10s %12.1f %12s", "Total", "",
+      selfNanos / NANOS_PER_MILLI, ""));
+    if (bytes) {
+      sb.append(String.format(Locale.ENGLISH, " %12.1f %12s", selfBytes / BYTES_PER_MB, ""));
+    }
+    LOG.info(sb.toString());
+  }
+
+  private static void logTranslationUnits(List<CxxProfiler.TranslationUnit> units) {
+    if (units.isEmpty()) {
+      return;
+    }
+    StringBuilder sb = new StringBuilder(256);
+    sb.append("Slowest translation units (top ").append(TOP_COUNT).append("):\n");
+    sb.append(String.format(Locale.ENGLISH, "%12s %12s %12s %10s %10s %10s  %s", "Lexer [ms]", "Prepr. [ms]",
+      "Parser [ms]", "Tokens", "Includes", "Macros", "File"));
+    for (CxxProfiler.TranslationUnit unit : units) {
+      sb.append('\n').append(String.format(Locale.ENGLISH, "%12.1f %12.1f %12.1f %10d %10d %10d  %s",
+        unit.getLexerNanos() / NANOS_PER_MILLI, unit.getPreprocessorNanos() / NANOS_PER_MILLI,
+        unit.getParserNanos() / NANOS_PER_MILLI, unit.getTokens(), unit.getIncludes(), unit.getPeakMacros(),
+        unit.getPath()));
+    }
+    LOG.info(sb.toString());
+  }
+
+  private static void logCosts(String title, String column, List<CxxProfiler.Phase> items) {
+    if (items.isEmpty()) {
+      return;
+    }
+    StringBuilder sb = new StringBuilder(256);
+    sb.append(title).append('\n');
+    sb.append(String.format(Locale.ENGLISH, "%10s %12s %12s  %s", "Count", "Self [ms]", "Total [ms]", column));
+    for (CxxProfiler.Phase item : items) {
+      sb.append('\n').append(String.format(Locale.ENGLISH, "%10d %12.1f %12.1f  %s", item.getCalls(),
+        item.getSelfNanos() / NANOS_PER_MILLI, item.getTotalNanos() / NANOS_PER_MILLI, item.getName()));
+    }
+    LOG.info(sb.toString());
+  }
+
+  private static <T> List<T> top(List<T> items) {
+    return items.size() > TOP_COUNT ? new ArrayList<>(items.subList(0, TOP_COUNT)) : items;
+  }
+
+  private static List<CxxProfiler.Phase> sortByTotalTime(List<CxxProfiler.Phase> items) {
+    Collections.sort(items, new Comparator<CxxProfiler.Phase>() {
+      @Override
+      public int compare(CxxProfiler.Phase p1, CxxProfiler.Phase p2) {
+        int cmp = Long.compare(p2.getTotalNanos(), p1.getTotalNanos());
+        return cmp != 0 ? cmp : p1.getName().compareTo(p2.getName());
+      }
+    });
+    return items;
+  }
+
+  private void writeReport(File report, List<CxxProfiler.Phase> phases, List<CxxProfiler.TranslationUnit> units,
+    List<CxxProfiler.Phase> headers, List<CxxProfiler.Phase> macros) throws IOException {
+    try (JsonGenerator json = new JsonFactory().createGenerator(report, JsonEncoding.UTF8)) {
+      json.useDefaultPrettyPrinter();
+      json.writeStartObject();
+      json.writeStringField("language", language.getKey());
+      json.writeBooleanField("allocationMeasured", CxxProfiler.isAllocationMeasured());
+      writePhases(json, "phases", phases);
+      json.writeArrayFieldStart("translationUnits");
+      for (CxxProfiler.TranslationUnit unit : units) {
+        json.writeStartObject();
+        json.writeStringField("path", unit.getPath());
+        json.writeNumberField("lexerNanos", unit.getLexerNanos());
+        json.writeNumberField("preprocessorNanos", unit.getPreprocessorNanos());
+        json.writeNumberField("parserNanos", unit.getParserNanos());
+        json.writeNumberField("tokens", unit.getTokens());
+        json.writeNumberField("includes", unit.getIncludes());
+        json.writeNumberField("peakMacros", unit.getPeakMacros());
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+      writePhases(json, "headers", headers);
+      writePhases(json, "macros", macros);
+      json.writeEndObject();
+    }
+  }
+
+  private static void writePhases(JsonGenerator json, String field, List<CxxProfiler.Phase> phases)
+    throws IOException {
+    json.writeArrayFieldStart(field);
+    for (CxxProfiler.Phase phase : phases) {
+      json.writeStartObject();
+      json.writeStringField("name", phase.getName());
+      json.writeNumberField("calls", phase.getCalls());
+      json.writeNumberField("selfNanos", phase.getSelfNanos());
+      json.writeNumberField("totalNanos", phase.getTotalNanos());
+      json.writeNumberField("selfBytes", phase.getSelfBytes());
+      json.writeNumberField("totalBytes", phase.getTotalBytes());
+      json.writeEndObject();
+    }
+    json.writeEndArray();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
+}
@@ -20,6 +20,7 @@
 package org.sonar.cxx.sensors.rats;
 
 import java.io.File;
+import java.io.InputStream;
 import java.util.List;
 
 import javax.annotation.Nullable;
@@ -32,6 +33,7 @@ import org.sonar.api.config.Settings;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.CxxLanguage;
+import org.sonar.cxx.CxxReportFiles;
 import org.sonar.cxx.sensors.utils.CxxReportSensor;
 import org.sonar.cxx.sensors.utils.CxxUtils;
 
@@ -66,9 +68,9 @@ public class CxxRatsSensor extends CxxReportSensor {
     throws org.jdom.JDOMException, java.io.IOException {
     LOG.debug("Parsing 'RATS' format");
     
-    try {
+    try (InputStream input = CxxReportFiles.open(report)) {
       SAXBuilder builder = new SAXBuilder(false);
-      Element root = builder.build(report).getRootElement();
+      Element root = builder.build(input, report.toURI().toString()).getRootElement();
       @SuppressWarnings("unchecked")
       List<Element> vulnerabilities = root.getChildren("vulnerability");
       for (Element vulnerability : vulnerabilities) {
@@ -93,6 +95,7 @@ public class CxxRatsSensor extends CxxReportSensor {
     } catch (org.jdom.input.JDOMParseException e) {
       // when RATS fails the XML file might be incomplete
       LOG.error("Ignore incomplete XML output from RATS '{}'", CxxUtils.getStackTrace(e));
+      markReportIncomplete();
     }
   }
 
@@ -0,0 +1,75 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.sarif;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxLanguage;
+import org.sonar.cxx.sensors.other.CxxOtherRepository;
+import org.sonar.cxx.sensors.utils.CxxReportSensor;
+
+/**
+ * Sensor for SARIF 2.1 logs of external code analysers. The issues are
+ * reported for the rules of the 'other' repository, the log is streamed.
+ */
+public class CxxSarifSensor extends CxxReportSensor {
+  private static final Logger LOG = Loggers.get(CxxSarifSensor.class);
+  public static final String REPORT_PATH_KEY = "sarif.reportPath";
+  public static final String KEY = "SARIF";
+
+  /**
+   * {@inheritDoc}
+   */
+  public CxxSarifSensor(CxxLanguage language, Settings settings) {
+    super(language, settings);
+  }
+
+  @Override
+  public String getReportPathKey() {
+    return this.language.getPluginProperty(REPORT_PATH_KEY);
+  }
+
+  @Override
+  public void describe(SensorDescriptor descriptor) {
+    descriptor.onlyOnLanguage(this.language.getKey()).name(language.getName() + " SarifSensor");
+  }
+
+  @Override
+  protected void processReport(final SensorContext context, File report) throws IOException {
+    LOG.debug("Parsing 'SARIF' format");
+    SarifParser.parse(report, issue -> saveUniqueViolation(context,
+      CxxOtherRepository.KEY,
+      issue.getFile(),
+      issue.getLine(),
+      issue.getRuleId(),
+      issue.getMessage()));
+  }
+
+  @Override
+  protected String getSensorKey() {
+    return KEY;
+  }
+}
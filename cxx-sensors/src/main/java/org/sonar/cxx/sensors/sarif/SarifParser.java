@@ -0,0 +1,488 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.sarif;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxReportFiles;
+import org.sonar.cxx.sensors.utils.EmptyReportException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Streaming reader for SARIF 2.1 logs. The results of a run are passed on
+ * while the log is read, only results which refer to parts of the run which
+ * come later in the log (rules or artifacts) are kept until the end of the
+ * run, at most {@value #MAX_PENDING_RESULTS} of them.
+ */
+final class SarifParser {
+  private static final Logger LOG = Loggers.get(SarifParser.class);
+  // thread-safe once configured
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  static final int MAX_PENDING_RESULTS = 100_000;
+
+  private SarifParser() {
+  }
+
+  /**
+   * @param report SARIF log, compressed files are decompressed
+   * @param issues receives the results of all runs
+   * @throws IOException if the report cannot be read or is no valid JSON
+   */
+  static void parse(File report, Consumer<Issue> issues) throws IOException {
+    try (InputStream input = CxxReportFiles.open(report);
+         JsonParser parser = JSON_FACTORY.createParser(input)) {
+      JsonToken first = parser.nextToken();
+      if (first == null) {
+        throw new EmptyReportException("Cannot read SARIF report");
+      }
+      if (first != JsonToken.START_OBJECT) {
+        throw new IOException("SARIF log is no JSON object: " + report);
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if ("runs".equals(name) && token == JsonToken.START_ARRAY) {
+          while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+              new Run(issues).read(parser);
+            } else {
+              parser.skipChildren();
+            }
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  /**
+   * One issue of the report
+   */
+  static final class Issue {
+    private final String ruleId;
+    private final String message;
+    private final String file;
+    private final String line;
+
+    Issue(String ruleId, String message, @Nullable String file, @Nullable String line) {
+      this.ruleId = ruleId;
+      this.message = message;
+      this.file = file;
+      this.line = line;
+    }
+
+    String getRuleId() {
+      return ruleId;
+    }
+
+    String getMessage() {
+      return message;
+    }
+
+    /**
+     * Returns the path of the file or null for an issue of the project
+     */
+    @CheckForNull
+    String getFile() {
+      return file;
+    }
+
+    @CheckForNull
+    String getLine() {
+      return line;
+    }
+  }
+
+  /**
+   * A result as it was read, references are resolved with its run.
+   */
+  private static final class Result {
+    private String ruleId;
+    private int ruleIndex = -1;
+    private String message;
+    private String uri;
+    private String uriBaseId;
+    private int artifactIndex = -1;
+    private String line;
+    private boolean hasLocation;
+  }
+
+  private static final class Run {
+    private final Consumer<Issue> issues;
+    private final List<String> ruleIds = new ArrayList<>();
+    private final Map<String, String> baseUris = new HashMap<>();
+    // uri and uriBaseId of each artifact
+    private final List<String[]> artifacts = new ArrayList<>();
+    private final List<Result> pending = new ArrayList<>();
+    private int skippedResults;
+    private boolean toolRead;
+    private boolean baseUrisRead;
+    private boolean artifactsRead;
+
+    Run(Consumer<Issue> issues) {
+      this.issues = issues;
+    }
+
+    void read(JsonParser parser) throws IOException {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if ("tool".equals(name) && token == JsonToken.START_OBJECT) {
+          readTool(parser);
+          toolRead = true;
+        } else if ("originalUriBaseIds".equals(name) && token == JsonToken.START_OBJECT) {
+          readBaseUris(parser);
+          baseUrisRead = true;
+        } else if ("artifacts".equals(name) && token == JsonToken.START_ARRAY) {
+          readArtifacts(parser);
+          artifactsRead = true;
+        } else if ("results".equals(name) && token == JsonToken.START_ARRAY) {
+          readResults(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      toolRead = true;
+      baseUrisRead = true;
+      artifactsRead = true;
+      for (Result result : pending) {
+        report(result);
+      }
+      if (skippedResults > 0) {
+        LOG.warn("Skipped {} SARIF results, more than {} results refer to rules or artifacts listed after them",
+          skippedResults, MAX_PENDING_RESULTS);
+      }
+    }
+
+    private void readTool(JsonParser parser) throws IOException {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if ("driver".equals(name) && token == JsonToken.START_OBJECT) {
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String driverField = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("rules".equals(driverField) && valueToken == JsonToken.START_ARRAY) {
+              readRules(parser);
+            } else {
+              parser.skipChildren();
+            }
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    private void readRules(JsonParser parser) throws IOException {
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (token == JsonToken.START_OBJECT) {
+          ruleIds.add(readId(parser));
+        } else {
+          // keep the indices of the rules
+          parser.skipChildren();
+          ruleIds.add(null);
+        }
+      }
+    }
+
+    private void readBaseUris(JsonParser parser) throws IOException {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String baseId = parser.getCurrentName();
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+          String[] location = readArtifactLocation(parser, null);
+          if (location[0] != null) {
+            baseUris.put(baseId, location[0]);
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    private void readArtifacts(JsonParser parser) throws IOException {
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        String[] location = {null, null};
+        if (token == JsonToken.START_OBJECT) {
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("location".equals(name) && valueToken == JsonToken.START_OBJECT) {
+              location = readArtifactLocation(parser, null);
+            } else {
+              parser.skipChildren();
+            }
+          }
+        } else {
+          parser.skipChildren();
+        }
+        // keep the indices of the artifacts
+        artifacts.add(location);
+      }
+    }
+
+    private void readResults(JsonParser parser) throws IOException {
+      // the base URIs are written before the results, a uriBaseId without
+      // definition is resolved like a relative path
+      baseUrisRead = true;
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (token != JsonToken.START_OBJECT) {
+          parser.skipChildren();
+          continue;
+        }
+        Result result = readResult(parser);
+        if (isResolvable(result)) {
+          report(result);
+        } else if (pending.size() < MAX_PENDING_RESULTS) {
+          pending.add(result);
+        } else {
+          skippedResults++;
+        }
+      }
+    }
+
+    private static Result readResult(JsonParser parser) throws IOException {
+      Result result = new Result();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if ("ruleId".equals(name) && token == JsonToken.VALUE_STRING) {
+          result.ruleId = parser.getText();
+        } else if ("ruleIndex".equals(name) && token == JsonToken.VALUE_NUMBER_INT) {
+          result.ruleIndex = parser.getIntValue();
+        } else if ("rule".equals(name) && token == JsonToken.START_OBJECT) {
+          String id = readId(parser);
+          if (result.ruleId == null) {
+            result.ruleId = id;
+          }
+        } else if ("message".equals(name) && token == JsonToken.START_OBJECT) {
+          result.message = readMessage(parser);
+        } else if ("locations".equals(name) && token == JsonToken.START_ARRAY) {
+          readLocations(parser, result);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return result;
+    }
+
+    private static void readLocations(JsonParser parser, Result result) throws IOException {
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (token == JsonToken.START_OBJECT && !result.hasLocation) {
+          // the first location is the location of the issue
+          result.hasLocation = true;
+          readLocation(parser, result);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    private static void readLocation(JsonParser parser, Result result) throws IOException {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if ("physicalLocation".equals(name) && token == JsonToken.START_OBJECT) {
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("artifactLocation".equals(field) && valueToken == JsonToken.START_OBJECT) {
+              String[] location = readArtifactLocation(parser, result);
+              result.uri = location[0];
+              result.uriBaseId = location[1];
+            } else if ("region".equals(field) && valueToken == JsonToken.START_OBJECT) {
+              result.line = readStartLine(parser);
+            } else {
+              parser.skipChildren();
+            }
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    /**
+     * @return uri and uriBaseId, the artifact index is set on the result
+     */
+    private static String[] readArtifactLocation(JsonParser parser, @Nullable Result result) throws IOException {
+      String[] location = {null, null};
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if ("uri".equals(name) && token == JsonToken.VALUE_STRING) {
+          location[0] = parser.getText();
+        } else if ("uriBaseId".equals(name) && token == JsonToken.VALUE_STRING) {
+          location[1] = parser.getText();
+        } else if ("index".equals(name) && token == JsonToken.VALUE_NUMBER_INT && result != null) {
+          result.artifactIndex = parser.getIntValue();
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return location;
+    }
+
+    @CheckForNull
+    private static String readStartLine(JsonParser parser) throws IOException {
+      String line = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if ("startLine".equals(name) && token == JsonToken.VALUE_NUMBER_INT) {
+          line = parser.getText();
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return line;
+    }
+
+    @CheckForNull
+    private static String readMessage(JsonParser parser) throws IOException {
+      String text = null;
+      String id = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if ("text".equals(name) && token == JsonToken.VALUE_STRING) {
+          text = parser.getText();
+        } else if ("id".equals(name) && token == JsonToken.VALUE_STRING) {
+          id = parser.getText();
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return text != null ? text : id;
+    }
+
+    /**
+     * Reads an object and returns its "id"
+     */
+    @CheckForNull
+    private static String readId(JsonParser parser) throws IOException {
+      String id = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if ("id".equals(name) && token == JsonToken.VALUE_STRING) {
+          id = parser.getText();
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return id;
+    }
+
+    private boolean isResolvable(Result result) {
+      return (result.ruleId != null || result.ruleIndex < 0 || toolRead)
+        && (result.uriBaseId == null || baseUrisRead)
+        && (result.uri != null || result.artifactIndex < 0 || artifactsRead);
+    }
+
+    private void report(Result result) {
+      String ruleId = result.ruleId;
+      if (ruleId == null && result.ruleIndex >= 0 && result.ruleIndex < ruleIds.size()) {
+        ruleId = ruleIds.get(result.ruleIndex);
+      }
+      if (ruleId == null) {
+        LOG.debug("Skipping SARIF result without rule: '{}'", result.message);
+        return;
+      }
+
+      String uri = result.uri;
+      String uriBaseId = result.uriBaseId;
+      if (uri == null && result.artifactIndex >= 0 && result.artifactIndex < artifacts.size()) {
+        uri = artifacts.get(result.artifactIndex)[0];
+        uriBaseId = artifacts.get(result.artifactIndex)[1];
+      }
+      String file = null;
+      if (uri != null) {
+        file = toPath(uri, uriBaseId != null ? baseUris.get(uriBaseId) : null);
+        if (file == null) {
+          LOG.debug("Skipping SARIF result with unsupported location '{}'", uri);
+          return;
+        }
+      } else if (result.hasLocation) {
+        LOG.debug("Skipping SARIF result without file: '{}'", result.message);
+        return;
+      }
+
+      String message = result.message != null ? result.message : ruleId;
+      issues.accept(new Issue(ruleId, message, file, file != null ? result.line : null));
+    }
+  }
+
+  /**
+   * @param uri absolute or relative URI reference of a file
+   * @param baseUri URI the relative reference is resolved against
+   * @return path of a local file, a relative path is resolved by the sensor
+   */
+  @CheckForNull
+  static String toPath(String uri, @Nullable String baseUri) {
+    try {
+      URI reference = new URI(uri);
+      if (!reference.isAbsolute() && baseUri != null) {
+        reference = new URI(baseUri.endsWith("/") ? baseUri : baseUri + "/").resolve(reference);
+      }
+      if (!reference.isAbsolute()) {
+        return reference.getPath();
+      }
+      if (reference.getScheme().length() == 1) {
+        // a Windows path like C:/src/file.cpp
+        return uri;
+      }
+      if ("file".equalsIgnoreCase(reference.getScheme())) {
+        return Paths.get(reference).toString();
+      }
+    } catch (URISyntaxException e) {
+      // some tools write plain paths, with spaces or backslashes
+      if (baseUri == null) {
+        return uri;
+      }
+      LOG.debug("Invalid URI '{}': {}", uri, e.getMessage());
+    } catch (IllegalArgumentException e) {
+      LOG.debug("Invalid URI '{}': {}", uri, e.getMessage());
+    }
+    return null;
+  }
+}
@@ -36,6 +36,7 @@ import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.cxx.CxxAstScanner;
 import org.sonar.cxx.CxxConfiguration;
+import org.sonar.cxx.CxxProfiler;
 import org.sonar.cxx.api.CxxMetric;
 import org.sonar.squidbridge.AstScanner;
 import org.sonar.squidbridge.SquidAstVisitor;
@@ -65,6 +66,7 @@ import org.sonar.cxx.sensors.compiler.CxxCompilerSensor;
 import org.sonar.cxx.sensors.coverage.CxxCoverageCache;
 import org.sonar.cxx.sensors.coverage.CxxCoverageSensor;
 import org.sonar.cxx.sensors.utils.CxxMetrics;
+import org.sonar.cxx.sensors.utils.CxxReportIngestion;
 import org.sonar.cxx.sensors.utils.CxxReportSensor;
 import org.sonar.cxx.sensors.utils.JsonCompilationDatabase;
 import org.sonar.cxx.sensors.visitors.CxxCpdVisitor;
@@ -101,6 +103,7 @@ public class CxxSquidSensor implements Sensor {
   private AstScanner<Grammar> scanner;
   private final CxxLanguage language;
   private final CxxCoverageCache cache;
+  private final CxxReportIngestion reportIngestion;
     
   /**
    * {@inheritDoc}
@@ -120,6 +123,18 @@ public class CxxSquidSensor implements Sensor {
           CheckFactory checkFactory,
           @Nullable CustomCxxRulesDefinition[] customRulesDefinition,
           @Nullable CxxCoverageCache coverageCache) {
+    this(language, fileLinesContextFactory, checkFactory, customRulesDefinition, coverageCache, null);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public CxxSquidSensor(CxxLanguage language,
+          FileLinesContextFactory fileLinesContextFactory,
+          CheckFactory checkFactory,
+          @Nullable CustomCxxRulesDefinition[] customRulesDefinition,
+          @Nullable CxxCoverageCache coverageCache,
+          @Nullable CxxReportIngestion reportIngestion) {
     this.checks = CxxChecks.createCxxCheck(checkFactory)
       .addChecks(language.getRepositoryKey(), language.getChecks())
       .addCustomChecks(customRulesDefinition);
@@ -131,6 +146,7 @@ public class CxxSquidSensor implements Sensor {
     } else {
       this.cache = coverageCache;
     }
+    this.reportIngestion = reportIngestion;
   }
 
   @Override
@@ -143,6 +159,11 @@ public class CxxSquidSensor implements Sensor {
    */
   @Override
   public void execute(SensorContext context) {       
+    CxxProfiler.configure(this.language);
+    if (reportIngestion != null) {
+      // parse the reports of the other sensors while the source files are scanned
+      reportIngestion.start(context);
+    }
     Map<InputFile, Set<Integer>> linesOfCodeByFile = new HashMap<>();
         
     List<SquidAstVisitor<Grammar>> visitors = new ArrayList<>((Collection) checks.all());
@@ -0,0 +1,135 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.tests.xunit;
+
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLStreamException;
+
+import org.codehaus.staxmate.in.SMInputCursor;
+import org.sonar.api.utils.ParsingUtils;
+
+/**
+ * Counts the test cases of a boost.test log the way
+ * boosttest-1.x-to-junit-1.0.xsl converts them: every TestCase is a test case,
+ * it is an error if it has a FatalError or Exception and a failure if it has
+ * an Error. A log without TestCase elements is converted entry by entry.
+ */
+final class BoostTestReportParser {
+
+  static final String ROOT = "TestLog";
+  private static final String TEST_CASE = "TestCase";
+  private static final String TESTING_TIME = "TestingTime";
+  private static final double MICROSECONDS_PER_SECOND = 1000000d;
+
+  private BoostTestReportParser() {
+  }
+
+  /**
+   * @param testLog cursor positioned on the root element
+   * @param statistics the totals the test cases are added to
+   */
+  static void parse(SMInputCursor testLog, XunitStatistics statistics) throws XMLStreamException {
+    // both conversions are counted, which one applies is known at the end only
+    XunitStatistics testCases = new XunitStatistics();
+    XunitStatistics entries = new XunitStatistics();
+    SMInputCursor entryCursor = testLog.childElementCursor();
+    while (entryCursor.getNext() != null) {
+      parseElement(entryCursor, testCases, entries);
+    }
+    statistics.add(testCases.getTests() > 0 ? testCases : entries);
+  }
+
+  /**
+   * Walks an element and its descendants, every TestCase is added to
+   * testCases. A log entry is added to entries.
+   */
+  private static void parseElement(SMInputCursor elementCursor, XunitStatistics testCases,
+                                   @Nullable XunitStatistics entries) throws XMLStreamException {
+    String name = elementCursor.getLocalName();
+    boolean hasError = false;
+    boolean hasFailure = false;
+    String testingTime = null;
+
+    SMInputCursor childCursor = elementCursor.childElementCursor();
+    while (childCursor.getNext() != null) {
+      String childName = childCursor.getLocalName();
+      if (TESTING_TIME.equals(childName)) {
+        if (testingTime == null) {
+          testingTime = childCursor.collectDescendantText();
+        }
+      } else {
+        if (isError(childName)) {
+          hasError = true;
+        } else if (isFailure(childName)) {
+          hasFailure = true;
+        }
+        parseElement(childCursor, testCases, null);
+      }
+    }
+
+    String status = XunitStatistics.STATUS_OK;
+    if (hasError) {
+      status = XunitStatistics.STATUS_ERROR;
+    } else if (hasFailure) {
+      status = XunitStatistics.STATUS_FAILURE;
+    }
+    int time = parseTime(testingTime);
+
+    if (TEST_CASE.equals(name)) {
+      testCases.addTestCase(status, time);
+    }
+    if (entries != null) {
+      // a log entry which is an Error, FatalError or Exception itself
+      if (XunitStatistics.STATUS_OK.equals(status) && isError(name)) {
+        status = XunitStatistics.STATUS_ERROR;
+      } else if (XunitStatistics.STATUS_OK.equals(status) && isFailure(name)) {
+        status = XunitStatistics.STATUS_FAILURE;
+      }
+      entries.addTestCase(status, time);
+    }
+  }
+
+  private static boolean isError(String name) {
+    return "FatalError".equals(name) || "Exception".equals(name);
+  }
+
+  private static boolean isFailure(String name) {
+    return "Error".equals(name);
+  }
+
+  /**
+   * @param testingTime the execution time in microseconds
+   * @return the execution time in milliseconds
+   */
+  private static int parseTime(@Nullable String testingTime) {
+    if (testingTime == null) {
+      return 0;
+    }
+    try {
+      double microseconds = Double.parseDouble(testingTime.trim());
+      if (microseconds > 0 && !Double.isInfinite(microseconds)) {
+        return (int) ParsingUtils.scaleValue(microseconds / MICROSECONDS_PER_SECOND * 1000, 3);
+      }
+    } catch (NumberFormatException e) {
+      // like XPath, a time which is no number is ignored
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.tests.xunit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.codehaus.staxmate.in.SMInputCursor;
+
+/**
+ * Counts the test cases of a CppUnit report the way cppunit-1.x-to-junit-1.0.xsl
+ * converts them: successful tests pass, failed tests with the failure type
+ * "Error" are errors, all other failed tests are failures. CppUnit reports
+ * have no execution times.
+ */
+final class CppUnitReportParser {
+
+  static final String ROOT = "TestRun";
+
+  private CppUnitReportParser() {
+  }
+
+  /**
+   * @param testRun cursor positioned on the root element
+   * @param statistics the totals the test cases are added to
+   */
+  static void parse(SMInputCursor testRun, XunitStatistics statistics) throws XMLStreamException {
+    SMInputCursor groupCursor = testRun.childElementCursor();
+    while (groupCursor.getNext() != null) {
+      String groupName = groupCursor.getLocalName();
+      if ("SuccessfulTests".equals(groupName)) {
+        SMInputCursor testCursor = groupCursor.childElementCursor("Test");
+        while (testCursor.getNext() != null) {
+          statistics.addTestCase(XunitStatistics.STATUS_OK, 0);
+        }
+      } else if ("FailedTests".equals(groupName)) {
+        SMInputCursor testCursor = groupCursor.childElementCursor();
+        while (testCursor.getNext() != null) {
+          String testName = testCursor.getLocalName();
+          if ("FailedTest".equals(testName) || "Test".equals(testName)) {
+            statistics.addTestCase(isError(testCursor) ? XunitStatistics.STATUS_ERROR : XunitStatistics.STATUS_FAILURE,
+              0);
+          }
+        }
+      }
+    }
+  }
+
+  private static boolean isError(SMInputCursor testCursor) throws XMLStreamException {
+    SMInputCursor typeCursor = testCursor.childElementCursor("FailureType");
+    while (typeCursor.getNext() != null) {
+      if ("Error".equals(typeCursor.collectDescendantText())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
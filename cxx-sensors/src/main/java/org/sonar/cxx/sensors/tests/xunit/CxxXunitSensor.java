@@ -23,7 +23,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.xml.stream.XMLStreamException;
 
 import javax.xml.transform.Source;
@@ -52,6 +55,11 @@ public class CxxXunitSensor extends CxxReportSensor {
   public static final String KEY = "Xunit";
   public static final String XSLT_URL_KEY = "xunit.xsltURL";
   private static final double PERCENT_BASE = 100d;
+  // formats read by XunitReportParser without the transformation
+  private static final Set<String> NATIVE_XSLT_URLS = new HashSet<>(Arrays.asList(
+    "boosttest-1.x-to-junit-1.0.xsl",
+    "boosttest-1.x-to-junit-dummy-1.0.xsl",
+    "cppunit-1.x-to-junit-1.0.xsl"));
      
   private String xsltURL;
 
@@ -73,6 +81,12 @@ public class CxxXunitSensor extends CxxReportSensor {
     descriptor.name(language.getName() + " XunitSensor");
   }
   
+  @Override
+  protected boolean isParsedInBackground() {
+    // test results are saved as measures by execute
+    return false;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -89,11 +103,10 @@ public class CxxXunitSensor extends CxxReportSensor {
     try {
       List<File> reports = getReports(context.settings(), context.fileSystem().baseDir(), getReportPathKey());
       if (!reports.isEmpty()) {
-        XunitReportParser parserHandler = parseReport(reports);
-        List<TestCase> testcases = parserHandler.getTestCases();
+        XunitStatistics statistics = parseReports(reports);
 
         LOG.info("Parsing 'xUnit' format");
-        simpleMode(context, testcases);
+        simpleMode(context, statistics);
       } else {
         LOG.debug("No reports found, nothing to process");
       }
@@ -110,45 +123,37 @@ public class CxxXunitSensor extends CxxReportSensor {
 
   /**
    * @param reports
-   * @return
+   * @return the totals of all reports
    * @throws XMLStreamException
    * @throws IOException
    * @throws TransformerException
    */
-  private XunitReportParser parseReport(List<File> reports)
+  private XunitStatistics parseReports(List<File> reports)
       throws XMLStreamException, IOException, TransformerException {
     XunitReportParser parserHandler = new XunitReportParser();
     StaxParser parser = new StaxParser(parserHandler, false);
+    boolean readNatively = xsltURL == null || NATIVE_XSLT_URLS.contains(xsltURL);
+    if (xsltURL != null && readNatively) {
+      LOG.debug("Reading the reports without xslt '{}'", xsltURL);
+    }
     for (File report : reports) {
       LOG.info("Processing report '{}'", report);
       try {
-        parser.parse(transformReport(report));
+        parser.parse(readNatively ? report : transformReport(report));
       } catch (EmptyReportException e) { 
         LOG.warn("The report '{}' seems to be empty, ignoring.", report);
       }
     }
-    return parserHandler;
+    return parserHandler.getStatistics();
   }
 
-  private void simpleMode(final SensorContext context, List<TestCase> testcases) {
+  private void simpleMode(final SensorContext context, XunitStatistics statistics) {
         
-    int testsCount = 0;
-    int testsSkipped = 0;
-    int testsErrors = 0;
-    int testsFailures = 0;
-    long testsTime = 0;
-    for (TestCase tc : testcases) {
-      if (tc.isSkipped()) {
-        testsSkipped++;
-      } else if (tc.isFailure()) {
-        testsFailures++;
-      } else if (tc.isError()) {
-        testsErrors++;
-      }
-      testsCount++;
-      testsTime += tc.getTime();
-    }
-    testsCount -= testsSkipped;
+    int testsSkipped = statistics.getSkipped();
+    int testsErrors = statistics.getErrors();
+    int testsFailures = statistics.getFailures();
+    long testsTime = statistics.getTime();
+    int testsCount = statistics.getTests() - testsSkipped;
 
     if (testsCount > 0) {
       double testsPassed = (double) testsCount - testsErrors - testsFailures;
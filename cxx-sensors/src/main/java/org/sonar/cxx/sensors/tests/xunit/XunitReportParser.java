@@ -20,8 +20,6 @@
 package org.sonar.cxx.sensors.tests.xunit;
 
 import java.text.ParseException;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Locale;
 
 import javax.xml.stream.XMLStreamException;
@@ -34,17 +32,30 @@ import org.sonar.cxx.sensors.utils.EmptyReportException;
 import org.sonar.cxx.sensors.utils.StaxParser.XmlStreamHandler;
 
 /**
- * {@inheritDoc}
+ * Streams xUnit reports and adds up their test cases. Besides JUnit and
+ * googletest reports, boost.test logs and CppUnit reports are recognized by
+ * their root element and read natively.
  */
 public class XunitReportParser implements XmlStreamHandler {
 
-  private final List<TestCase> testCases = new LinkedList<>();
+  private final XunitStatistics statistics;
+
+  public XunitReportParser() {
+    this(new XunitStatistics());
+  }
 
   /**
-   * Returns successfully parsed testcases.
+   * @param statistics the totals the test cases are added to
    */
-  public List<TestCase> getTestCases() {
-    return new LinkedList<>(testCases);
+  public XunitReportParser(XunitStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Returns the totals of the successfully parsed testcases.
+   */
+  public XunitStatistics getStatistics() {
+    return statistics;
   }
 
   /**
@@ -52,68 +63,62 @@ public class XunitReportParser implements XmlStreamHandler {
    */
   @Override
   public void stream(SMHierarchicCursor rootCursor) throws XMLStreamException {
-    SMInputCursor testSuiteCursor = rootCursor.constructDescendantCursor(new ElementFilter("testsuite"));
     try {
-      testSuiteCursor.getNext();
+      rootCursor.advance();
     } catch (com.ctc.wstx.exc.WstxEOFException eofExc) { 
       throw new EmptyReportException("Cannot read Xunit report", eofExc); 
     }
 
-    do {
-      parseTestSuiteTag(testSuiteCursor);
-    } while (testSuiteCursor.getNext() != null);
+    String rootName = rootCursor.getLocalName();
+    if (CppUnitReportParser.ROOT.equals(rootName)) {
+      CppUnitReportParser.parse(rootCursor, statistics);
+    } else if (BoostTestReportParser.ROOT.equals(rootName)) {
+      BoostTestReportParser.parse(rootCursor, statistics);
+    } else if ("testsuite".equals(rootName)) {
+      parseTestSuiteTag(rootCursor);
+    } else {
+      SMInputCursor testSuiteCursor = rootCursor.constructDescendantCursor(new ElementFilter("testsuite"));
+      while (testSuiteCursor.getNext() != null) {
+        parseTestSuiteTag(testSuiteCursor);
+      }
+    }
   }
 
   public void parseTestSuiteTag(SMInputCursor testSuiteCursor)
     throws XMLStreamException {
-    String testSuiteName = testSuiteCursor.getAttrValue("name");
-    String testSuiteFName = testSuiteCursor.getAttrValue("filename");
-
     SMInputCursor childCursor = testSuiteCursor.childElementCursor();
     while (childCursor.getNext() != null) {
       String elementName = childCursor.getLocalName();
       if ("testsuite".equals(elementName)) {
         parseTestSuiteTag(childCursor);
       } else if ("testcase".equals(elementName)) {
-        testCases.add(parseTestCaseTag(childCursor, testSuiteName, testSuiteFName));
+        parseTestCaseTag(childCursor);
       }
     }
   }
 
-  private TestCase parseTestCaseTag(SMInputCursor testCaseCursor, String tsName, String tsFilename)
+  private void parseTestCaseTag(SMInputCursor testCaseCursor)
     throws XMLStreamException {
-    String classname = testCaseCursor.getAttrValue("classname");
-    String tcFilename = testCaseCursor.getAttrValue("filename");
-    String name = parseTestCaseName(testCaseCursor);
-    Double time = parseTime(testCaseCursor);
-    String status = "ok";
-    String stack = "";
-    String msg = "";
-    final String SKIPPED_STATUS = "skipped";
+    double time = parseTime(testCaseCursor);
+    String status = XunitStatistics.STATUS_OK;
 
     // Googletest-reports mark the skipped tests with status="notrun"
     String statusattr = testCaseCursor.getAttrValue("status");
     if ("notrun".equals(statusattr)) {
-      status = SKIPPED_STATUS;
+      status = XunitStatistics.STATUS_SKIPPED;
     } else {
       SMInputCursor childCursor = testCaseCursor.childElementCursor();
       if (childCursor.getNext() != null) {
         String elementName = childCursor.getLocalName();
-        if (SKIPPED_STATUS.equals(elementName)) {
-          status = SKIPPED_STATUS;
-        } else if ("failure".equals(elementName)) {
-          status = "failure";
-          msg = childCursor.getAttrValue("message");
-          stack = childCursor.collectDescendantText();
-        } else if ("error".equals(elementName)) {
-          status = "error";
-          msg = childCursor.getAttrValue("message");
-          stack = childCursor.collectDescendantText();
+        if (XunitStatistics.STATUS_SKIPPED.equals(elementName)
+          || XunitStatistics.STATUS_FAILURE.equals(elementName)
+          || XunitStatistics.STATUS_ERROR.equals(elementName)) {
+          status = elementName;
         }
       }
     }
 
-    return new TestCase(name, time.intValue(), status, stack, msg, classname, tcFilename, tsName, tsFilename);
+    statistics.addTestCase(status, (int) time);
   }
 
   private double parseTime(SMInputCursor testCaseCursor)
@@ -133,13 +138,4 @@ public class XunitReportParser implements XmlStreamHandler {
 
     return time;
   }
-
-  private String parseTestCaseName(SMInputCursor testCaseCursor) throws XMLStreamException {
-    String name = testCaseCursor.getAttrValue("name");
-    String classname = testCaseCursor.getAttrValue("classname");
-    if (classname != null) {
-      name = classname + "/" + name;
-    }
-    return name;
-  }
 }
@@ -19,38 +19,28 @@
  */
 package org.sonar.cxx.sensors.tests.xunit;
 
-import java.util.ArrayList;
-import java.util.List;
-import org.sonar.api.batch.fs.InputFile;
-
 /**
- * Represents a test file in Sonar, i.e. a source code file which implements
- * tests. Holds all test cases along with all measures collected from the
- * reports.
+ * Totals of the test cases of one or more xUnit reports. The test cases are
+ * counted while the reports are streamed, they are not kept.
  */
-public class TestFile {
+public class XunitStatistics {
+
+  static final String STATUS_OK = "ok";
+  static final String STATUS_ERROR = "error";
+  static final String STATUS_FAILURE = "failure";
+  static final String STATUS_SKIPPED = "skipped";
 
   private int errors;
   private int skipped;
   private int tests;
   private long time;
   private int failures;
-  private final List<TestCase> testCases;
-  private InputFile inputFile;
 
   /**
-   * Creates a test file instance which corresponds and represents the passed
-   * InputFile instance
-   *
-   * @param inputFile The InputFile in SQ which this TestFile proxies
+   * Returns the number of test cases, skipped test cases included
    */
-  public TestFile(InputFile inputFile) {
-    this.inputFile = inputFile;
-    this.testCases = new ArrayList<>();
-  }
-
-  public String getKey() {
-    return inputFile.absolutePath();
+  public int getTests() {
+    return tests;
   }
 
   public int getErrors() {
@@ -61,51 +51,43 @@ public class TestFile {
     return skipped;
   }
 
-  public int getTests() {
-    return tests;
+  public int getFailures() {
+    return failures;
   }
 
+  /**
+   * Returns the execution time of all test cases in milliseconds
+   */
   public long getTime() {
     return time;
   }
 
-  public int getFailures() {
-    return failures;
-  }
-
   /**
-   * Adds the given test case to this test file maintaining the internal
-   * statistics
+   * Counts a test case
    *
-   * @param tc the test case to add
+   * @param status the execution status: ok, error, failure or skipped
+   * @param time the execution time in milliseconds
    */
-  public void addTestCase(TestCase tc) {
-    if (tc.isSkipped()) {
+  public void addTestCase(String status, int time) {
+    if (STATUS_SKIPPED.equals(status)) {
       skipped++;
-    } else if (tc.isFailure()) {
+    } else if (STATUS_FAILURE.equals(status)) {
       failures++;
-    } else if (tc.isError()) {
+    } else if (STATUS_ERROR.equals(status)) {
       errors++;
     }
     tests++;
-    time += tc.getTime();
-    testCases.add(tc);
+    this.time += time;
   }
 
   /**
-   * Returns execution details as sonar-conform XML
+   * Adds the totals of other test cases
    */
-  public String getDetails() {
-    StringBuilder details = new StringBuilder();
-    details.append("<tests-details>");
-    for (TestCase tc : testCases) {
-      details.append(tc.getDetails());
-    }
-    details.append("</tests-details>");
-    return details.toString();
-  }
-
-  public InputFile getInputFile() {
-    return inputFile;
+  void add(XunitStatistics other) {
+    errors += other.errors;
+    skipped += other.skipped;
+    tests += other.tests;
+    time += other.time;
+    failures += other.failures;
   }
 }
@@ -19,11 +19,8 @@
  */
 package org.sonar.cxx.sensors.utils;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -75,16 +72,12 @@ public abstract class CxxAbstractRuleRepository implements RulesDefinition {
     Charset charset = StandardCharsets.UTF_8;
     NewRepository repository = context.createRepository(repositoryKey, this.language.getKey()).setName(repositoryName);
 
-    RulesDefinitionXmlLoader xmlLoader = new RulesDefinitionXmlLoader();
     if (!"".equals(fileName())) {
-      InputStream xmlStream = getClass().getResourceAsStream(fileName());
-      xmlLoader.load(repository, xmlStream, charset);
+      defineBundledRules(repository, charset);
 
       for (File userExtensionXml : getExtensions(repositoryKey, "xml")) {
-        try (FileInputStream input = new FileInputStream(userExtensionXml)) {
-
-          BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset));
-          xmlRuleLoader.load(repository, reader);
+        try {
+          CxxRuleIndex.define(repository, CxxRuleIndex.loadExtension(userExtensionXml));
         } catch (Exception ex) { 
           LOG.info("Cannot Load XML '{}'", ex);
         }
@@ -99,6 +92,21 @@ public abstract class CxxAbstractRuleRepository implements RulesDefinition {
     repository.done();
   }
 
+  private void defineBundledRules(NewRepository repository, Charset charset) {
+    List<CxxRuleIndex.Rule> rules = null;
+    try {
+      rules = CxxRuleIndex.loadBundled(getClass(), fileName());
+    } catch (IOException ex) {
+      LOG.warn("Cannot read the rule index of '{}': {}", fileName(), ex.getMessage());
+    }
+    if (rules != null) {
+      CxxRuleIndex.define(repository, rules);
+    } else {
+      LOG.debug("No rule index for '{}', loading the XML", fileName());
+      new RulesDefinitionXmlLoader().load(repository, getClass().getResourceAsStream(fileName()), charset);
+    }
+  }
+
   public List<File> getExtensions(String dirName, String... suffixes) {
     File dir = new File(fileSystem.getHomeDir(), "extensions/rules/" + dirName);
     List<File> files = new ArrayList<>();
@@ -0,0 +1,160 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.annotation.CheckForNull;
+
+import org.apache.commons.io.FilenameUtils;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Resolves the file paths found in reports to the input files of the module.
+ * The files are indexed by absolute and relative path once, a path from a
+ * report is only canonicalized (file system access) if the lexically
+ * normalized path is not in the index. Found and missing files are remembered
+ * per path, so every path of a report is resolved only once.
+ *
+ * One resolver exists per module file system and is shared by all report
+ * sensors of the module.
+ */
+public final class CxxInputFileResolver {
+
+  private static final Map<FileSystem, CxxInputFileResolver> RESOLVERS = new WeakHashMap<>();
+
+  private final String baseDir;
+  private final Map<String, InputFile> index = new HashMap<>();
+  private final Map<String, InputFile> resolved = new HashMap<>();
+  private final List<InputFile> inputFiles = new ArrayList<>();
+  private Map<String, InputFile> canonicalIndex;
+  private String inputFilesDigest;
+
+  CxxInputFileResolver(FileSystem fs) {
+    this.baseDir = fs.baseDir().getAbsolutePath();
+    for (InputFile inputFile : fs.inputFiles(fs.predicates().all())) {
+      inputFiles.add(inputFile);
+      addToIndex(inputFile.absolutePath(), inputFile);
+      addToIndex(inputFile.relativePath(), inputFile);
+    }
+  }
+
+  /**
+   * @param fs file system of the module
+   * @return the resolver shared by all sensors of the module
+   */
+  public static CxxInputFileResolver of(FileSystem fs) {
+    synchronized (RESOLVERS) {
+      return RESOLVERS.computeIfAbsent(fs, CxxInputFileResolver::new);
+    }
+  }
+
+  /**
+   * Reports shared by several modules are looked up with the files of the
+   * module instead of resolving every path of the report.
+   *
+   * @return the input files of the module indexed by canonical absolute path
+   */
+  public synchronized Map<String, InputFile> canonicalPaths() {
+    if (canonicalIndex == null) {
+      Map<String, InputFile> paths = new HashMap<>();
+      for (InputFile inputFile : inputFiles) {
+        String canonical = CxxUtils.normalizePath(inputFile.absolutePath());
+        paths.put(canonical != null ? canonical : inputFile.absolutePath(), inputFile);
+      }
+      canonicalIndex = Collections.unmodifiableMap(paths);
+    }
+    return canonicalIndex;
+  }
+
+  /**
+   * @return hash of the base directory and the paths of all input files of
+   * the module, the files the findings of a report are filtered with
+   */
+  synchronized String inputFilesDigest() {
+    if (inputFilesDigest == null) {
+      List<String> paths = new ArrayList<>();
+      for (InputFile inputFile : inputFiles) {
+        paths.add(inputFile.absolutePath());
+      }
+      Collections.sort(paths);
+      MessageDigest digest = CxxReportCache.newDigest();
+      digest.update(baseDir.getBytes(StandardCharsets.UTF_8));
+      for (String path : paths) {
+        digest.update((byte) '\n');
+        digest.update(path.getBytes(StandardCharsets.UTF_8));
+      }
+      inputFilesDigest = CxxReportCache.toHex(digest.digest());
+    }
+    return inputFilesDigest;
+  }
+
+  private void addToIndex(String path, InputFile inputFile) {
+    String key = FilenameUtils.normalize(path);
+    if (key != null) {
+      index.put(key, inputFile);
+    }
+  }
+
+  /**
+   * @param filename absolute path or path relative to the module base directory
+   * @return input file or null if the file is not part of the module
+   */
+  @CheckForNull
+  public synchronized InputFile resolve(String filename) {
+    String path = filename.trim();
+    if (resolved.containsKey(path)) {
+      return resolved.get(path);
+    }
+    InputFile inputFile = lookup(path);
+    resolved.put(path, inputFile);
+    return inputFile;
+  }
+
+  @CheckForNull
+  private InputFile lookup(String path) {
+    String normalized = FilenameUtils.normalize(path);
+    if (normalized != null) {
+      InputFile inputFile = index.get(normalized);
+      if (inputFile != null) {
+        return inputFile;
+      }
+    }
+    if (!new File(path).isAbsolute()) {
+      normalized = FilenameUtils.normalize(baseDir + File.separator + path);
+      InputFile inputFile = normalized != null ? index.get(normalized) : null;
+      if (inputFile != null) {
+        return inputFile;
+      }
+    }
+    // symbolic links, '..' leaving the base directory or different spelling
+    String canonical = CxxUtils.normalizePathFull(path, baseDir);
+    return canonical != null ? index.get(FilenameUtils.normalize(canonical)) : null;
+  }
+}
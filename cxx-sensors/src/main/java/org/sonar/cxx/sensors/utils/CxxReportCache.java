@@ -0,0 +1,381 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxLanguage;
+
+/**
+ * Local cache of the findings of the external reports. The findings of a
+ * parsed report are stored in a compact binary form, a report which did not
+ * change since is replayed from the cache instead of being parsed again.
+ *
+ * An entry is only used if the path, size, modification time and content hash
+ * of the report match, and if it was written by the same sensor with the same
+ * code version and the same language settings (the parser version). Sensors
+ * keep only the findings of files of the module, so the version also contains
+ * the base directory and the input files of the module.
+ */
+public final class CxxReportCache {
+
+  public static final String PATH_KEY = "reportCache.path";
+
+  private static final Logger LOG = Loggers.get(CxxReportCache.class);
+  private static final int MAGIC = 0x43585243;
+  private static final int VERSION = 2;
+  private static final int END = -1;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final File dir;
+  private final String parserVersion;
+
+  CxxReportCache(File dir, String parserVersion) {
+    this.dir = dir;
+    this.parserVersion = parserVersion;
+  }
+
+  /**
+   * @return the cache of the sensor or null if no cache directory is configured
+   */
+  @CheckForNull
+  static CxxReportCache of(CxxReportSensor sensor, SensorContext context, CxxLanguage language) {
+    String key = language.getPluginProperty(PATH_KEY);
+    String path = key != null ? context.settings().getString(key) : null;
+    if (path == null || path.trim().isEmpty()) {
+      return null;
+    }
+    File dir = new File(path.trim());
+    if (!dir.isAbsolute()) {
+      dir = new File(context.fileSystem().baseDir(), path.trim());
+    }
+    return new CxxReportCache(dir, parserVersion(sensor, context.settings(), language)
+      + '@' + CxxInputFileResolver.of(context.fileSystem()).inputFilesDigest());
+  }
+
+  /**
+   * Identifies the parser: sensor, code version and settings of the language
+   */
+  static String parserVersion(CxxReportSensor sensor, Settings settings, CxxLanguage language) {
+    StringBuilder version = new StringBuilder(sensor.getClass().getName())
+      .append('@').append(codeVersion(sensor.getClass()))
+      .append('@').append(codeVersion(CxxReportCache.class));
+    String prefix = language.getPluginProperty("");
+    if (prefix != null) {
+      Map<String, String> properties = new TreeMap<>();
+      for (Map.Entry<String, String> property : settings.getProperties().entrySet()) {
+        if (property.getKey().startsWith(prefix)) {
+          properties.put(property.getKey(), property.getValue());
+        }
+      }
+      version.append('@').append(digest(properties.toString()));
+    }
+    return version.toString();
+  }
+
+  private static String codeVersion(Class<?> type) {
+    Package typePackage = type.getPackage();
+    String version = typePackage != null ? typePackage.getImplementationVersion() : null;
+    if (version != null) {
+      return version;
+    }
+    CodeSource source = type.getProtectionDomain().getCodeSource();
+    if (source != null && source.getLocation() != null) {
+      try {
+        File code = new File(source.getLocation().toURI());
+        return code.length() + "-" + code.lastModified();
+      } catch (URISyntaxException | IllegalArgumentException e) {
+        LOG.debug("Cannot locate the code of '{}': {}", type.getName(), e.getMessage());
+      }
+    }
+    return "unknown";
+  }
+
+  /**
+   * Reads the cache entry of the report. The content hash is only computed if
+   * size and modification time of the report match the entry.
+   */
+  Lookup lookup(File report) {
+    Lookup lookup = new Lookup(report);
+    File entry = entryFile(report);
+    if (!entry.isFile()) {
+      return lookup;
+    }
+    try (DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(
+      new FileInputStream(entry), BUFFER_SIZE)))) {
+      if (data.readInt() != MAGIC || data.readInt() != VERSION || !parserVersion.equals(data.readUTF())
+        || !lookup.path.equals(data.readUTF()) || data.readLong() != lookup.size
+        || data.readLong() != lookup.modified) {
+        return lookup;
+      }
+      String contentHash = data.readUTF();
+      lookup.contentHash = hash(report);
+      if (contentHash.equals(lookup.contentHash)) {
+        lookup.findings = readFindings(data);
+      }
+    } catch (IOException e) {
+      LOG.debug("Cannot read the cache entry of report '{}': {}", report, e.getMessage());
+    }
+    return lookup;
+  }
+
+  /**
+   * Opens a new entry for the report. The findings are written to a temporary
+   * file while the report is parsed, the entry replaces the previous one when
+   * it is committed.
+   */
+  Entry newEntry(Lookup lookup) {
+    Entry entry = new Entry(lookup);
+    try {
+      String contentHash = lookup.contentHash != null ? lookup.contentHash : hash(lookup.report);
+      Files.createDirectories(dir.toPath());
+      entry.tmp = File.createTempFile("report", ".tmp", dir);
+      entry.data = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(
+        new FileOutputStream(entry.tmp), BUFFER_SIZE)));
+      entry.data.writeInt(MAGIC);
+      entry.data.writeInt(VERSION);
+      entry.data.writeUTF(parserVersion);
+      entry.data.writeUTF(lookup.path);
+      entry.data.writeLong(lookup.size);
+      entry.data.writeLong(lookup.modified);
+      entry.data.writeUTF(contentHash);
+    } catch (IOException e) {
+      entry.fail(e);
+    }
+    return entry;
+  }
+
+  private File entryFile(File report) {
+    return new File(dir, digest(parserVersion + '\n' + report.getAbsolutePath()) + ".bin");
+  }
+
+  /**
+   * Every finding is written as its number of values followed by the values,
+   * the findings end with {@link #END}.
+   */
+  private static void writeFinding(DataOutputStream data, String[] finding) throws IOException {
+    data.writeByte(finding.length);
+    for (String value : finding) {
+      data.writeBoolean(value != null);
+      if (value != null) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+      }
+    }
+  }
+
+  private static List<String[]> readFindings(DataInputStream data) throws IOException {
+    List<String[]> findings = new ArrayList<>();
+    int length;
+    while ((length = data.readByte()) != END) {
+      String[] finding = new String[length];
+      for (int i = 0; i < length; i++) {
+        if (data.readBoolean()) {
+          byte[] bytes = new byte[data.readInt()];
+          data.readFully(bytes);
+          finding[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+      }
+      findings.add(finding);
+    }
+    return findings;
+  }
+
+  private static String hash(File file) throws IOException {
+    MessageDigest digest = newDigest();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (InputStream input = new FileInputStream(file)) {
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return toHex(digest.digest());
+  }
+
+  private static String digest(String value) {
+    return toHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+  }
+
+  static String toHex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * Cache entry written while its report is parsed. An entry which is closed
+   * without being committed is discarded.
+   */
+  final class Entry implements AutoCloseable {
+
+    private final Lookup lookup;
+    @Nullable
+    private File tmp;
+    @Nullable
+    private DataOutputStream data;
+    private int count;
+
+    private Entry(Lookup lookup) {
+      this.lookup = lookup;
+    }
+
+    void add(String ruleRepoKey, @Nullable String file, @Nullable String line, String ruleId, String msg) {
+      if (data == null) {
+        return;
+      }
+      try {
+        writeFinding(data, new String[]{ruleRepoKey, file, line, ruleId, msg});
+        count++;
+      } catch (IOException e) {
+        fail(e);
+      }
+    }
+
+    /**
+     * Stores the entry of a completely parsed report, unless the report was
+     * modified while it was parsed.
+     */
+    void commit() {
+      File report = lookup.report;
+      if (data == null) {
+        return;
+      }
+      if (report.length() != lookup.size || report.lastModified() != lookup.modified) {
+        LOG.debug("Report '{}' was modified while parsing, not cached", report);
+        return;
+      }
+      try {
+        data.writeByte(END);
+        data.close();
+        data = null;
+        File entry = entryFile(report);
+        try {
+          Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        tmp = null;
+        LOG.debug("Cached '{}' findings of report '{}'", count, report);
+      } catch (IOException e) {
+        fail(e);
+      }
+    }
+
+    private void fail(IOException e) {
+      LOG.warn("Cannot cache the findings of report '{}': {}", lookup.report, e.getMessage());
+      close();
+    }
+
+    /**
+     * Discards the entry if it was not committed
+     */
+    @Override
+    public void close() {
+      if (data != null) {
+        try {
+          data.close();
+        } catch (IOException e) {
+          LOG.debug("Cannot close '{}': {}", tmp, e.getMessage());
+        }
+        data = null;
+      }
+      if (tmp != null && !tmp.delete()) {
+        LOG.debug("Cannot delete '{}'", tmp);
+      }
+      tmp = null;
+    }
+  }
+
+  /**
+   * Report with its cached findings, if any
+   */
+  static final class Lookup {
+
+    private final File report;
+    private final String path;
+    private final long size;
+    private final long modified;
+    @Nullable
+    private String contentHash;
+    @Nullable
+    private List<String[]> findings;
+
+    Lookup(File report) {
+      this.report = report;
+      this.path = report.getAbsolutePath();
+      this.size = report.length();
+      this.modified = report.lastModified();
+    }
+
+    boolean isHit() {
+      return findings != null;
+    }
+
+    /**
+     * @return cached findings: rule repository, file, line, rule id and message
+     */
+    @CheckForNull
+    List<String[]> getFindings() {
+      return findings;
+    }
+  }
+}
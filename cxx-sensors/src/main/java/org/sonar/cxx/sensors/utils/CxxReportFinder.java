@@ -0,0 +1,342 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Finds the report files matching absolute Ant-style include patterns. Only
+ * the directory below the fixed prefix of a pattern is walked, down to the
+ * depth the pattern can match, and the listed files are matched against the
+ * compiled pattern.
+ *
+ * The listings are shared by all sensors and modules of the analysis. A
+ * cached listing is reused as long as none of its directories was modified;
+ * listings of directories modified just before the walk are not cached since
+ * coarse file time resolutions could hide a later change.
+ */
+public final class CxxReportFinder {
+
+  private static final Logger LOG = Loggers.get(CxxReportFinder.class);
+
+  /**
+   * directories modified within this time before a walk make the listing racy
+   */
+  private static final long RACY_MILLIS = 2000;
+  private static final int MAX_LISTINGS = 64;
+
+  private static final Map<String, SoftReference<Listing>> LISTINGS =
+    new LinkedHashMap<String, SoftReference<Listing>>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, SoftReference<Listing>> eldest) {
+        return size() > MAX_LISTINGS;
+      }
+    };
+
+  private CxxReportFinder() {
+  }
+
+  /**
+   * @param includes absolute Ant-style patterns ('*', '?' and '**')
+   * @return absolute paths of the matching files without duplicates, in the
+   * order of the patterns
+   */
+  public static List<String> find(List<String> includes) {
+    Set<String> found = new LinkedHashSet<>();
+    Map<String, String[]> listed = new HashMap<>();
+    for (String include : includes) {
+      IncludePattern pattern = IncludePattern.of(include);
+      if (pattern.isFixed()) {
+        if (new File(include).isFile()) {
+          found.add(include);
+        }
+        continue;
+      }
+      for (String file : list(pattern.root, pattern.maxDepth, listed)) {
+        if (pattern.matches(file)) {
+          found.add(new File(pattern.root, file).getPath());
+        }
+      }
+    }
+    return new ArrayList<>(found);
+  }
+
+  static void clearCache() {
+    synchronized (LISTINGS) {
+      LISTINGS.clear();
+    }
+  }
+
+  static int cachedListings() {
+    synchronized (LISTINGS) {
+      return LISTINGS.size();
+    }
+  }
+
+  private static String[] list(String root, int maxDepth, Map<String, String[]> listed) {
+    String key = root + File.pathSeparator + maxDepth;
+    String[] files = listed.get(key);
+    if (files != null) {
+      return files;
+    }
+    Path dir = Paths.get(root);
+    if (!Files.isDirectory(dir)) {
+      files = new String[0];
+    } else {
+      Listing listing = cached(key);
+      if (listing == null) {
+        listing = walk(dir, maxDepth);
+        if (!listing.isRacy()) {
+          synchronized (LISTINGS) {
+            LISTINGS.put(key, new SoftReference<>(listing));
+          }
+        }
+      } else {
+        LOG.debug("Reusing the listing of '{}'", root);
+      }
+      files = listing.files;
+    }
+    listed.put(key, files);
+    return files;
+  }
+
+  @CheckForNull
+  private static Listing cached(String key) {
+    synchronized (LISTINGS) {
+      SoftReference<Listing> reference = LISTINGS.get(key);
+      Listing listing = reference != null ? reference.get() : null;
+      if (listing != null && listing.isUnchanged()) {
+        return listing;
+      }
+      LISTINGS.remove(key);
+      return null;
+    }
+  }
+
+  private static Listing walk(final Path root, int maxDepth) {
+    final long taken = System.currentTimeMillis();
+    final List<String> files = new ArrayList<>();
+    final List<String> dirs = new ArrayList<>();
+    final List<Long> modified = new ArrayList<>();
+    try {
+      Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), maxDepth, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+          dirs.add(dir.toString());
+          modified.add(attrs.lastModifiedTime().toMillis());
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+          if (!attrs.isDirectory()) {
+            files.add(root.relativize(file).toString().replace(File.separatorChar, '/'));
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+          LOG.debug("Cannot list '{}': {}", file, e.getMessage());
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException e) {
+      LOG.warn("Cannot list the reports below '{}': {}", root, e.getMessage());
+    }
+    Collections.sort(files);
+    LOG.debug("Listed '{}' files below '{}' in {} ms", files.size(), root, System.currentTimeMillis() - taken);
+    long[] times = new long[modified.size()];
+    for (int i = 0; i < times.length; i++) {
+      times[i] = modified.get(i);
+    }
+    return new Listing(files.toArray(new String[files.size()]), dirs.toArray(new String[dirs.size()]), times, taken);
+  }
+
+  /**
+   * Files below a directory, relative to the directory with '/' separators,
+   * together with the modification times of the walked directories
+   */
+  private static final class Listing {
+
+    private final String[] files;
+    private final String[] dirs;
+    private final long[] modified;
+    private final long taken;
+
+    Listing(String[] files, String[] dirs, long[] modified, long taken) {
+      this.files = files;
+      this.dirs = dirs;
+      this.modified = modified;
+      this.taken = taken;
+    }
+
+    boolean isRacy() {
+      for (long time : modified) {
+        if (time >= taken - RACY_MILLIS) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * files are only added or removed if the modification time of their
+     * directory changes
+     */
+    boolean isUnchanged() {
+      try {
+        for (int i = 0; i < dirs.length; i++) {
+          if (Files.getLastModifiedTime(Paths.get(dirs[i])).toMillis() != modified[i]) {
+            return false;
+          }
+        }
+        return true;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Absolute include pattern, split into the fixed directory prefix and the
+   * pattern matching the paths relative to it
+   */
+  static final class IncludePattern {
+
+    private final String root;
+    @Nullable
+    private final Pattern pattern;
+    private final int maxDepth;
+
+    private IncludePattern(String root, @Nullable Pattern pattern, int maxDepth) {
+      this.root = root;
+      this.pattern = pattern;
+      this.maxDepth = maxDepth;
+    }
+
+    static IncludePattern of(String include) {
+      String path = include;
+      if (path.endsWith("/") || path.endsWith("\\")) {
+        // Ant: a trailing separator matches everything below the directory
+        path += "**";
+      }
+      int wildcard = indexOfWildcard(path);
+      if (wildcard < 0) {
+        return new IncludePattern(path, null, 0);
+      }
+      int separator = Math.max(path.lastIndexOf('/', wildcard), path.lastIndexOf('\\', wildcard));
+      String root = separator < 0 ? "." : path.substring(0, separator + 1);
+      String[] segments = path.substring(separator + 1).split("[/\\\\]+");
+
+      StringBuilder regex = new StringBuilder();
+      int depth = 0;
+      for (int i = 0; i < segments.length; i++) {
+        boolean last = i == segments.length - 1;
+        if ("**".equals(segments[i])) {
+          depth = Integer.MAX_VALUE;
+          regex.append(last ? ".*" : "(?:[^/]*/)*");
+          continue;
+        }
+        if (depth < Integer.MAX_VALUE) {
+          depth++;
+        }
+        appendSegment(regex, segments[i]);
+        if (!last) {
+          regex.append('/');
+        }
+      }
+      return new IncludePattern(root, Pattern.compile(regex.toString()), depth);
+    }
+
+    boolean isFixed() {
+      return pattern == null;
+    }
+
+    String getRoot() {
+      return root;
+    }
+
+    int getMaxDepth() {
+      return maxDepth;
+    }
+
+    /**
+     * @param path path relative to the root with '/' separators
+     */
+    boolean matches(String path) {
+      return pattern != null && pattern.matcher(path).matches();
+    }
+
+    private static int indexOfWildcard(String path) {
+      for (int i = 0; i < path.length(); i++) {
+        char c = path.charAt(i);
+        if (c == '*' || c == '?') {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private static void appendSegment(StringBuilder regex, String segment) {
+      int literal = 0;
+      for (int i = 0; i < segment.length(); i++) {
+        char c = segment.charAt(i);
+        if (c == '*' || c == '?') {
+          if (i > literal) {
+            regex.append(Pattern.quote(segment.substring(literal, i)));
+          }
+          regex.append(c == '*' ? "[^/]*" : "[^/]");
+          literal = i + 1;
+        }
+      }
+      if (literal < segment.length()) {
+        regex.append(Pattern.quote(segment.substring(literal)));
+      }
+    }
+  }
+}
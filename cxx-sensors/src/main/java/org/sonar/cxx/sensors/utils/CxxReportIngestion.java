@@ -0,0 +1,187 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.sonar.api.batch.BatchSide;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxLanguage;
+
+/**
+ * Parses the reports of all report sensors of a module on a thread pool,
+ * concurrently with the scan of the source files. The findings are buffered
+ * per report; the sensors only save them when they are executed.
+ *
+ * The parsing starts with the first sensor executed, usually the squid sensor.
+ * Sensors which are not registered here parse their reports when they are
+ * executed, as before. The report sensors of all languages are injected, only
+ * the ones of the given language are registered.
+ */
+@BatchSide
+public class CxxReportIngestion {
+
+  private static final Logger LOG = Loggers.get(CxxReportIngestion.class);
+  private static final int MAX_THREADS = 4;
+
+  private final List<CxxReportSensor> sensors = new ArrayList<>();
+  private final Map<CxxReportSensor, Future<List<BufferedReport>>> results = new IdentityHashMap<>();
+  private boolean started;
+
+  public CxxReportIngestion(CxxLanguage language, CxxReportSensor[] reportSensors) {
+    for (CxxReportSensor sensor : reportSensors) {
+      if (sensor.isParsedInBackground() && Objects.equals(sensor.language.getKey(), language.getKey())) {
+        sensors.add(sensor);
+        sensor.setReportIngestion(this);
+      }
+    }
+  }
+
+  /**
+   * Starts parsing the reports of all registered sensors, does nothing if the
+   * parsing was already started.
+   *
+   * @param context context of the module, only used to read the settings and
+   * the file system while parsing
+   */
+  public synchronized void start(SensorContext context) {
+    if (started || sensors.isEmpty()) {
+      started = true;
+      return;
+    }
+    started = true;
+
+    // the calling thread keeps scanning the source files
+    int threads = Math.max(1, Math.min(Math.min(sensors.size(), MAX_THREADS),
+      Runtime.getRuntime().availableProcessors() - 1));
+    LOG.info("Parsing the reports of {} sensors in the background, threads = {}", sensors.size(), threads);
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory());
+    for (CxxReportSensor sensor : sensors) {
+      results.put(sensor, executor.submit(() -> sensor.collectReports(context)));
+    }
+    // queued sensors are still parsed, the threads terminate afterwards
+    executor.shutdown();
+  }
+
+  /**
+   * Waits until the reports of the sensor are parsed.
+   *
+   * @return the parsed reports in the order of the report paths or null if the
+   * sensor has to parse its reports itself
+   * @throws Exception failure while searching the reports of the sensor
+   */
+  @CheckForNull
+  List<BufferedReport> take(CxxReportSensor sensor, SensorContext context) throws Exception {
+    start(context);
+    Future<List<BufferedReport>> result;
+    synchronized (this) {
+      result = results.remove(sensor);
+    }
+    if (result == null) {
+      return null;
+    }
+    try {
+      return result.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw new IllegalStateException(cause.getMessage(), cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Parsing of the reports was interrupted", e);
+    }
+  }
+
+  /**
+   * Findings of one report, in the order they were reported by the parser.
+   * Duplicates within the report are dropped when they are added.
+   */
+  static final class BufferedReport {
+
+    private final File report;
+    private final List<String[]> findings = new ArrayList<>();
+    private final IssueFingerprintSet uniqueFindings = new IssueFingerprintSet();
+    private Exception failure;
+
+    BufferedReport(File report) {
+      this.report = report;
+    }
+
+    File getReport() {
+      return report;
+    }
+
+    void add(String ruleRepoKey, @Nullable String file, @Nullable String line, String ruleId, String msg) {
+      if (uniqueFindings.add(file, line, ruleId, msg)) {
+        findings.add(new String[]{ruleRepoKey, file, line, ruleId, msg});
+      }
+    }
+
+    List<String[]> getFindings() {
+      return findings;
+    }
+
+    void fail(Exception e) {
+      failure = e;
+    }
+
+    /**
+     * Saves the findings and rethrows the exception which stopped the parser.
+     */
+    void replay(CxxReportSensor sensor, SensorContext context) throws Exception {
+      for (String[] finding : findings) {
+        sensor.saveUniqueViolation(context, finding[0], finding[1], finding[2], finding[3], finding[4]);
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  private static final class DaemonThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "cxx-report-ingestion-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -26,14 +26,15 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import javax.annotation.Nullable;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.tools.ant.DirectoryScanner;
 import org.sonar.api.batch.sensor.Sensor;
 import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.measures.Metric;
 import org.sonar.api.rule.RuleKey;
@@ -43,6 +44,8 @@ import org.sonar.api.config.Settings;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.CxxLanguage;
+import org.sonar.cxx.CxxProfiler;
+import org.sonar.cxx.CxxReportFiles;
 
 /**
  * This class is used as base for all sensors which import reports. It hosts
@@ -50,10 +53,21 @@ import org.sonar.cxx.CxxLanguage;
  */
 public abstract class CxxReportSensor implements Sensor {
   private static final Logger LOG = Loggers.get(CxxReportSensor.class);
+  private static final int FILE_WINDOW_LIMIT = 4096;
   private final Set<String> notFoundFiles = new HashSet<>();
-  private final Set<String> uniqueIssues = new HashSet<>();
+  private final IssueFingerprintSet uniqueIssues = new IssueFingerprintSet();
+  private final IssueFingerprintSet fileWindow = new IssueFingerprintSet();
+  private String fileWindowName;
   private final Map<InputFile, Integer> violationsPerFileCount = new HashMap<>();
   private int violationsPerModuleCount;
+  private CxxInputFileResolver inputFileResolver;
+  private FileSystem resolverFileSystem;
+  private CxxReportIngestion reportIngestion;
+  private CxxReportIngestion.BufferedReport recordedReport;
+  private CxxReportCache reportCache;
+  private CxxReportCache.Entry cacheEntry;
+  private boolean reportComplete;
+  private final Map<File, CxxReportCache.Lookup> cacheLookups = new HashMap<>();
   protected final Settings settings;
   protected final CxxLanguage language;
   
@@ -77,17 +91,27 @@ public abstract class CxxReportSensor implements Sensor {
    */
   @Override
   public void execute(SensorContext context) {
+    CxxProfiler.configure(language);
     try {
-      LOG.info("Searching reports by relative path with basedir '{}' and search prop '{}'", 
-                       context.fileSystem().baseDir(), getReportPathKey());
-      List<File> reports = getReports(context.settings(), context.fileSystem().baseDir(), getReportPathKey());
+      List<CxxReportIngestion.BufferedReport> bufferedReports = null;
+      if (reportIngestion != null) {
+        bufferedReports = reportIngestion.take(this, context);
+      }
       violationsPerFileCount.clear();
       violationsPerModuleCount = 0;
-      
-      for (File report : reports) {
-        int prevViolationsCount = violationsPerModuleCount;
-        LOG.info("Processing report '{}'", report);
-        executeReport(context, report, prevViolationsCount);
+
+      if (bufferedReports != null) {
+        for (CxxReportIngestion.BufferedReport bufferedReport : bufferedReports) {
+          int prevViolationsCount = violationsPerModuleCount;
+          LOG.info("Processing report '{}'", bufferedReport.getReport());
+          executeReport(context, bufferedReport.getReport(), prevViolationsCount, bufferedReport);
+        }
+      } else {
+        for (File report : searchReports(context)) {
+          int prevViolationsCount = violationsPerModuleCount;
+          LOG.info("Processing report '{}'", report);
+          executeReport(context, report, prevViolationsCount, null);
+        }
       }
 
       LOG.info("{} processed = {}", CxxMetrics.getKey(this.getSensorKey(), language), violationsPerModuleCount);
@@ -120,15 +144,163 @@ public abstract class CxxReportSensor implements Sensor {
     }
   }
 
+  private List<File> searchReports(SensorContext context) throws Exception {
+    prepareReports(context);
+    LOG.info("Searching reports by relative path with basedir '{}' and search prop '{}'", 
+                     context.fileSystem().baseDir(), getReportPathKey());
+    List<File> reports = getReports(context.settings(), context.fileSystem().baseDir(), getReportPathKey());
+    preloadReports(context, lookupCachedReports(context, reports));
+    return reports;
+  }
+
+  /**
+   * @return the reports which are not replayed from the report cache
+   */
+  private List<File> lookupCachedReports(SensorContext context, List<File> reports) {
+    cacheLookups.clear();
+    reportCache = isParsedInBackground() ? CxxReportCache.of(this, context, language) : null;
+    if (reportCache == null) {
+      return reports;
+    }
+    List<File> uncachedReports = new ArrayList<>();
+    for (File report : reports) {
+      CxxReportCache.Lookup lookup = reportCache.lookup(report);
+      cacheLookups.put(report, lookup);
+      if (!lookup.isHit()) {
+        uncachedReports.add(report);
+      }
+    }
+    return uncachedReports;
+  }
+
+  /**
+   * Replays the findings of a cached report, parses and caches the others.
+   */
+  private void parseReport(SensorContext context, File report) throws Exception {
+    try (CxxProfiler.Timer timer = CxxProfiler.start("report " + getSensorKey())) {
+      parseOrReplayReport(context, report);
+    }
+  }
+
+  private void parseOrReplayReport(SensorContext context, File report) throws Exception {
+    CxxReportCache.Lookup lookup = cacheLookups.remove(report);
+    if (lookup == null) {
+      processReport(context, report);
+      return;
+    }
+    List<String[]> cachedFindings = lookup.getFindings();
+    if (cachedFindings != null) {
+      LOG.info("Replaying the findings of report '{}' from the cache", report);
+      for (String[] finding : cachedFindings) {
+        saveUniqueViolation(context, finding[0], finding[1], finding[2], finding[3], finding[4]);
+      }
+      return;
+    }
+
+    // the findings are written to the cache entry while they are saved or buffered
+    try (CxxReportCache.Entry entry = reportCache.newEntry(lookup)) {
+      cacheEntry = entry;
+      reportComplete = true;
+      processReport(context, report);
+      if (reportComplete) {
+        entry.commit();
+      } else {
+        LOG.debug("Report '{}' was not parsed completely, not cached", report);
+      }
+    } finally {
+      cacheEntry = null;
+    }
+  }
+
+  /**
+   * Sensors which catch an error while parsing a report and continue call this
+   * method, the findings of an incompletely parsed report are not cached.
+   */
+  protected void markReportIncomplete() {
+    reportComplete = false;
+  }
+
+  /**
+   * Parses the reports on a thread of the report ingestion, the findings are
+   * buffered instead of saved.
+   */
+  List<CxxReportIngestion.BufferedReport> collectReports(SensorContext context) throws Exception {
+    List<CxxReportIngestion.BufferedReport> bufferedReports = new ArrayList<>();
+    for (File report : searchReports(context)) {
+      CxxReportIngestion.BufferedReport bufferedReport = new CxxReportIngestion.BufferedReport(report);
+      bufferedReports.add(bufferedReport);
+      recordedReport = bufferedReport;
+      try {
+        parseReport(context, report);
+      } catch (Exception e) {
+        bufferedReport.fail(e);
+        if (!(e instanceof EmptyReportException)) {
+          // like a sensor parsing its reports itself, the remaining reports are skipped
+          break;
+        }
+      } finally {
+        recordedReport = null;
+      }
+    }
+    return bufferedReports;
+  }
+
+  void setReportIngestion(CxxReportIngestion reportIngestion) {
+    this.reportIngestion = reportIngestion;
+  }
+
+  /**
+   * Sensors which override {@link #execute(SensorContext)} and do not save
+   * their findings with {@link #saveUniqueViolation} return false.
+   *
+   * @return true if the reports can be parsed by the {@link CxxReportIngestion}
+   */
+  protected boolean isParsedInBackground() {
+    return true;
+  }
+
+  /**
+   * Called before the reports are searched, possibly on a background thread.
+   * Sensors which create their reports override this method.
+   *
+   * @param context
+   * @throws Exception
+   */
+  protected void prepareReports(SensorContext context) throws Exception {
+    // nothing to prepare by default
+  }
+
+  /**
+   * Called with all found reports before the first one is processed, possibly
+   * on a background thread. Sensors which can parse several reports at once
+   * override this method, the findings are still saved in
+   * {@link #processReport(SensorContext, File)}.
+   *
+   * @param context
+   * @param reports the reports in the order they are processed
+   * @throws Exception
+   */
+  protected void preloadReports(SensorContext context, List<File> reports) throws Exception {
+    // reports are parsed one by one by default
+  }
+
   /**
    * @param context
    * @param report
    * @param prevViolationsCount
+   * @param bufferedReport findings of the report if it was already parsed
    * @throws Exception
    */
-  private void executeReport(SensorContext context, File report, int prevViolationsCount) throws Exception {
+  private void executeReport(SensorContext context, File report, int prevViolationsCount,
+                             @Nullable CxxReportIngestion.BufferedReport bufferedReport) throws Exception {
+    fileWindow.clear();
+    fileWindowName = null;
     try {
-      processReport(context, report);
+      if (bufferedReport != null) {
+        bufferedReport.replay(this, context);
+      } else {
+        parseReport(context, report);
+      }
       if (LOG.isDebugEnabled()) {
         LOG.debug("{} processed = {}", CxxMetrics.getKey(this.getSensorKey(), language), 
                                      violationsPerModuleCount - prevViolationsCount);
@@ -173,7 +345,10 @@ public abstract class CxxReportSensor implements Sensor {
   }
 
   /**
-   * getReports
+   * getReports: every report path also matches the gzip, xz and zstd
+   * compressed variants of the report; a compressed report is skipped if
+   * its uncompressed version was found too. The directory listings are
+   * shared with the other sensors and modules, see {@link CxxReportFinder}.
    * @param language
    * @param moduleBaseDir
    * @param genericReportKeyData
@@ -195,16 +370,17 @@ public abstract class CxxReportSensor implements Sensor {
       LOG.info("Undefined report path value for key '{}'", genericReportKeyData);
     } else {
 
-      List<String> includes = normalizeReportPaths(moduleBaseDir, reportPaths);
-
-      // Includes array cannot contain null elements
-      DirectoryScanner directoryScanner = new DirectoryScanner();
-      directoryScanner.setIncludes(includes.toArray(new String[includes.size()]));
-      directoryScanner.scan();
+      List<String> includes = addCompressedReportPaths(normalizeReportPaths(moduleBaseDir, reportPaths));
 
-      String [] includeFiles = directoryScanner.getIncludedFiles();
-      LOG.info("Scanner found '{}' report files", includeFiles.length);
+      List<String> includeFiles = CxxReportFinder.find(includes);
+      LOG.info("Scanner found '{}' report files", includeFiles.size());
+      Set<String> foundFiles = new HashSet<>(includeFiles);
       for (String found : includeFiles) {        
+        if (CxxReportFiles.isCompressed(new File(found))
+          && foundFiles.contains(CxxReportFiles.stripCompressionExtension(found))) {
+          LOG.debug("Skipping compressed report '{}', the uncompressed report is used", found);
+          continue;
+        }
         reports.add(new File(found));
       }
 
@@ -243,6 +419,16 @@ public abstract class CxxReportSensor implements Sensor {
     return includes;
   }
 
+  private static List<String> addCompressedReportPaths(List<String> includes) {
+    List<String> paths = new ArrayList<>(includes);
+    for (String include : includes) {
+      if (!CxxReportFiles.isCompressed(new File(include))) {
+        paths.addAll(Arrays.asList(CxxReportFiles.compressedNames(include)));
+      }
+    }
+    return paths;
+  }
+
   /**
    * Saves code violation only if unique. Compares file, line, ruleId and msg.
      * @param sensorContext
@@ -254,12 +440,38 @@ public abstract class CxxReportSensor implements Sensor {
    */
   public void saveUniqueViolation(SensorContext sensorContext, String ruleRepoKey,
                                   @Nullable String file, @Nullable String line, String ruleId, String msg) {
-    // StringBuilder is slower
-    if (uniqueIssues.add(file + line + ruleId + msg)) { 
+    if (cacheEntry != null) {
+      cacheEntry.add(ruleRepoKey, file, line, ruleId, msg);
+    }
+    if (recordedReport != null) {
+      recordedReport.add(ruleRepoKey, file, line, ruleId, msg);
+      return;
+    }
+    IssueFingerprintSet window = null;
+    if (isReportSortedByFile()) {
+      // repetitions within a file are found in the small window, the
+      // fingerprints of all files are kept to find issues of other reports
+      if (!Objects.equals(file, fileWindowName) || fileWindow.size() >= FILE_WINDOW_LIMIT) {
+        fileWindow.clear();
+        fileWindowName = file;
+      }
+      window = fileWindow;
+    }
+    if (uniqueIssues.add(file, line, ruleId, msg, window)) {
       saveViolation(sensorContext, ruleRepoKey, file, line, ruleId, msg);
     }
   }
 
+  /**
+   * Sensors whose reports list all issues of a file together return true,
+   * repeated issues of the current file are then found in a bounded window.
+   *
+   * @return true if the issues of a report are grouped by file
+   */
+  protected boolean isReportSortedByFile() {
+    return false;
+  }
+
   /**
    * Saves a code violation which is detected in the given file/line and has
    * given ruleId and message. Saves it to the given project and context.
@@ -271,11 +483,8 @@ public abstract class CxxReportSensor implements Sensor {
                             @Nullable String filename, @Nullable String line, String ruleId, String msg) {
     // handles file="" situation -- file level
     if ((filename != null) && (!filename.isEmpty())) {
-      String root = sensorContext.fileSystem().baseDir().getAbsolutePath();
-      String normalPath = CxxUtils.normalizePathFull(filename, root);
-      if (normalPath != null && !notFoundFiles.contains(normalPath)) {
-        InputFile inputFile = sensorContext.fileSystem().inputFile(sensorContext.fileSystem()
-                                                        .predicates().hasAbsolutePath(normalPath));
+      if (!notFoundFiles.contains(filename)) {
+        InputFile inputFile = getInputFileResolver(sensorContext).resolve(filename);
         if (inputFile != null) {
           try {
             int lines = inputFile.lines();
@@ -299,8 +508,8 @@ public abstract class CxxReportSensor implements Sensor {
             CxxUtils.validateRecovery(ex, this.language);
           }
         } else {
-          LOG.warn("Cannot find the file '{}', skipping violations", normalPath);
-          notFoundFiles.add(normalPath);
+          LOG.warn("Cannot find the file '{}', skipping violations", filename);
+          notFoundFiles.add(filename);
         }
       }
     } else {
@@ -323,6 +532,19 @@ public abstract class CxxReportSensor implements Sensor {
     }
   }
 
+  /**
+   * @return resolver of report paths to input files, shared with the other
+   * sensors of the module
+   */
+  protected CxxInputFileResolver getInputFileResolver(SensorContext sensorContext) {
+    FileSystem fs = sensorContext.fileSystem();
+    if (inputFileResolver == null || resolverFileSystem != fs) {
+      inputFileResolver = CxxInputFileResolver.of(fs);
+      resolverFileSystem = fs;
+    }
+    return inputFileResolver;
+  }
+
   private int getLineAsInt(@Nullable String line, int maxLine) {
     int lineNr = 0;
     if (line != null) {
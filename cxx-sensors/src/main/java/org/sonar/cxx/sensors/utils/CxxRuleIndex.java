@@ -0,0 +1,501 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.sonar.api.rule.RuleStatus;
+import org.sonar.api.rule.Severity;
+import org.sonar.api.rules.RuleType;
+import org.sonar.api.server.debt.DebtRemediationFunction;
+import org.sonar.api.server.rule.RuleParamType;
+import org.sonar.api.server.rule.RulesDefinition.NewRepository;
+import org.sonar.api.server.rule.RulesDefinition.NewRule;
+
+/**
+ * Binary index of the rules of a rule XML file. The bundled rule files are
+ * compiled at build time (see {@link #main(String[])}), so the XML is only
+ * parsed for the rule files of user extensions. The XML format and the rule
+ * attributes are those of
+ * {@link org.sonar.api.server.rule.RulesDefinitionXmlLoader}.
+ *
+ * The index holds a table of all distinct strings followed by the rules,
+ * whose attributes refer to the table.
+ */
+public final class CxxRuleIndex {
+
+  private static final int MAGIC = 0x43585249;
+  private static final int VERSION = 1;
+  private static final String INDEX_SUFFIX = ".idx";
+  private static final int NONE = -1;
+
+  private static final Map<String, CachedRules> EXTENSIONS = new HashMap<>();
+
+  private CxxRuleIndex() {
+  }
+
+  /**
+   * Compiles rule XML files to binary indexes in the same directory
+   *
+   * @param args directory followed by the names of the rule XML files
+   */
+  public static void main(String[] args) throws IOException, XMLStreamException {
+    File dir = new File(args[0]);
+    for (int i = 1; i < args.length; i++) {
+      File xml = new File(dir, args[i]);
+      List<Rule> rules;
+      try (InputStream input = new FileInputStream(xml)) {
+        rules = parse(new InputStreamReader(input, StandardCharsets.UTF_8));
+      }
+      try (OutputStream output = new BufferedOutputStream(new FileOutputStream(new File(dir, indexName(args[i]))))) {
+        write(rules, output);
+      }
+    }
+  }
+
+  /**
+   * @param xmlName name of a rule XML file
+   * @return name of the index of the file
+   */
+  public static String indexName(String xmlName) {
+    int extension = xmlName.lastIndexOf('.');
+    return (extension > 0 ? xmlName.substring(0, extension) : xmlName) + INDEX_SUFFIX;
+  }
+
+  /**
+   * @param owner class whose class loader provides the index
+   * @param xmlName resource name of the rule XML file
+   * @return rules of the precompiled index or null if there is no index
+   */
+  @CheckForNull
+  public static List<Rule> loadBundled(Class<?> owner, String xmlName) throws IOException {
+    InputStream input = owner.getResourceAsStream(indexName(xmlName));
+    if (input == null) {
+      return null;
+    }
+    try (InputStream index = new BufferedInputStream(input)) {
+      return read(index);
+    }
+  }
+
+  /**
+   * @param xml rule XML file of a user extension
+   * @return rules of the file, parsed again only if the file changed
+   */
+  public static List<Rule> loadExtension(File xml) throws IOException, XMLStreamException {
+    String path = xml.getAbsolutePath();
+    long modified = xml.lastModified();
+    long length = xml.length();
+    synchronized (EXTENSIONS) {
+      CachedRules cached = EXTENSIONS.get(path);
+      if (cached != null && cached.modified == modified && cached.length == length) {
+        return cached.rules;
+      }
+    }
+    List<Rule> rules;
+    try (InputStream input = new FileInputStream(xml)) {
+      rules = parse(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+    synchronized (EXTENSIONS) {
+      EXTENSIONS.put(path, new CachedRules(rules, modified, length));
+    }
+    return rules;
+  }
+
+  /**
+   * Creates the rules in the repository
+   */
+  public static void define(NewRepository repository, List<Rule> rules) {
+    for (Rule rule : rules) {
+      try {
+        rule.define(repository);
+      } catch (RuntimeException e) {
+        throw new IllegalStateException(String.format("Fail to load the rule with key [%s:%s]", repository.key(),
+          rule.key), e);
+      }
+    }
+  }
+
+  /**
+   * @param reader rule XML
+   * @return rules of the XML
+   */
+  public static List<Rule> parse(Reader reader) throws XMLStreamException {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_VALIDATING, Boolean.FALSE);
+    XMLStreamReader xml = factory.createXMLStreamReader(reader);
+    try {
+      List<Rule> rules = new ArrayList<>();
+      xml.nextTag();
+      while (nextChild(xml)) {
+        if ("rule".equals(xml.getLocalName())) {
+          rules.add(parseRule(xml));
+        } else {
+          skipElement(xml);
+        }
+      }
+      return rules;
+    } finally {
+      xml.close();
+    }
+  }
+
+  private static Rule parseRule(XMLStreamReader xml) throws XMLStreamException {
+    Rule rule = new Rule();
+    // backward compatibility with the very old format
+    String keyAttribute = xml.getAttributeValue(null, "key");
+    if (isNotBlank(keyAttribute)) {
+      rule.key = keyAttribute.trim();
+    }
+    String priorityAttribute = xml.getAttributeValue(null, "priority");
+    if (isNotBlank(priorityAttribute)) {
+      rule.severity = priorityAttribute.trim();
+    }
+    while (nextChild(xml)) {
+      String name = xml.getLocalName();
+      if ("param".equalsIgnoreCase(name)) {
+        rule.params.add(parseParam(xml));
+        continue;
+      }
+      String value = text(xml);
+      if ("name".equalsIgnoreCase(name)) {
+        rule.name = value;
+      } else if ("type".equalsIgnoreCase(name)) {
+        rule.type = value;
+      } else if ("description".equalsIgnoreCase(name)) {
+        rule.description = value;
+      } else if ("descriptionFormat".equalsIgnoreCase(name)) {
+        rule.descriptionFormat = value;
+      } else if ("key".equalsIgnoreCase(name)) {
+        rule.key = value;
+      } else if ("configKey".equalsIgnoreCase(name) || "internalKey".equalsIgnoreCase(name)) {
+        rule.internalKey = value;
+      } else if ("priority".equalsIgnoreCase(name) || "severity".equalsIgnoreCase(name)) {
+        rule.severity = value;
+      } else if ("cardinality".equalsIgnoreCase(name)) {
+        rule.template = "MULTIPLE".equals(value);
+      } else if ("gapDescription".equalsIgnoreCase(name) || "effortToFixDescription".equalsIgnoreCase(name)) {
+        rule.gapDescription = value;
+      } else if ("remediationFunction".equalsIgnoreCase(name) || "debtRemediationFunction".equalsIgnoreCase(name)) {
+        rule.remediationFunction = value;
+      } else if ("remediationFunctionBaseEffort".equalsIgnoreCase(name)
+        || "debtRemediationFunctionOffset".equalsIgnoreCase(name)) {
+        rule.remediationBaseEffort = value;
+      } else if ("remediationFunctionGapMultiplier".equalsIgnoreCase(name)
+        || "debtRemediationFunctionCoefficient".equalsIgnoreCase(name)) {
+        rule.remediationGapMultiplier = value;
+      } else if ("status".equalsIgnoreCase(name)) {
+        rule.status = value;
+      } else if ("tag".equalsIgnoreCase(name)) {
+        rule.tags.add(value);
+      }
+    }
+    return rule;
+  }
+
+  private static Param parseParam(XMLStreamReader xml) throws XMLStreamException {
+    Param param = new Param();
+    // backward compatibility with the deprecated format
+    String keyAttribute = xml.getAttributeValue(null, "key");
+    if (isNotBlank(keyAttribute)) {
+      param.key = keyAttribute.trim();
+    }
+    String typeAttribute = xml.getAttributeValue(null, "type");
+    if (isNotBlank(typeAttribute)) {
+      param.type = typeAttribute;
+    }
+    while (nextChild(xml)) {
+      String name = xml.getLocalName();
+      String value = text(xml);
+      if ("key".equalsIgnoreCase(name)) {
+        param.key = value;
+      } else if ("description".equalsIgnoreCase(name)) {
+        param.description = value;
+      } else if ("type".equalsIgnoreCase(name)) {
+        param.type = value;
+      } else if ("defaultValue".equalsIgnoreCase(name)) {
+        param.defaultValue = value;
+      }
+    }
+    return param;
+  }
+
+  /**
+   * Moves to the next child element of the current element
+   *
+   * @return false if the end of the current element was reached
+   */
+  private static boolean nextChild(XMLStreamReader xml) throws XMLStreamException {
+    while (xml.hasNext()) {
+      int event = xml.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        return true;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return trimmed text of the current element and its descendants
+   */
+  private static String text(XMLStreamReader xml) throws XMLStreamException {
+    StringBuilder text = new StringBuilder();
+    int depth = 1;
+    while (depth > 0) {
+      int event = xml.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+        || event == XMLStreamConstants.SPACE) {
+        text.append(xml.getText());
+      }
+    }
+    return text.toString().trim();
+  }
+
+  private static void skipElement(XMLStreamReader xml) throws XMLStreamException {
+    text(xml);
+  }
+
+  private static boolean isNotBlank(@Nullable String value) {
+    return value != null && !value.trim().isEmpty();
+  }
+
+  static void write(List<Rule> rules, OutputStream output) throws IOException {
+    Map<String, Integer> strings = new HashMap<>();
+    List<String> table = new ArrayList<>();
+    for (Rule rule : rules) {
+      for (String value : rule.strings()) {
+        if (value != null && !strings.containsKey(value)) {
+          strings.put(value, table.size());
+          table.add(value);
+        }
+      }
+    }
+
+    DataOutputStream data = new DataOutputStream(output);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(table.size());
+    for (String value : table) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      data.writeInt(bytes.length);
+      data.write(bytes);
+    }
+    data.writeInt(rules.size());
+    for (Rule rule : rules) {
+      data.writeBoolean(rule.template);
+      List<String> values = rule.strings();
+      data.writeInt(rule.tags.size());
+      data.writeInt(rule.params.size());
+      for (String value : values) {
+        data.writeInt(value != null ? strings.get(value) : NONE);
+      }
+    }
+    data.flush();
+  }
+
+  static List<Rule> read(InputStream input) throws IOException {
+    DataInputStream data = new DataInputStream(input);
+    if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+      throw new IOException("Not a rule index of version " + VERSION);
+    }
+    String[] table = new String[data.readInt()];
+    for (int i = 0; i < table.length; i++) {
+      byte[] bytes = new byte[data.readInt()];
+      data.readFully(bytes);
+      table[i] = new String(bytes, StandardCharsets.UTF_8);
+    }
+    int count = data.readInt();
+    List<Rule> rules = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Rule rule = new Rule();
+      rule.template = data.readBoolean();
+      int tags = data.readInt();
+      int params = data.readInt();
+      rule.key = string(data, table);
+      rule.name = string(data, table);
+      rule.description = string(data, table);
+      rule.descriptionFormat = string(data, table);
+      rule.internalKey = string(data, table);
+      rule.severity = string(data, table);
+      rule.type = string(data, table);
+      rule.status = string(data, table);
+      rule.gapDescription = string(data, table);
+      rule.remediationFunction = string(data, table);
+      rule.remediationGapMultiplier = string(data, table);
+      rule.remediationBaseEffort = string(data, table);
+      for (int j = 0; j < tags; j++) {
+        rule.tags.add(string(data, table));
+      }
+      for (int j = 0; j < params; j++) {
+        Param param = new Param();
+        param.key = string(data, table);
+        param.description = string(data, table);
+        param.type = string(data, table);
+        param.defaultValue = string(data, table);
+        rule.params.add(param);
+      }
+      rules.add(rule);
+    }
+    return rules;
+  }
+
+  @CheckForNull
+  private static String string(DataInputStream data, String[] table) throws IOException {
+    int index = data.readInt();
+    return index == NONE ? null : table[index];
+  }
+
+  /**
+   * Rule as declared in a rule XML file
+   */
+  public static final class Rule {
+
+    private String key;
+    private String name;
+    private String description;
+    private String descriptionFormat = "HTML";
+    private String internalKey;
+    private String severity = Severity.defaultSeverity();
+    private String type;
+    private String status;
+    private boolean template;
+    private String gapDescription;
+    private String remediationFunction;
+    private String remediationGapMultiplier;
+    private String remediationBaseEffort;
+    private final List<String> tags = new ArrayList<>();
+    private final List<Param> params = new ArrayList<>();
+
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * @return attributes in the order of the index
+     */
+    private List<String> strings() {
+      List<String> values = new ArrayList<>();
+      values.add(key);
+      values.add(name);
+      values.add(description);
+      values.add(descriptionFormat);
+      values.add(internalKey);
+      values.add(severity);
+      values.add(type);
+      values.add(status);
+      values.add(gapDescription);
+      values.add(remediationFunction);
+      values.add(remediationGapMultiplier);
+      values.add(remediationBaseEffort);
+      values.addAll(tags);
+      for (Param param : params) {
+        values.add(param.key);
+        values.add(param.description);
+        values.add(param.type);
+        values.add(param.defaultValue);
+      }
+      return values;
+    }
+
+    private void define(NewRepository repository) {
+      NewRule rule = repository.createRule(key)
+        .setSeverity(severity)
+        .setName(name)
+        .setInternalKey(internalKey)
+        .setTags(tags.toArray(new String[tags.size()]))
+        .setTemplate(template)
+        .setStatus(status != null ? RuleStatus.valueOf(status) : RuleStatus.defaultStatus())
+        .setGapDescription(gapDescription);
+      if (type != null) {
+        rule.setType(RuleType.valueOf(type));
+      }
+      if (isNotBlank(description)) {
+        if ("HTML".equals(descriptionFormat)) {
+          rule.setHtmlDescription(description);
+        } else if ("MARKDOWN".equals(descriptionFormat)) {
+          rule.setMarkdownDescription(description);
+        } else {
+          throw new IllegalArgumentException("Value of descriptionFormat is not supported: " + descriptionFormat);
+        }
+      }
+      if (isNotBlank(remediationFunction)) {
+        rule.setDebtRemediationFunction(rule.debtRemediationFunctions().create(
+          DebtRemediationFunction.Type.valueOf(remediationFunction), remediationGapMultiplier, remediationBaseEffort));
+      }
+      for (Param param : params) {
+        rule.createParam(param.key)
+          .setDefaultValue(param.defaultValue)
+          .setType(param.type != null ? RuleParamType.parse(param.type) : RuleParamType.STRING)
+          .setDescription(param.description);
+      }
+    }
+  }
+
+  private static final class Param {
+    private String key;
+    private String description;
+    private String type;
+    private String defaultValue;
+  }
+
+  private static final class CachedRules {
+    private final List<Rule> rules;
+    private final long modified;
+    private final long length;
+
+    CachedRules(List<Rule> rules, long modified, long length) {
+      this.rules = rules;
+      this.modified = modified;
+      this.length = length;
+    }
+  }
+}
@@ -20,14 +20,19 @@
 package org.sonar.cxx.sensors.utils;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.CxxLanguage;
+import org.sonar.cxx.CxxReportFiles;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
@@ -86,14 +91,52 @@ public final class CxxUtils {
    * transformFile
    * 
    * @param stylesheetFile  
-   * @param input
+   * @param input  report, gzip, xz and zstd compressed reports are decompressed
    * @param output
    */
-  public static void transformFile(Source stylesheetFile, File input, File output) throws TransformerException {
+  public static void transformFile(Source stylesheetFile, File input, File output)
+    throws TransformerException, IOException {
     TransformerFactory factory = TransformerFactory.newInstance();
     Transformer transformer = factory.newTransformer(stylesheetFile);
     transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-    transformer.transform(new StreamSource(input), new StreamResult(output));
+    transformFile(transformer, input, output);
+  }
+
+  /**
+   * Compiles a stylesheet once for many transformations, the returned
+   * Templates are thread-safe.
+   * 
+   * @param stylesheetFile
+   * @return compiled stylesheet
+   */
+  public static Templates newTemplates(Source stylesheetFile) throws TransformerConfigurationException {
+    return TransformerFactory.newInstance().newTemplates(stylesheetFile);
+  }
+
+  /**
+   * newTransformer: a transformer can be reused by one thread at a time
+   * 
+   * @param templates compiled stylesheet
+   * @return transformer configured like the one of {@link #transformFile(Source, File, File)}
+   */
+  public static Transformer newTransformer(Templates templates) throws TransformerConfigurationException {
+    Transformer transformer = templates.newTransformer();
+    transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+    return transformer;
+  }
+
+  /**
+   * transformFile
+   * 
+   * @param transformer  
+   * @param input  report, gzip, xz and zstd compressed reports are decompressed
+   * @param output
+   */
+  public static void transformFile(Transformer transformer, File input, File output)
+    throws TransformerException, IOException {
+    try (InputStream stream = CxxReportFiles.open(input)) {
+      transformer.transform(new StreamSource(stream, input.toURI().toString()), new StreamResult(output));
+    }
   }
 
 
@@ -0,0 +1,171 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * Set of issue fingerprints used to save every issue only once. Instead of
+ * the issue text a 128-bit hash of file, line, rule and message is stored in
+ * an open-addressing table of primitive longs (16 bytes per issue). Parsers
+ * may add fingerprints of other fields, see {@link Fingerprint}.
+ */
+public final class IssueFingerprintSet {
+
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  // two longs per slot, {0, 0} marks an empty slot
+  private long[] table = new long[2 * INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * @return true if the issue was not yet in the set
+   */
+  boolean add(@Nullable String file, @Nullable String line, @Nullable String ruleId, @Nullable String msg) {
+    return add(file, line, ruleId, msg, null);
+  }
+
+  /**
+   * The fingerprint is added to the small window first and is only looked up
+   * in this set if it is new to the window.
+   *
+   * @param window fingerprints of the current file or null
+   * @return true if the issue was neither in the window nor in the set
+   */
+  boolean add(@Nullable String file, @Nullable String line, @Nullable String ruleId, @Nullable String msg,
+              @Nullable IssueFingerprintSet window) {
+    return add(new Fingerprint().append(file).append(line).append(ruleId).append(msg), window);
+  }
+
+  /**
+   * @return true if the fingerprint was not yet in the set
+   */
+  public boolean add(Fingerprint fingerprint) {
+    return add(fingerprint, null);
+  }
+
+  private boolean add(Fingerprint fingerprint, @Nullable IssueFingerprintSet window) {
+    long h1 = fmix64(fingerprint.h1 ^ fingerprint.length);
+    long h2 = fmix64(fingerprint.h2 + h1);
+    h1 += h2;
+    if (window != null && !window.add(h1, h2)) {
+      return false;
+    }
+    return add(h1, h2);
+  }
+
+  boolean add(long hash1, long hash2) {
+    long h1 = hash1;
+    long h2 = hash2;
+    if (h1 == 0 && h2 == 0) {
+      h2 = 1;
+    }
+    if (2 * (size + 1) > table.length / 2) {
+      resize(table.length * 2);
+    }
+    if (insert(table, h1, h2)) {
+      size++;
+      return true;
+    }
+    return false;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Drops all fingerprints and releases the memory of a grown table
+   */
+  void clear() {
+    if (table.length == 2 * INITIAL_CAPACITY) {
+      Arrays.fill(table, 0L);
+    } else {
+      table = new long[2 * INITIAL_CAPACITY];
+    }
+    size = 0;
+  }
+
+  private static boolean insert(long[] slots, long h1, long h2) {
+    int mask = slots.length / 2 - 1;
+    int slot = (int) (h1 ^ (h1 >>> 32)) & mask;
+    while (true) {
+      int index = 2 * slot;
+      if (slots[index] == 0 && slots[index + 1] == 0) {
+        slots[index] = h1;
+        slots[index + 1] = h2;
+        return true;
+      }
+      if (slots[index] == h1 && slots[index + 1] == h2) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private void resize(int length) {
+    long[] resized = new long[length];
+    for (int i = 0; i < table.length; i += 2) {
+      if (table[i] != 0 || table[i + 1] != 0) {
+        insert(resized, table[i], table[i + 1]);
+      }
+    }
+    table = resized;
+  }
+
+  /**
+   * 128-bit hash of a sequence of fields, null and "" hash the same
+   */
+  public static final class Fingerprint {
+    private long h1 = FNV_OFFSET;
+    private long h2;
+    private int length;
+
+    public Fingerprint append(@Nullable String field) {
+      String value = field != null ? field : "";
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        h1 = (h1 ^ c) * FNV_PRIME;
+        h2 = Long.rotateLeft(h2 ^ (c * C1), 31) * C2 + length;
+      }
+      // field separator, so that "ab" + "c" and "a" + "bc" differ
+      length += value.length() + 1;
+      h1 = (h1 ^ length) * FNV_PRIME;
+      h2 = Long.rotateLeft(h2 ^ (length * C1), 31) * C2;
+      return this;
+    }
+  }
+
+  private static long fmix64(long value) {
+    long k = value;
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+}
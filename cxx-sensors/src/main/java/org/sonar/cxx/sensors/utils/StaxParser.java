@@ -21,7 +21,7 @@ package org.sonar.cxx.sensors.utils;
 
 import com.ctc.wstx.stax.WstxInputFactory;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -34,6 +34,7 @@ import org.codehaus.staxmate.SMInputFactory;
 import org.codehaus.staxmate.in.SMHierarchicCursor;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.cxx.CxxReportFiles;
 
 /**
  * helper class StaxParser
@@ -41,7 +42,8 @@ import org.sonar.api.utils.log.Loggers;
 public class StaxParser {
 
   private static final Logger LOG = Loggers.get(StaxParser.class);
-  private SMInputFactory inf;
+  // configured once, creating readers from a configured factory is thread-safe
+  private static final SMInputFactory INPUT_FACTORY = createInputFactory();
   private XmlStreamHandler streamHandler;
   private boolean isoControlCharsAwareParser;
 
@@ -64,6 +66,10 @@ public class StaxParser {
    */
   public StaxParser(XmlStreamHandler streamHandler, boolean isoControlCharsAwareParser) {
     this.streamHandler = streamHandler;
+    this.isoControlCharsAwareParser = isoControlCharsAwareParser;
+  }
+
+  private static SMInputFactory createInputFactory() {
     XMLInputFactory xmlFactory = XMLInputFactory.newInstance();
     if (xmlFactory instanceof WstxInputFactory) {
       WstxInputFactory wstxInputfactory = (WstxInputFactory) xmlFactory;
@@ -73,16 +79,15 @@ public class StaxParser {
     xmlFactory.setProperty(XMLInputFactory.IS_VALIDATING, Boolean.FALSE);
     xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
     xmlFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
-    this.isoControlCharsAwareParser = isoControlCharsAwareParser;
-    inf = new SMInputFactory(xmlFactory);
+    return new SMInputFactory(xmlFactory);
   }
 
   /**
    * parse XML stream:
-   * @param xmlFile - java.io.File  = input file
+   * @param xmlFile - java.io.File  = input file, gzip, xz or zstd compressed files are decompressed
    */
   public void parse(File xmlFile) throws XMLStreamException {
-    try (FileInputStream input = new FileInputStream(xmlFile)) {
+    try (InputStream input = CxxReportFiles.open(xmlFile)) {
       parse(input);
     } catch (IOException e) {
       LOG.debug("Cannot access file", e);
@@ -95,7 +100,7 @@ public class StaxParser {
    */
   public void parse(InputStream xmlInput) throws XMLStreamException {
     InputStream input = isoControlCharsAwareParser ? new ISOControlCharAwareInputStream(xmlInput) : xmlInput;
-    parse(inf.rootElementCursor(input));
+    parse(INPUT_FACTORY.rootElementCursor(input));
   }
 
   /**
@@ -106,7 +111,7 @@ public class StaxParser {
     if (isoControlCharsAwareParser) {
       throw new XMLStreamException("Method call not supported when isoControlCharsAwareParser=true");
     }
-    parse(inf.rootElementCursor(xmlReader));
+    parse(INPUT_FACTORY.rootElementCursor(xmlReader));
   }
 
   /**
@@ -159,71 +164,46 @@ public class StaxParser {
     void stream(SMHierarchicCursor rootCursor) throws XMLStreamException;
   }
 
-  private static class ISOControlCharAwareInputStream extends InputStream {
-
-    private InputStream inputToCheck;
-
-    public ISOControlCharAwareInputStream(InputStream inputToCheck) {
-      super();
-      this.inputToCheck = inputToCheck;
-    }
+  /**
+   * Replaces the ISO control chars (except line feeds) of every byte read by
+   * simple spaces
+   */
+  private static class ISOControlCharAwareInputStream extends FilterInputStream {
 
-    @Override
-    public int read() throws IOException {
-      return inputToCheck.read();
-    }
+    private static final byte[] SANITIZED = new byte[256];
 
-    @Override
-    public int available() throws IOException {
-      return inputToCheck.available();
-    }
-
-    @Override
-    public void close() throws IOException {
-      inputToCheck.close();
+    static {
+      for (int i = 0; i < SANITIZED.length; i++) {
+        char streamChar = (char) (byte) i;
+        SANITIZED[i] = Character.isISOControl(streamChar) && streamChar != '\n' ? (byte) ' ' : (byte) i;
+      }
     }
 
-    @Override
-    public synchronized void mark(int readlimit) {
-      inputToCheck.mark(readlimit);
+    public ISOControlCharAwareInputStream(InputStream inputToCheck) {
+      super(inputToCheck);
     }
 
     @Override
-    public boolean markSupported() {
-      return inputToCheck.markSupported();
+    public int read() throws IOException {
+      int readen = in.read();
+      return readen < 0 ? readen : (SANITIZED[readen] & 0xFF);
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
-      int readen = inputToCheck.read(b, off, len);
-      checkBufferForISOControlChars(b, off, len);
+      int readen = in.read(b, off, len);
+      checkBufferForISOControlChars(b, off, readen);
       return readen;
     }
 
     @Override
     public int read(byte[] b) throws IOException {
-      int readen = inputToCheck.read(b);
-      checkBufferForISOControlChars(b, 0, readen);
-      return readen;
-    }
-
-    @Override
-    public synchronized void reset() throws IOException {
-      inputToCheck.reset();
-    }
-
-    @Override
-    public long skip(long n) throws IOException {
-      return inputToCheck.skip(n);
+      return read(b, 0, b.length);
     }
 
     private static void checkBufferForISOControlChars(byte[] buffer, int off, int len) {
-      for (int i = off; i < len; i++) {
-        char streamChar = (char) buffer[i];
-        if (Character.isISOControl(streamChar) && streamChar != '\n') {
-          // replace control chars by a simple space
-          buffer[i] = ' ';
-        }
+      for (int i = off; i < off + len; i++) {
+        buffer[i] = SANITIZED[buffer[i] & 0xFF];
       }
     }
   }
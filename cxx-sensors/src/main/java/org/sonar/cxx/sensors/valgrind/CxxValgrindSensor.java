@@ -20,7 +20,7 @@
 package org.sonar.cxx.sensors.valgrind;
 
 import java.io.File;
-import java.util.Set;
+import java.util.Collection;
 
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
@@ -55,7 +55,8 @@ public class CxxValgrindSensor extends CxxReportSensor {
     throws javax.xml.stream.XMLStreamException {
     LOG.debug("Parsing 'Valgrind' format");
     ValgrindReportParser parser = new ValgrindReportParser();
-    saveErrors(context, parser.processReport(report));
+    ValgrindOwnership ownership = new ValgrindOwnership(context.fileSystem().baseDir().getPath());
+    parser.processReport(report, error -> saveError(context, error, ownership));
   }
 
   @Override
@@ -63,15 +64,20 @@ public class CxxValgrindSensor extends CxxReportSensor {
     descriptor.onlyOnLanguage(this.language.getKey()).name(language.getName() + " ValgrindSensor");
   }
   
-  void saveErrors(SensorContext context, Set<ValgrindError> valgrindErrors) {
+  void saveErrors(SensorContext context, Collection<ValgrindError> valgrindErrors) {
+    ValgrindOwnership ownership = new ValgrindOwnership(context.fileSystem().baseDir().getPath());
     for (ValgrindError error : valgrindErrors) {
-      ValgrindFrame frame = error.getLastOwnFrame(context.fileSystem().baseDir().getPath());
-      if (frame != null) {
-        saveUniqueViolation(context, CxxValgrindRuleRepository.KEY,
-          frame.getPath(), frame.getLine(), error.getKind(), error.toString());
-      } else {
-        LOG.warn("Cannot find a project file to assign the valgrind error '{}' to", error);
-      }
+      saveError(context, error, ownership);
+    }
+  }
+
+  private void saveError(SensorContext context, ValgrindError error, ValgrindOwnership ownership) {
+    ValgrindFrame frame = error.getLastOwnFrame(ownership);
+    if (frame != null) {
+      saveUniqueViolation(context, CxxValgrindRuleRepository.KEY,
+        frame.getPath(), frame.getLine(), error.getKind(), error.toString());
+    } else {
+      LOG.warn("Cannot find a project file to assign the valgrind error '{}' to", error);
     }
   }
   
@@ -79,4 +79,11 @@ class ValgrindError {
   public ValgrindFrame getLastOwnFrame(String basedir) {
     return stack.getLastOwnFrame(basedir);
   }
+
+  /**
+   * @see ValgrindStack#getLastOwnFrame(ValgrindOwnership)
+   */
+  public ValgrindFrame getLastOwnFrame(ValgrindOwnership ownership) {
+    return stack.getLastOwnFrame(ownership);
+  }
 }
@@ -56,7 +56,7 @@ class ValgrindFrame {
       this.fn = fn;
     }
     if (dir != null) {
-      this.dir = FilenameUtils.normalize(dir);
+      this.dir = normalizeDir(dir);
     }
     if (file != null) {
       this.file = file;
@@ -66,6 +66,15 @@ class ValgrindFrame {
     }
   }
 
+  /**
+   * @return the normalized directory or the directory itself if it cannot be
+   * normalized, e.g. because of too many '..'
+   */
+  static String normalizeDir(String dir) {
+    String normalized = FilenameUtils.normalize(dir);
+    return normalized != null ? normalized : dir;
+  }
+
   @Override
   public String toString() {
     StringBuilder builder = new StringBuilder().append(ip).append(": ").append(fn);
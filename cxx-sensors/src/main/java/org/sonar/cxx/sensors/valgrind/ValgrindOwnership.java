@@ -0,0 +1,49 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.valgrind;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Decides whether the directory of a stack frame belongs to the project. The
+ * decision is cached per directory, the frames of a report mostly point to
+ * the same few directories.
+ */
+class ValgrindOwnership {
+
+  private final String workdir;
+  private final Map<String, Boolean> ownDirs = new HashMap<>();
+
+  ValgrindOwnership(String basedir) {
+    this.workdir = FilenameUtils.normalize(basedir);
+  }
+
+  boolean isOwnDir(@Nullable String dir) {
+    if (dir == null || dir.isEmpty() || workdir == null) {
+      return false;
+    }
+    return ownDirs.computeIfAbsent(dir, d -> d.startsWith(workdir));
+  }
+}
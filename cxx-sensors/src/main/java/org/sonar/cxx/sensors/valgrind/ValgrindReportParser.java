@@ -20,20 +20,36 @@
 package org.sonar.cxx.sensors.valgrind;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.codehaus.staxmate.in.SMHierarchicCursor;
 import org.codehaus.staxmate.in.SMInputCursor;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.cxx.sensors.utils.EmptyReportException;
+import org.sonar.cxx.sensors.utils.IssueFingerprintSet;
 import org.sonar.cxx.sensors.utils.StaxParser;
 
 class ValgrindReportParser {
 
   private static final Logger LOG = Loggers.get(ValgrindReportParser.class);
 
+  private static final int IP = 0;
+  private static final int OBJ = 1;
+  private static final int FN = 2;
+  private static final int DIR = 3;
+  private static final int FILE = 4;
+  private static final int LINE = 5;
+
+  // valgrind reports repeat the same directories in almost every frame
+  private final Map<String, String> normalizedDirs = new HashMap<>();
+
   public ValgrindReportParser() {
     // do nothing - just for reference
   }
@@ -45,14 +61,38 @@ class ValgrindReportParser {
    */
   public Set<ValgrindError> processReport(File report)
     throws javax.xml.stream.XMLStreamException {
-    ValgrindReportStreamHandler streamHandler = new ValgrindReportStreamHandler();
+    Set<ValgrindError> valgrindErrors = new HashSet<>();
+    processReport(report, valgrindErrors::add);
+    return valgrindErrors;
+  }
+
+  /**
+   * Parses given valgrind report and passes every error to the consumer as
+   * soon as it is read. Errors with the same kind and stack as an earlier
+   * error are skipped, only a 128-bit hash of each error is kept.
+   *
+   * @param report
+   * @param errors receives the distinct errors in report order
+   */
+  public void processReport(File report, Consumer<ValgrindError> errors)
+    throws javax.xml.stream.XMLStreamException {
+    ValgrindReportStreamHandler streamHandler = new ValgrindReportStreamHandler(errors);
     new StaxParser(streamHandler).parse(report);
-    return streamHandler.valgrindErrors;
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Valgrind report '{}': {} errors, {} distinct", report, streamHandler.errorCount,
+        streamHandler.fingerprints.size());
+    }
   }
 
   private class ValgrindReportStreamHandler implements StaxParser.XmlStreamHandler {
 
-    private final Set<ValgrindError> valgrindErrors = new HashSet<>();
+    private final Consumer<ValgrindError> errors;
+    private final IssueFingerprintSet fingerprints = new IssueFingerprintSet();
+    private int errorCount;
+
+    ValgrindReportStreamHandler(Consumer<ValgrindError> errors) {
+      this.errors = errors;
+    }
 
     /**
      * {@inheritDoc}
@@ -68,18 +108,26 @@ class ValgrindReportParser {
       SMInputCursor errorCursor = rootCursor.childElementCursor("error");
 
       while (errorCursor.getNext() != null) {
-        valgrindErrors.add(parseErrorTag(errorCursor));
+        errorCount++;
+        ValgrindError error = parseErrorTag(errorCursor, fingerprints);
+        if (error != null) {
+          errors.accept(error);
+        }
       }
     }
   }
 
-  private ValgrindError parseErrorTag(SMInputCursor error)
+  /**
+   * @return the error or null if an error with the same kind and stack was
+   * already read
+   */
+  private ValgrindError parseErrorTag(SMInputCursor error, IssueFingerprintSet fingerprints)
     throws javax.xml.stream.XMLStreamException {
     SMInputCursor child = error.childElementCursor();
 
     String kind = null;
     String text = null;
-    ValgrindStack stack = null;
+    List<String[]> frames = null;
     while (child.getNext() != null) {
       String tagName = child.getLocalName();
       if ("kind".equalsIgnoreCase(tagName)) {
@@ -89,53 +137,68 @@ class ValgrindReportParser {
       } else if ("what".equalsIgnoreCase(tagName)) {
         text = child.getElemStringValue();
       } else if ("stack".equalsIgnoreCase(tagName)) {
-        stack = parseStackTag(child);
+        frames = parseStackTag(child);
       }
     }
 
-    if (text == null || kind == null || stack == null) {
+    if (text == null || kind == null || frames == null) {
       String msg = "Valgrind error is incomplete: we require all of 'kind', '*what.text' and 'stack'";
       child.throwStreamException(msg);
     }
 
+    if (!fingerprints.add(fingerprint(kind, frames))) {
+      return null;
+    }
+    ValgrindStack stack = new ValgrindStack();
+    for (String[] frame : frames) {
+      stack.addFrame(new ValgrindFrame(frame[IP], frame[OBJ], frame[FN], frame[DIR], frame[FILE], frame[LINE]));
+    }
     return new ValgrindError(kind, text, stack);
   }
 
-  private ValgrindStack parseStackTag(SMInputCursor child)
+  private List<String[]> parseStackTag(SMInputCursor child)
     throws javax.xml.stream.XMLStreamException {
-    ValgrindStack stack = new ValgrindStack();
+    List<String[]> frames = new ArrayList<>();
     SMInputCursor frameCursor = child.childElementCursor("frame");
     while (frameCursor.getNext() != null) {
 
       SMInputCursor frameChild = frameCursor.childElementCursor();
-
-      String ip = null;
-      String obj = null;
-      String fn = null;
-      String dir = null;
-      String file = null;
-      String line = null;
+      String[] frame = new String[LINE + 1];
 
       while (frameChild.getNext() != null) {
         String tagName = frameChild.getLocalName();
 
         if ("ip".equalsIgnoreCase(tagName)) {
-          ip = frameChild.getElemStringValue();
+          frame[IP] = frameChild.getElemStringValue();
         } else if ("obj".equalsIgnoreCase(tagName)) {
-          obj = frameChild.getElemStringValue();
+          frame[OBJ] = frameChild.getElemStringValue();
         } else if ("fn".equalsIgnoreCase(tagName)) {
-          fn = frameChild.getElemStringValue();
+          frame[FN] = frameChild.getElemStringValue();
         } else if ("dir".equalsIgnoreCase(tagName)) {
-          dir = frameChild.getElemStringValue();
+          frame[DIR] = normalizedDirs.computeIfAbsent(frameChild.getElemStringValue(), ValgrindFrame::normalizeDir);
         } else if ("file".equalsIgnoreCase(tagName)) {
-          file = frameChild.getElemStringValue();
+          frame[FILE] = frameChild.getElemStringValue();
         } else if ("line".equalsIgnoreCase(tagName)) {
-          line = frameChild.getElemStringValue();
+          frame[LINE] = frameChild.getElemStringValue();
         }
       }
-      stack.addFrame(new ValgrindFrame(ip, obj, fn, dir, file, line));
+      frames.add(frame);
     }
 
-    return stack;
+    return frames;
+  }
+
+  /**
+   * Fingerprint of the error kind and the frames, the instruction pointer is
+   * left out like in {@link ValgrindFrame#equals}.
+   */
+  static IssueFingerprintSet.Fingerprint fingerprint(String kind, List<String[]> frames) {
+    IssueFingerprintSet.Fingerprint fingerprint = new IssueFingerprintSet.Fingerprint().append(kind);
+    for (String[] frame : frames) {
+      for (int i = OBJ; i <= LINE; i++) {
+        fingerprint.append(frame[i]);
+      }
+    }
+    return fingerprint;
   }
 }
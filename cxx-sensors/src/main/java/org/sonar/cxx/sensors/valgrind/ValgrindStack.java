@@ -24,8 +24,6 @@ import java.util.List;
 
 import javax.annotation.Nullable;
 
-import org.apache.commons.io.FilenameUtils;
-
 import org.apache.commons.lang.builder.HashCodeBuilder;
 
 /**
@@ -83,17 +81,22 @@ class ValgrindStack {
    */
   @Nullable
   public ValgrindFrame getLastOwnFrame(String basedir) {
-    String workdir = FilenameUtils.normalize(basedir);
+    return getLastOwnFrame(new ValgrindOwnership(basedir));
+  }
+
+  /**
+   * @see #getLastOwnFrame(String)
+   * @param ownership decides which frames are in 'our' code
+   * @return ValgrindFrame frame or null
+   */
+  @Nullable
+  public ValgrindFrame getLastOwnFrame(ValgrindOwnership ownership) {
     for (ValgrindFrame frame : frames) {
-      if (isInside(frame.getDir(), workdir)) {
+      if (ownership.isOwnDir(frame.getDir())) {
         return frame;
       }
     }
     return null;
   }
-
-  private boolean isInside(String path, String folder) {
-    return (path == null || "".equals(path)) ? false : path.startsWith(folder);
-  }
   
 }
@@ -105,9 +105,20 @@ public class CxxVeraxxSensor extends CxxReportSensor {
       parser.parse(report);
     } catch (com.ctc.wstx.exc.WstxUnexpectedCharException e) {
       LOG.error("Ignore XML error from Veraxx '{}'", CxxUtils.getStackTrace(e));
+      markReportIncomplete();
     }
   }
   
+  /**
+   * {@inheritDoc}
+   *
+   * Vera++ writes one 'file' element with all its errors per file.
+   */
+  @Override
+  protected boolean isReportSortedByFile() {
+    return true;
+  }
+
   @Override
   protected String getSensorKey() {
     return KEY;
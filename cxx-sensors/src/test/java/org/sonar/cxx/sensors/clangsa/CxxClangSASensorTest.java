@@ -77,6 +77,21 @@ public class CxxClangSASensorTest {
     assertThat(context.allIssues()).hasSize(2);
   }
 
+  @Test
+  public void shouldReadFilesListedAfterDiagnostics() {
+    SensorContextTester context = SensorContextTester.create(fs.baseDir());
+
+    settings.setProperty(language.getPluginProperty(CxxClangSASensor.REPORT_PATH_KEY),
+      "clangsa-reports/clangsa-report.plist,clangsa-reports/clangsa-files-last.plist");
+    context.setSettings(settings);
+
+    context.fileSystem().add(new DefaultInputFile("myProjectKey", "src/lib/component1.cc").setLanguage("cpp").initMetadata(new String("asd\nasdas\nasda\n")));
+
+    CxxClangSASensor sensor = new CxxClangSASensor(language, settings);
+    sensor.execute(context);
+    assertThat(context.allIssues()).hasSize(3);
+  }
+
   @Test
   public void invalidReportReportsNoIssues() {
     SensorContextTester context = SensorContextTester.create(fs.baseDir());
@@ -0,0 +1,194 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.clangtidy;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+public class ClangTidyLineParserTest {
+
+  private static final Logger LOG = Loggers.get(ClangTidyLineParserTest.class);
+  // the expression used before, the parser must yield the same groups
+  private static final Pattern PATTERN = Pattern.compile(
+    "(.+|[a-zA-Z]:\\\\.+):([0-9]+):([0-9]+): ([^:]+): ([^]]+) \\[([^]]+)\\]");
+
+  private static final String[] LINES = {
+    "sources\\utils\\code_chunks.cpp:20:5: error: use of undeclared identifier 'gets' [clang-diagnostic-error]",
+    "E:\\Development\\cxx\\cpd.cc:76:20: warning: ISO C++11 does not allow conversion from string literal to 'char *' [clang-diagnostic-writable-strings]",
+    "/home/user/src/a.cpp:1:2: warning: message with a: colon and [brackets [misc-unused]",
+    "/home/user/src/a.cpp:1:2: warning: message [with] bracket [misc-unused]",
+    "/home/user/src/a.cpp:1:2: note: expanded from macro 'X'",
+    "/home/user/src/a:3:4.cpp:1:2: warning: colons in path [check]",
+    "a.cpp:1:2: warning: x:5:6: level: message [check]",
+    "a.cpp:1:2: warning: message []",
+    "a.cpp:1:2: warning: message [check [nested]",
+    "a.cpp:1:: warning: message [check]",
+    "a.cpp:x:2: warning: message [check]",
+    ":1:2: warning: message [check]",
+    "    gets(buffer); //rats violation [x]",
+    "    ^",
+    "",
+    "]",
+  };
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void shouldParseIssueLine() {
+    ClangTidyLineParser parser = new ClangTidyLineParser();
+    assertThat(parser.parse(LINES[1])).isTrue();
+    assertThat(parser.getPath()).isEqualTo("E:\\Development\\cxx\\cpd.cc");
+    assertThat(parser.getLineId()).isEqualTo("76");
+    assertThat(parser.getMessage()).isEqualTo("ISO C++11 does not allow conversion from string literal to 'char *'");
+    assertThat(parser.getCheck()).isEqualTo("clang-diagnostic-writable-strings");
+  }
+
+  @Test
+  public void shouldRejectNotesAndSnippets() {
+    ClangTidyLineParser parser = new ClangTidyLineParser();
+    assertThat(parser.parse(LINES[4])).isFalse();
+    assertThat(parser.parse(LINES[13])).isFalse();
+    assertThat(parser.parse(LINES[14])).isFalse();
+  }
+
+  @Test
+  public void shouldMatchLikeRegularExpression() {
+    ClangTidyLineParser parser = new ClangTidyLineParser();
+    for (String line : LINES) {
+      assertSameResult(parser, line);
+    }
+  }
+
+  @Test
+  public void shouldMatchSyntheticLogLikeRegularExpression() throws IOException {
+    File log = createSyntheticLog(20000);
+    ClangTidyLineParser parser = new ClangTidyLineParser();
+    try (BufferedReader reader = Files.newBufferedReader(log.toPath(), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        assertSameResult(parser, line);
+      }
+    }
+  }
+
+  /**
+   * Compares the parser with the regular expression on a large synthetic log,
+   * run with -Dcxx.benchmark=true, the size is set with -Dcxx.benchmark.lines.
+   */
+  @Test
+  public void benchmarkSyntheticLog() throws IOException {
+    Assume.assumeTrue(Boolean.getBoolean("cxx.benchmark"));
+    File log = createSyntheticLog(Integer.getInteger("cxx.benchmark.lines", 5000000));
+    LOG.info("Synthetic clang-tidy log of {} bytes", log.length());
+
+    ClangTidyLineParser parser = new ClangTidyLineParser();
+    long start = System.nanoTime();
+    int parsed = 0;
+    try (BufferedReader reader = Files.newBufferedReader(log.toPath(), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (parser.parse(line)) {
+          parsed++;
+        }
+      }
+    }
+    long parserTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    int matched = 0;
+    try (BufferedReader reader = Files.newBufferedReader(log.toPath(), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (PATTERN.matcher(line).matches()) {
+          matched++;
+        }
+      }
+    }
+    long regexTime = System.nanoTime() - start;
+
+    LOG.info("clang-tidy issues: parser {} in {} ms, regular expression {} in {} ms",
+      parsed, parserTime / 1000000, matched, regexTime / 1000000);
+    assertThat(parsed).isEqualTo(matched);
+  }
+
+  private static void assertSameResult(ClangTidyLineParser parser, String line) {
+    Matcher matcher = PATTERN.matcher(line);
+    boolean matches = matcher.matches();
+    assertThat(parser.parse(line)).as(line).isEqualTo(matches);
+    if (matches) {
+      assertThat(parser.getPath()).as(line).isEqualTo(matcher.group(1));
+      assertThat(parser.getLineId()).as(line).isEqualTo(matcher.group(2));
+      assertThat(parser.getMessage()).as(line).isEqualTo(matcher.group(5));
+      assertThat(parser.getCheck()).as(line).isEqualTo(matcher.group(6));
+    }
+  }
+
+  /**
+   * Issues followed by notes and long code snippets, like clang-tidy prints them.
+   */
+  private File createSyntheticLog(int lines) throws IOException {
+    File log = tmp.newFile("clang-tidy.txt");
+    StringBuilder snippet = new StringBuilder("    ");
+    for (int i = 0; i < 30; i++) {
+      snippet.append("call(arg").append(i).append(", \"a:b:c\", map[key]); ");
+    }
+    try (BufferedWriter writer = Files.newBufferedWriter(log.toPath(), StandardCharsets.UTF_8)) {
+      for (int i = 0; i < lines; i++) {
+        String path = "/home/user/project/src/module" + (i % 97) + "/file" + (i % 13) + ".cpp";
+        switch (i % 5) {
+          case 0:
+            writer.write(path + ":" + (i % 1000 + 1) + ":" + (i % 80 + 1)
+              + ": warning: use nullptr: value is 'NULL' [modernize-use-nullptr]");
+            break;
+          case 1:
+            writer.write(path + ":" + (i % 1000 + 1) + ":5: note: expanded from macro 'CHECK': x:1:2: y");
+            break;
+          case 2:
+            writer.write(snippet.toString());
+            break;
+          case 3:
+            writer.write("    ^~~~~~~~~~~~~~~~~~~~~~~");
+            break;
+          default:
+            writer.write(LINES[i % LINES.length]);
+            break;
+        }
+        writer.newLine();
+      }
+    }
+    return log;
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.compiler;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.cxx.sensors.compiler.CompilerParser.Warning;
+import org.sonar.cxx.sensors.utils.TestUtils;
+
+public class CxxCompilerParserTest {
+
+  private static final String VS2012_REGEX = "^(.*)\\((\\d+)\\):\\x20warning\\x20(C\\d+):(.*)$";
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private static List<Warning> parse(CxxCompilerParser parser, String report) throws IOException {
+    File log = TestUtils.loadResource("/org/sonar/cxx/sensors/reports-project/compiler-reports/" + report);
+    List<Warning> warnings = new ArrayList<>();
+    parser.processReport(mock(SensorContext.class), log, parser.defaultCharset(), parser.defaultRegexp(),
+      warnings::add);
+    return warnings;
+  }
+
+  @Test
+  public void lineFilterShouldNotChangeVcWarnings() throws IOException {
+    List<Warning> filtered = parse(new VcParser(true), "VC-report.vclog");
+    List<Warning> unfiltered = parse(new VcParser(false), "VC-report.vclog");
+
+    assertThat(filtered).hasSize(9);
+    assertThat(filtered).isEqualTo(unfiltered);
+  }
+
+  @Test
+  public void lineFilterShouldNotChangeGccWarnings() throws IOException {
+    List<Warning> filtered = parse(new CxxCompilerGccParser(), "build.gcclog");
+    List<Warning> unfiltered = parse(new CxxCompilerGccParser() {
+      @Override
+      protected String defaultLineFilter() {
+        return null;
+      }
+    }, "build.gcclog");
+
+    assertThat(filtered).hasSize(4);
+    assertThat(filtered).isEqualTo(unfiltered);
+  }
+
+  @Test
+  public void shouldReportEveryWarningOfALine() throws IOException {
+    File log = tmp.newFile("build.log");
+    Files.write(log.toPath(), ("a.cpp(1): warning C4101: x; b.cpp(2): warning C4189: y\n"
+      + "c.cpp(3): warning C4101: z\n").getBytes(StandardCharsets.UTF_8));
+    List<Warning> warnings = new ArrayList<>();
+    CxxCompilerParser parser = new CxxCompilerVcParser();
+
+    parser.processReport(mock(SensorContext.class), log, "UTF-8",
+      "([\\w.]+)\\((\\d+)\\):\\x20warning\\x20(C\\d+):\\x20(\\w+)", warnings::add);
+
+    assertThat(warnings).hasSize(3);
+    assertThat(warnings.get(0).filename).isEqualTo("a.cpp");
+    assertThat(warnings.get(1).filename).isEqualTo("b.cpp");
+    assertThat(warnings.get(1).id).isEqualTo("C4189");
+    assertThat(warnings.get(2).filename).isEqualTo("c.cpp");
+  }
+
+  /**
+   * The MSBuild log is written by VS2012, its format is used as default here
+   */
+  private static class VcParser extends CxxCompilerVcParser {
+    private final boolean lineFilter;
+
+    VcParser(boolean lineFilter) {
+      this.lineFilter = lineFilter;
+    }
+
+    @Override
+    public String defaultRegexp() {
+      return VS2012_REGEX;
+    }
+
+    @Override
+    protected String defaultLineFilter() {
+      return lineFilter ? super.defaultLineFilter() : null;
+    }
+  }
+}
@@ -26,9 +26,10 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.Assert;
 import org.mockito.invocation.InvocationOnMock;
@@ -56,14 +57,14 @@ public class MockCxxCompilerSensor extends CxxCompilerSensor {
           public List<CompilerParser.Warning> answer(InvocationOnMock invocation)
                   throws Throwable {
               Object[] args = invocation.getArguments();
-              if (args[4] instanceof List<?>) {
-                List<CompilerParser.Warning> list = (List<CompilerParser.Warning>) args[4];
-                list.addAll(warnings);
+              if (args[4] instanceof Consumer<?>) {
+                Consumer<CompilerParser.Warning> consumer = (Consumer<CompilerParser.Warning>) args[4];
+                warnings.forEach(consumer);
               }
               return null;
           }
-        }).when(compileParser).processReport(any(SensorContext.class), any(File.class), any(String.class),  any(String.class), any(List.class));
-      } catch (FileNotFoundException e) {
+        }).when(compileParser).processReport(any(SensorContext.class), any(File.class), any(String.class),  any(String.class), any(Consumer.class));
+      } catch (IOException e) {
         Assert.fail(e.getMessage());
       }
     
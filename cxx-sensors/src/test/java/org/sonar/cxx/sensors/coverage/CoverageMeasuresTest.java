@@ -0,0 +1,111 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.coverage;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class CoverageMeasuresTest {
+
+  @Test
+  public void hitsAreAddedPerLine() {
+    CoverageMeasures measures = CoverageMeasures.create();
+    measures.setHits(3, 2);
+    measures.setHits(3, 5);
+    measures.setHits(100, 0);
+
+    assertThat(measures.size()).isEqualTo(2);
+    assertThat(measures.getHits(3)).isEqualTo(7);
+    assertThat(measures.getHits(100)).isEqualTo(0);
+    assertThat(measures.getHits(4)).isEqualTo(0);
+    assertThat(measures.getCoveredLinesCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void hitsSaturateInsteadOfOverflow() {
+    CoverageMeasures measures = CoverageMeasures.create();
+    measures.setHits(1, Integer.MAX_VALUE);
+    measures.setHits(1, 10);
+
+    assertThat(measures.getHits(1)).isEqualTo(Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void conditionsCreateLineMeasure() {
+    CoverageMeasures measures = CoverageMeasures.create();
+    measures.setConditions(7, 4, 3);
+
+    assertThat(measures.size()).isEqualTo(1);
+    assertThat(measures.getHits(7)).isEqualTo(0);
+    assertThat(measures.getConditions(7)).isEqualTo(4);
+    assertThat(measures.getCoveredConditions(7)).isEqualTo(3);
+    assertThat(measures.getCoveredConditionsCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void mergeAddsHitsAndKeepsMaximumConditions() {
+    CoverageMeasures first = CoverageMeasures.create();
+    first.setHits(1, 1);
+    first.setConditions(2, 2, 1);
+    CoverageMeasures second = CoverageMeasures.create();
+    second.setHits(1, 2);
+    second.setConditions(2, 2, 2);
+    second.setHits(500, 1);
+
+    first.merge(second);
+
+    assertThat(first.size()).isEqualTo(3);
+    assertThat(first.getHits(1)).isEqualTo(3);
+    assertThat(first.getCoveredConditions(2)).isEqualTo(2);
+    assertThat(first.getHits(500)).isEqualTo(1);
+  }
+
+  @Test
+  public void forEachVisitsLinesInOrder() {
+    CoverageMeasures measures = CoverageMeasures.create();
+    measures.setHits(9, 1);
+    measures.setHits(2, 1);
+    final StringBuilder visited = new StringBuilder();
+    measures.forEach((int line, int hits, int conditions, int coveredConditions) -> visited.append(line).append(';'));
+
+    assertThat(visited.toString()).isEqualTo("2;9;");
+  }
+
+  @Test
+  public void hugeLineNumbersShouldNotGrowTheArrays() {
+    CoverageMeasures measures = CoverageMeasures.create();
+    measures.setHits(2, 1);
+    measures.setHits(10000000, 3);
+    measures.addConditions(10000000, 2, 1);
+    CoverageMeasures other = CoverageMeasures.create();
+    other.setHits(10000000, 1);
+    measures.merge(other);
+
+    assertThat(measures.size()).isEqualTo(2);
+    assertThat(measures.getHits(10000000)).isEqualTo(4);
+    assertThat(measures.getConditions(10000000)).isEqualTo(2);
+    assertThat(measures.getCoveredConditionsCount()).isEqualTo(1);
+    assertThat(measures.estimatedSize()).isLessThan(4L * CoverageMeasures.DENSE_LIMIT);
+    StringBuilder visited = new StringBuilder();
+    measures.forEach((int line, int hits, int conditions, int coveredConditions) -> visited.append(line).append(';'));
+    assertThat(visited.toString()).isEqualTo("2;10000000;");
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.coverage;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CxxCoverageCacheTest {
+
+  private static Map<String, CoverageMeasures> measures(int lines) {
+    CoverageMeasures fileMeasures = CoverageMeasures.create();
+    for (int line = 1; line <= lines; line++) {
+      fileMeasures.setHits(line, 1);
+    }
+    fileMeasures.trim();
+    Map<String, CoverageMeasures> result = new HashMap<>();
+    result.put("/src/file.cpp", fileMeasures);
+    return result;
+  }
+
+  @Test
+  public void cachedReportsAreReturned() {
+    CxxCoverageCache cache = new CxxCoverageCache();
+    cache.unitCoverageCache().put("/report.xml", measures(10));
+
+    assertThat(cache.unitCoverageCache().get("/report.xml")).hasSize(1);
+    assertThat(cache.unitCoverageCache().get("/other.xml")).isNull();
+    assertThat(cache.integrationCoverageCache().get("/report.xml")).isNull();
+    assertThat(cache.unitCoverageCache().size()).isGreaterThan(0);
+  }
+
+  @Test
+  public void leastRecentlyUsedReportsAreEvictedWhenLimitIsExceeded() {
+    long reportSize = 32L + 3L * (16L + 4L * 1001) + 2L * "/src/file.cpp".length();
+    CxxCoverageCache cache = new CxxCoverageCache(2 * reportSize);
+    CxxCoverageCache.ReportCache unit = cache.unitCoverageCache();
+    unit.put("/report1.xml", measures(1000));
+    unit.put("/report2.xml", measures(1000));
+    unit.get("/report1.xml");
+    unit.put("/report3.xml", measures(1000));
+
+    assertThat(unit.get("/report1.xml")).isNotNull();
+    assertThat(unit.get("/report2.xml")).isNull();
+    assertThat(unit.get("/report3.xml")).isNotNull();
+    assertThat(unit.size()).isEqualTo(2 * reportSize);
+  }
+}
@@ -22,6 +22,10 @@ package org.sonar.cxx.sensors.coverage;
 import org.sonar.cxx.sensors.coverage.CxxCoverageSensor;
 import org.sonar.cxx.sensors.coverage.CxxCoverageCache;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -29,7 +33,9 @@ import static org.fest.assertions.Assertions.assertThat;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -40,11 +46,19 @@ import org.sonar.api.batch.sensor.coverage.CoverageType;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.config.Settings;
 import org.sonar.api.utils.Version;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.cxx.CxxLanguage;
 import org.sonar.cxx.sensors.utils.TestUtils;
 
 public class CxxCoverageSensorTest {
 
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Rule
+  public LogTester logTester = new LogTester();
+
   private CxxCoverageSensor sensor;
   private DefaultFileSystem fs;
   private Map<InputFile, Set<Integer>> linesOfCodeByFile = new HashMap<>();
@@ -123,6 +137,86 @@ public class CxxCoverageSensorTest {
     assertThat(context.lineHits("ProjectKey:sources/application/main.cpp", CoverageType.UNIT, 8)).isEqualTo(8);
   }
 
+  @Test
+  public void shouldAddHitsOfAllReports() {
+    SensorContextTester context = SensorContextTester.create(fs.baseDir());
+
+    sensor = new CxxCoverageSensor(new CxxCoverageCache(), language, context);
+    settings.setProperty(sensor.getReportPathKey(), "coverage-reports/cobertura/coverage-result-cobertura.xml,"
+      + "coverage-reports/cobertura/specific-cases/coverage-result-cobertura-merge.xml");
+
+    context.setSettings(settings);
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/application/main.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n\n\n\n\n\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/utils.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/code_chunks.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+
+    sensor.execute(context, linesOfCodeByFile);
+
+    assertThat(context.lineHits("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 1)).isEqualTo(3);
+    assertThat(context.lineHits("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 2)).isEqualTo(1);
+    assertThat(context.lineHits("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 3)).isEqualTo(7);
+    assertThat(context.lineHits("ProjectKey:sources/utils/utils.cpp", CoverageType.UNIT, 2)).isEqualTo(5);
+    assertThat(context.lineHits("ProjectKey:sources/application/main.cpp", CoverageType.UNIT, 8)).isEqualTo(8);
+  }
+
+  @Test
+  public void shouldReportCoverageOfLcovTracefile() {
+    SensorContextTester context = SensorContextTester.create(fs.baseDir());
+
+    sensor = new CxxCoverageSensor(new CxxCoverageCache(), language, context);
+    settings.setProperty(sensor.getReportPathKey(), "coverage-reports/lcov/coverage-result.info");
+
+    context.setSettings(settings);
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/utils.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/code_chunks.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+
+    sensor.execute(context, linesOfCodeByFile);
+
+    assertThat(context.lineHits("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 1)).isEqualTo(3);
+    assertThat(context.lineHits("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 2)).isEqualTo(0);
+    assertThat(context.lineHits("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 3)).isEqualTo(4);
+    assertThat(context.conditions("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 3)).isEqualTo(3);
+    assertThat(context.coveredConditions("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 3)).isEqualTo(2);
+    assertThat(context.lineHits("ProjectKey:sources/utils/utils.cpp", CoverageType.UNIT, 2)).isEqualTo(5);
+  }
+
+  @Test
+  public void shouldReportCoverageOfCompressedLcovTracefile() {
+    SensorContextTester context = SensorContextTester.create(fs.baseDir());
+
+    sensor = new CxxCoverageSensor(new CxxCoverageCache(), language, context);
+    settings.setProperty(sensor.getReportPathKey(), "coverage-reports/lcov-gz/coverage-result.info");
+
+    context.setSettings(settings);
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/utils.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/code_chunks.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+
+    sensor.execute(context, linesOfCodeByFile);
+
+    assertThat(context.lineHits("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 1)).isEqualTo(3);
+    assertThat(context.conditions("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 3)).isEqualTo(3);
+    assertThat(context.lineHits("ProjectKey:sources/utils/utils.cpp", CoverageType.UNIT, 2)).isEqualTo(5);
+  }
+
+  @Test
+  public void shouldReportCoverageOfGcovFile() {
+    SensorContextTester context = SensorContextTester.create(fs.baseDir());
+
+    sensor = new CxxCoverageSensor(new CxxCoverageCache(), language, context);
+    settings.setProperty(sensor.getReportPathKey(), "coverage-reports/gcov/code_chunks.cpp.gcov");
+
+    context.setSettings(settings);
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/code_chunks.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+
+    sensor.execute(context, linesOfCodeByFile);
+
+    assertThat(context.lineHits("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 1)).isEqualTo(2);
+    assertThat(context.lineHits("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 2)).isEqualTo(0);
+    assertThat(context.lineHits("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 3)).isEqualTo(4);
+    assertThat(context.conditions("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 3)).isEqualTo(3);
+    assertThat(context.coveredConditions("ProjectKey:sources/utils/code_chunks.cpp", CoverageType.UNIT, 3)).isEqualTo(1);
+  }
+
   // @Test @todo
   public void shouldReportNoCoverageSaved() {
     SensorContextTester context = SensorContextTester.create(fs.baseDir());
@@ -214,5 +308,47 @@ public class CxxCoverageSensorTest {
     }
 
   }
-}
 
+  @Test
+  public void shouldSelectCoberturaParserForCoverageRoot() throws IOException {
+    File report = writeReport("<?xml version=\"1.0\"?>\n<coverage line-rate=\"1\"/>\n");
+    assertThat(CxxCoverageSensor.selectParser(report)).isInstanceOf(CoberturaParser.class);
+  }
+
+  @Test
+  public void shouldSelectBullseyeParserForBullseyeCoverageRoot() throws IOException {
+    File report = writeReport("<?xml version=\"1.0\"?>\n<BullseyeCoverage name=\"test.cov\"/>\n");
+    assertThat(CxxCoverageSensor.selectParser(report)).isInstanceOf(BullseyeParser.class);
+  }
+
+  @Test
+  public void shouldSelectVisualStudioParserForResultsRoot() throws IOException {
+    File report = writeReport("<?xml version=\"1.0\"?>\n<results>\n  <modules/>\n</results>\n");
+    assertThat(CxxCoverageSensor.selectParser(report)).isInstanceOf(VisualStudioParser.class);
+  }
+
+  @Test
+  public void shouldSkipReportWithUnknownRootWithWarning() {
+    SensorContextTester context = SensorContextTester.create(fs.baseDir());
+
+    settings.setProperty(language.getPluginProperty(CxxCoverageSensor.REPORT_PATH_KEY), "coverage-reports/cobertura/specific-cases/coverage-result-unknown-root.xml");
+    context.setSettings(settings);
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/application/main.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+
+    sensor = new CxxCoverageSensor(new CxxCoverageCache(), language, context);
+    sensor.execute(context, linesOfCodeByFile);
+
+    assertThat(context.lineHits("ProjectKey:sources/application/main.cpp", CoverageType.UNIT, 1)).isNull();
+    boolean warned = false;
+    for (String log : logTester.logs(LoggerLevel.WARN)) {
+      warned |= log.contains("coverage-result-unknown-root.xml") && log.contains("unknown-coverage");
+    }
+    assertThat(warned).isTrue();
+  }
+
+  private File writeReport(String content) throws IOException {
+    File report = tmp.newFile("coverage.xml");
+    Files.write(report.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    return report;
+  }
+}
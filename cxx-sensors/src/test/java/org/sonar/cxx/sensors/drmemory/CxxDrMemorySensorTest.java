@@ -22,18 +22,31 @@ package org.sonar.cxx.sensors.drmemory;
 import org.sonar.cxx.sensors.drmemory.CxxDrMemorySensor;
 import static org.fest.assertions.Assertions.assertThat;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import static org.mockito.Mockito.when;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.config.Settings;
 import org.sonar.cxx.CxxLanguage;
+import org.sonar.cxx.sensors.utils.CxxReportCache;
 import org.sonar.cxx.sensors.utils.TestUtils;
 
 public class CxxDrMemorySensorTest {
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   private DefaultFileSystem fs;
   private CxxLanguage language;
   private Settings settings;
@@ -58,4 +71,27 @@ public class CxxDrMemorySensorTest {
     sensor.execute(context);
     assertThat(context.allIssues()).hasSize(1);
   }
+
+  @Test
+  public void truncatedReportShouldNotBeCached() throws IOException {
+    byte[] text = Files.readAllBytes(new File(fs.baseDir(), "drmemory-reports/drmemory-result-SAMPLE-V1.txt").toPath());
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(text);
+    }
+    File report = folder.newFile("results.txt.gz");
+    Files.write(report.toPath(), Arrays.copyOf(compressed.toByteArray(), compressed.size() / 2));
+    File cacheDir = folder.newFolder("cache");
+
+    SensorContextTester context = SensorContextTester.create(fs.baseDir());
+    when(language.getPluginProperty(CxxReportCache.PATH_KEY)).thenReturn("sonar.cxx." + CxxReportCache.PATH_KEY);
+    settings.setProperty(language.getPluginProperty(CxxDrMemorySensor.REPORT_PATH_KEY), report.getAbsolutePath());
+    settings.setProperty(language.getPluginProperty(CxxReportCache.PATH_KEY), cacheDir.getAbsolutePath());
+    context.setSettings(settings);
+
+    context.fileSystem().add(new DefaultInputFile("myProjectKey", "sources/utils/code_chunks.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    CxxDrMemorySensor sensor = new CxxDrMemorySensor(language, settings);
+    sensor.execute(context);
+    assertThat(cacheDir.list()).isEmpty();
+  }
 }
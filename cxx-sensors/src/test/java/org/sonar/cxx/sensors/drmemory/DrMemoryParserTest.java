@@ -22,6 +22,7 @@ package org.sonar.cxx.sensors.drmemory;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Assert;
@@ -37,4 +38,18 @@ public class DrMemoryParserTest {
         List<DrMemoryError> drMemoryErrors = DrMemoryParser.parse(file, StandardCharsets.UTF_8.name());
         Assert.assertEquals(733, drMemoryErrors.size());
 	}
+
+	@Test
+	public void shouldReadErrorsWithLocations() throws IOException {
+		ClassLoader classLoader = getClass().getClassLoader();
+        File file = new File(classLoader.getResource("org/sonar/cxx/sensors/reports-project/drmemory-reports/results.txt").getFile());
+        List<DrMemoryError> drMemoryErrors = new ArrayList<>();
+        DrMemoryParser.parse(file, StandardCharsets.UTF_8.name(), drMemoryErrors::add);
+        Assert.assertEquals(733, drMemoryErrors.size());
+
+        DrMemoryError error = drMemoryErrors.get(0);
+        Assert.assertTrue(error.message.startsWith("Error #1: "));
+        Assert.assertFalse(error.stackTrace.isEmpty());
+        Assert.assertTrue(error.stackTrace.get(0).line > 0);
+	}
 }
@@ -25,7 +25,9 @@ import java.io.File;
 import org.junit.Assert;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.apache.commons.io.FileUtils;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
@@ -35,6 +37,9 @@ import org.sonar.cxx.sensors.utils.TestUtils;
 
 public class CxxOtherXsltTest {
 
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
   private FileSystem fs;
   private CxxLanguage language;
   private Settings settings;
@@ -96,4 +101,29 @@ public class CxxOtherXsltTest {
     Assert.assertTrue("The output file does not exist!", reportAfter.exists() && reportAfter.isFile());
     Assert.assertTrue("The input and output file is equal!", !FileUtils.contentEquals(reportBefore, reportAfter));
   }
+
+  @Test
+  public void transformReport_shouldTransformSeveralReportsWithOneStylesheet() throws java.io.IOException {
+    File reports = new File(fs.baseDir(), "externalrules-reports");
+    File baseDir = tmp.getRoot();
+    FileUtils.copyFile(new File(reports, "externalrules-xslt-stylesheet.xslt"), new File(baseDir, "stylesheet.xslt"));
+    for (int i = 1; i <= 3; i++) {
+      FileUtils.copyFile(new File(reports, "externalrules-xslt-input.xml"), new File(baseDir, "input" + i + ".xml"));
+    }
+
+    SensorContextTester context = SensorContextTester.create(baseDir);
+    settings.setProperty(language.getPluginProperty(CxxOtherSensor.OTHER_XSLT_KEY + "1" + CxxOtherSensor.STYLESHEET_KEY), "stylesheet.xslt");
+    settings.setProperty(language.getPluginProperty(CxxOtherSensor.OTHER_XSLT_KEY + "1" + CxxOtherSensor.INPUT_KEY), "input1.xml,input2.xml,input3.xml");
+    settings.setProperty(language.getPluginProperty(CxxOtherSensor.OTHER_XSLT_KEY + "1" + CxxOtherSensor.OUTPUT_KEY), "output1.xml,output2.xml,output3.xml");
+    context.setSettings(settings);
+
+    CxxOtherSensor sensor = new CxxOtherSensor(language, settings);
+    sensor.transformFiles(baseDir, context);
+
+    File expected = new File(baseDir, "output1.xml");
+    Assert.assertTrue("The output file does not exist!", expected.isFile());
+    for (int i = 2; i <= 3; i++) {
+      Assert.assertTrue("The outputs differ!", FileUtils.contentEquals(expected, new File(baseDir, "output" + i + ".xml")));
+    }
+  }
 }
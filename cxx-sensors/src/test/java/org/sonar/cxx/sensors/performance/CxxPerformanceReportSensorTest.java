@@ -0,0 +1,109 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.performance;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.cxx.CxxLanguage;
+import org.sonar.cxx.CxxProfiler;
+import org.sonar.cxx.sensors.utils.TestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class CxxPerformanceReportSensorTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private CxxLanguage language;
+  private SensorContextTester context;
+  private File report;
+
+  @Before
+  public void setUp() throws IOException {
+    language = TestUtils.mockCxxLanguage();
+    context = SensorContextTester.create(tmp.newFolder());
+    File workDir = tmp.newFolder();
+    context.fileSystem().setWorkDir(workDir);
+    report = new File(workDir, "cxx" + CxxPerformanceReportSensor.REPORT_FILE_SUFFIX);
+  }
+
+  @After
+  public void tearDown() {
+    CxxProfiler.setEnabled(false);
+  }
+
+  @Test
+  public void shouldNotWriteReportIfProfilerIsDisabled() {
+    CxxProfiler.setEnabled(false);
+    new CxxPerformanceReportSensor(language).execute(context);
+    assertThat(report.exists()).isFalse();
+  }
+
+  @Test
+  public void shouldWriteMeasuredPhases() throws IOException {
+    CxxProfiler.setEnabled(true);
+    try (CxxProfiler.Timer timer = CxxProfiler.start("report CppCheck")) {
+      CxxProfiler.start(CxxProfiler.PARSER).close();
+    }
+
+    new CxxPerformanceReportSensor(language).execute(context);
+
+    JsonNode json = new ObjectMapper().readTree(report);
+    assertThat(json.get("phases").size()).isEqualTo(2);
+    JsonNode phase = json.get("phases").get(0).get("name").asText().equals(CxxProfiler.PARSER)
+      ? json.get("phases").get(1) : json.get("phases").get(0);
+    assertThat(phase.get("name").asText()).isEqualTo("report CppCheck");
+    assertThat(phase.get("calls").asLong()).isEqualTo(1);
+    assertThat(phase.get("totalNanos").asLong()).isGreaterThanOrEqualTo(phase.get("selfNanos").asLong());
+  }
+
+  @Test
+  public void shouldWriteTopTranslationUnitsAndHeaders() throws IOException {
+    CxxProfiler.setEnabled(true);
+    for (int i = 0; i < CxxPerformanceReportSensor.TOP_COUNT + 5; i++) {
+      CxxProfiler.addTranslationUnit(new CxxProfiler.TranslationUnit("file" + i + ".cc", i, i, i, i, i, i));
+    }
+    try (CxxProfiler.Timer outer = CxxProfiler.start(CxxProfiler.HEADERS, "outer.h")) {
+      CxxProfiler.start(CxxProfiler.HEADERS, "inner.h").close();
+    }
+
+    new CxxPerformanceReportSensor(language).execute(context);
+
+    JsonNode json = new ObjectMapper().readTree(report);
+    JsonNode units = json.get("translationUnits");
+    assertThat(units.size()).isEqualTo(CxxPerformanceReportSensor.TOP_COUNT);
+    assertThat(units.get(0).get("path").asText()).isEqualTo("file24.cc");
+    assertThat(units.get(0).get("tokens").asInt()).isEqualTo(24);
+    assertThat(json.get("headers").size()).isEqualTo(2);
+    assertThat(json.get("headers").get(0).get("name").asText()).isEqualTo("outer.h");
+    assertThat(json.get("macros").size()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.sarif;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SarifParserTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void shouldReportResultsWithUndefinedBaseIdImmediately() throws IOException {
+    File report = writeReport("{\"runs\": [{\"results\": ["
+      + "{\"ruleId\": \"forward\", \"locations\": [{\"physicalLocation\": {\"artifactLocation\": {\"index\": 0}}}]},"
+      + "{\"ruleId\": \"based\", \"locations\": [{\"physicalLocation\": {\"artifactLocation\":"
+      + " {\"uri\": \"sources/a.cpp\", \"uriBaseId\": \"SRCROOT\"}, \"region\": {\"startLine\": 4}}}]}"
+      + "], \"artifacts\": [{\"location\": {\"uri\": \"sources/b.cpp\"}}]}]}");
+
+    List<SarifParser.Issue> issues = parse(report);
+
+    assertThat(issues).hasSize(2);
+    assertThat(issues.get(0).getRuleId()).isEqualTo("based");
+    assertThat(issues.get(0).getFile()).isEqualTo("sources/a.cpp");
+    assertThat(issues.get(0).getLine()).isEqualTo("4");
+    assertThat(issues.get(1).getRuleId()).isEqualTo("forward");
+    assertThat(issues.get(1).getFile()).isEqualTo("sources/b.cpp");
+  }
+
+  @Test
+  public void shouldBoundResultsWaitingForRules() throws IOException {
+    StringBuilder json = new StringBuilder("{\"runs\": [{\"results\": [");
+    for (int i = 0; i <= SarifParser.MAX_PENDING_RESULTS; i++) {
+      json.append(i > 0 ? "," : "").append("{\"ruleIndex\": 0}");
+    }
+    json.append("], \"tool\": {\"driver\": {\"rules\": [{\"id\": \"late-rule\"}]}}}]}");
+
+    List<SarifParser.Issue> issues = parse(writeReport(json.toString()));
+
+    assertThat(issues).hasSize(SarifParser.MAX_PENDING_RESULTS);
+    assertThat(issues.get(0).getRuleId()).isEqualTo("late-rule");
+  }
+
+  private File writeReport(String content) throws IOException {
+    File report = tmp.newFile("report.sarif");
+    Files.write(report.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    return report;
+  }
+
+  private static List<SarifParser.Issue> parse(File report) throws IOException {
+    List<SarifParser.Issue> issues = new ArrayList<>();
+    SarifParser.parse(report, issues::add);
+    return issues;
+  }
+}
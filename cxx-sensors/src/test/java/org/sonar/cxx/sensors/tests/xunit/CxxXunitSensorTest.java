@@ -29,6 +29,7 @@ import org.junit.Test;
 import static org.mockito.Mockito.when;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.config.Settings;
 import org.sonar.cxx.CxxLanguage;
 import org.sonar.cxx.sensors.utils.TestUtils;
@@ -75,6 +76,22 @@ public class CxxXunitSensorTest {
     sensor.execute(context);
   }
 
+  @Test
+  public void shouldReadCppunitReportWithoutTransformation() {
+    SensorContextTester context = SensorContextTester.create(fs.baseDir());
+
+    settings.setProperty(language.getPluginProperty(CxxXunitSensor.REPORT_PATH_KEY), "xunit-reports/cppunit-report.xml");
+    context.setSettings(settings);
+    when(language.getStringOption(CxxXunitSensor.XSLT_URL_KEY)).thenReturn("cppunit-1.x-to-junit-1.0.xsl");
+
+    CxxXunitSensor sensor = new CxxXunitSensor(language, settings);
+    sensor.execute(context);
+
+    assertThat(context.measure(context.module().key(), CoreMetrics.TESTS).value()).isEqualTo(5);
+    assertThat(context.measure(context.module().key(), CoreMetrics.TEST_ERRORS).value()).isEqualTo(1);
+    assertThat(context.measure(context.module().key(), CoreMetrics.TEST_FAILURES).value()).isEqualTo(1);
+  }
+
   @Test(expected = java.net.MalformedURLException.class)
   public void transformReport_shouldThrowWhenGivenNotExistingStyleSheet()
     throws java.io.IOException, javax.xml.transform.TransformerException {
@@ -52,10 +52,45 @@ public class XunitReportParserTest {
       parser = new StaxParser(parserHandler, false);
       File report = TestUtils.loadResource(pathPrefix + entry.getKey());
       parser.parse(report);
-      assertEquals((int) entry.getValue(), parserHandler.getTestCases().size());
+      assertEquals((int) entry.getValue(), parserHandler.getStatistics().getTests());
     }
   }
 
+  @Test
+  public void shouldReadCppUnitReport() throws javax.xml.stream.XMLStreamException {
+    XunitStatistics statistics = parse("cppunit-report.xml");
+    assertEquals(5, statistics.getTests());
+    assertEquals(1, statistics.getErrors());
+    assertEquals(1, statistics.getFailures());
+    assertEquals(0, statistics.getSkipped());
+  }
+
+  @Test
+  public void shouldReadBoostTestLog() throws javax.xml.stream.XMLStreamException {
+    XunitStatistics statistics = parse("boosttest-report.xml");
+    assertEquals(3, statistics.getTests());
+    assertEquals(1, statistics.getErrors());
+    assertEquals(1, statistics.getFailures());
+    assertEquals(50002, statistics.getTime());
+  }
+
+  @Test
+  public void shouldReadBoostTestLogWithoutTestCases() throws javax.xml.stream.XMLStreamException {
+    XunitStatistics statistics = parse("boosttest-log-without-testcases.xml");
+    assertEquals(7, statistics.getTests());
+    assertEquals(3, statistics.getErrors());
+    assertEquals(4, statistics.getFailures());
+  }
+
+  @Test
+  public void shouldAddUpReports() throws javax.xml.stream.XMLStreamException {
+    parserHandler = new XunitReportParser();
+    parser = new StaxParser(parserHandler, false);
+    parser.parse(TestUtils.loadResource(pathPrefix + "cppunit-report.xml"));
+    parser.parse(TestUtils.loadResource(pathPrefix + "xunit-result-2.xml"));
+    assertEquals(10, parserHandler.getStatistics().getTests());
+  }
+
   @Test(expected = javax.xml.stream.XMLStreamException.class)
   public void shouldThrowWhenGivenInvalidTime() throws javax.xml.stream.XMLStreamException {
     parserHandler = new XunitReportParser();
@@ -63,4 +98,11 @@ public class XunitReportParserTest {
     File report = TestUtils.loadResource(pathPrefix + "invalid-time-xunit-report.xml");
     parser.parse(report);
   }
+
+  private XunitStatistics parse(String report) throws javax.xml.stream.XMLStreamException {
+    parserHandler = new XunitReportParser();
+    parser = new StaxParser(parserHandler, false);
+    parser.parse(TestUtils.loadResource(pathPrefix + report));
+    return parserHandler.getStatistics();
+  }
 }
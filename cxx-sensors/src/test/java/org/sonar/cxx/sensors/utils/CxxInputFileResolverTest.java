@@ -0,0 +1,83 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+public class CxxInputFileResolverTest {
+
+  private SensorContextTester context;
+  private DefaultInputFile inputFile;
+
+  @Before
+  public void setUp() {
+    DefaultFileSystem fs = TestUtils.mockFileSystem();
+    context = SensorContextTester.create(fs.baseDir());
+    inputFile = new DefaultInputFile("ProjectKey", "sources/utils/code_chunks.cpp")
+      .setLanguage("cpp").initMetadata("asd\nasdas\nasda\n");
+    context.fileSystem().add(inputFile);
+  }
+
+  @Test
+  public void shouldResolveRelativeAndAbsolutePaths() {
+    CxxInputFileResolver resolver = CxxInputFileResolver.of(context.fileSystem());
+    String baseDir = context.fileSystem().baseDir().getAbsolutePath();
+
+    assertThat(resolver.resolve("sources/utils/code_chunks.cpp")).isEqualTo(inputFile);
+    assertThat(resolver.resolve("./sources/utils/../utils/code_chunks.cpp")).isEqualTo(inputFile);
+    assertThat(resolver.resolve(baseDir + File.separator + "sources" + File.separator + "utils"
+      + File.separator + "code_chunks.cpp")).isEqualTo(inputFile);
+  }
+
+  @Test
+  public void shouldRememberMissingFiles() {
+    CxxInputFileResolver resolver = CxxInputFileResolver.of(context.fileSystem());
+
+    assertThat(resolver.resolve("sources/utils/unknown.cpp")).isNull();
+    assertThat(resolver.resolve("sources/utils/unknown.cpp")).isNull();
+  }
+
+  @Test
+  public void shouldShareResolverPerFileSystem() {
+    InputFile resolved = CxxInputFileResolver.of(context.fileSystem()).resolve("sources/utils/code_chunks.cpp");
+
+    assertThat(CxxInputFileResolver.of(context.fileSystem())).isSameAs(CxxInputFileResolver.of(context.fileSystem()));
+    assertThat(resolved).isEqualTo(inputFile);
+  }
+
+  @Test
+  public void shouldIndexModuleFilesByCanonicalPath() throws IOException {
+    CxxInputFileResolver resolver = CxxInputFileResolver.of(context.fileSystem());
+    String canonical = new File(inputFile.absolutePath()).getCanonicalPath();
+
+    assertThat(resolver.canonicalPaths()).hasSize(1);
+    assertThat(resolver.canonicalPaths().get(canonical)).isEqualTo(inputFile);
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.Settings;
+import org.sonar.cxx.CxxLanguage;
+import org.sonar.cxx.sensors.cppcheck.CxxCppCheckSensor;
+
+public class CxxReportCacheTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private DefaultFileSystem fs;
+  private CxxLanguage language;
+  private Settings settings;
+
+  @Before
+  public void setUp() {
+    fs = TestUtils.mockFileSystem();
+    language = TestUtils.mockCxxLanguage();
+    when(language.getPluginProperty(CxxCppCheckSensor.REPORT_PATH_KEY)).thenReturn("sonar.cxx." + CxxCppCheckSensor.REPORT_PATH_KEY);
+    when(language.getPluginProperty(CxxReportCache.PATH_KEY)).thenReturn("sonar.cxx." + CxxReportCache.PATH_KEY);
+    settings = new Settings();
+  }
+
+  @Test
+  public void shouldReplayTheFindingsOfCachedReports() throws IOException {
+    File cacheDir = folder.newFolder("cache");
+    settings.setProperty(language.getPluginProperty(CxxCppCheckSensor.REPORT_PATH_KEY), "cppcheck-reports/cppcheck-result-*.xml");
+    settings.setProperty(language.getPluginProperty(CxxReportCache.PATH_KEY), cacheDir.getAbsolutePath());
+    CxxCppCheckSensor sensor = new CxxCppCheckSensor(language, settings);
+
+    SensorContextTester context = createContext();
+    sensor.execute(context);
+    assertThat(context.allIssues()).hasSize(9);
+    assertThat(cacheDir.list()).isNotEmpty();
+
+    CxxReportCache cache = CxxReportCache.of(sensor, createContext(), language);
+    File report = new File(fs.baseDir(), "cppcheck-reports/cppcheck-result-SAMPLE-V2.xml");
+    assertThat(cache.lookup(report).isHit()).isTrue();
+
+    context = createContext();
+    sensor.execute(context);
+    assertThat(context.allIssues()).hasSize(9);
+  }
+
+  @Test
+  public void changedReportShouldNotBeReplayed() throws IOException {
+    File report = folder.newFile("report.xml");
+    FileUtils.writeStringToFile(report, "<results/>", "UTF-8");
+    File cacheDir = folder.newFolder("cache");
+    CxxReportCache cache = new CxxReportCache(cacheDir, "parser");
+    CxxReportCache.Lookup lookup = cache.lookup(report);
+    assertThat(lookup.isHit()).isFalse();
+    try (CxxReportCache.Entry entry = cache.newEntry(lookup)) {
+      entry.add("cppcheck", "a.cpp", null, "rule", "message");
+      entry.commit();
+    }
+
+    lookup = cache.lookup(report);
+    assertThat(lookup.isHit()).isTrue();
+    assertThat(Arrays.asList(lookup.getFindings().get(0))).isEqualTo(Arrays.asList("cppcheck", "a.cpp", null, "rule", "message"));
+    assertThat(new CxxReportCache(cacheDir, "other parser").lookup(report).isHit()).isFalse();
+
+    // same size and modification time, other content
+    long modified = report.lastModified();
+    FileUtils.writeStringToFile(report, "<resultz/>", "UTF-8");
+    report.setLastModified(modified);
+    assertThat(cache.lookup(report).isHit()).isFalse();
+  }
+
+  @Test
+  public void uncommittedEntryShouldBeDiscarded() throws IOException {
+    File report = folder.newFile("report.xml");
+    FileUtils.writeStringToFile(report, "<results/>", "UTF-8");
+    File cacheDir = folder.newFolder("cache");
+    CxxReportCache cache = new CxxReportCache(cacheDir, "parser");
+
+    try (CxxReportCache.Entry entry = cache.newEntry(cache.lookup(report))) {
+      entry.add("cppcheck", "a.cpp", "1", "rule", "message");
+    }
+
+    assertThat(cache.lookup(report).isHit()).isFalse();
+    assertThat(cacheDir.list()).isEmpty();
+  }
+
+  @Test
+  public void incompletelyParsedReportShouldNotBeCached() throws IOException {
+    File cacheDir = folder.newFolder("cache");
+    File report = folder.newFile("cppcheck-broken.xml");
+    FileUtils.writeStringToFile(report, "<results><error", "UTF-8");
+    settings.setProperty(language.getPluginProperty(CxxCppCheckSensor.REPORT_PATH_KEY), report.getAbsolutePath());
+    settings.setProperty(language.getPluginProperty(CxxReportCache.PATH_KEY), cacheDir.getAbsolutePath());
+    CxxCppCheckSensor sensor = new CxxCppCheckSensor(language, settings);
+
+    SensorContextTester context = createContext();
+    sensor.execute(context);
+
+    assertThat(CxxReportCache.of(sensor, context, language).lookup(report).isHit()).isFalse();
+  }
+
+  @Test
+  public void entryShouldNotBeUsedByOtherModule() throws IOException {
+    File cacheDir = folder.newFolder("cache");
+    settings.setProperty(language.getPluginProperty(CxxCppCheckSensor.REPORT_PATH_KEY), "cppcheck-reports/cppcheck-result-SAMPLE-V2.xml");
+    settings.setProperty(language.getPluginProperty(CxxReportCache.PATH_KEY), cacheDir.getAbsolutePath());
+    CxxCppCheckSensor sensor = new CxxCppCheckSensor(language, settings);
+    File report = new File(fs.baseDir(), "cppcheck-reports/cppcheck-result-SAMPLE-V2.xml");
+
+    SensorContextTester context = createContext();
+    sensor.execute(context);
+    assertThat(CxxReportCache.of(sensor, context, language).lookup(report).isHit()).isTrue();
+
+    // the findings of files which are not part of this module were dropped
+    SensorContextTester otherModule = SensorContextTester.create(fs.baseDir());
+    otherModule.setSettings(settings);
+    otherModule.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/utils.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    assertThat(CxxReportCache.of(sensor, otherModule, language).lookup(report).isHit()).isFalse();
+  }
+
+  private SensorContextTester createContext() {
+    SensorContextTester context = SensorContextTester.create(fs.baseDir());
+    context.setSettings(settings);
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/code_chunks.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/utils.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    return context;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.cxx.sensors.utils.CxxReportFinder.IncludePattern;
+
+public class CxxReportFinderTest {
+
+  @Rule
+  public TemporaryFolder base = new TemporaryFolder();
+
+  @Before
+  public void setUp() {
+    CxxReportFinder.clearCache();
+  }
+
+  @Test
+  public void shouldWalkOnlyBelowTheFixedPrefix() {
+    IncludePattern pattern = IncludePattern.of("/ws/build/reports/*.xml");
+    assertThat(pattern.getRoot()).isEqualTo("/ws/build/reports/");
+    assertThat(pattern.getMaxDepth()).isEqualTo(1);
+    assertThat(pattern.matches("a.xml")).isTrue();
+    assertThat(pattern.matches("sub/a.xml")).isFalse();
+
+    pattern = IncludePattern.of("/ws/build/**/reports/?.xml");
+    assertThat(pattern.getRoot()).isEqualTo("/ws/build/");
+    assertThat(pattern.getMaxDepth()).isEqualTo(Integer.MAX_VALUE);
+    assertThat(pattern.matches("reports/a.xml")).isTrue();
+    assertThat(pattern.matches("x/y/reports/a.xml")).isTrue();
+    assertThat(pattern.matches("x/reports/ab.xml")).isFalse();
+
+    pattern = IncludePattern.of("C:\\ws\\build\\*\\report.x+l");
+    assertThat(pattern.getRoot()).isEqualTo("C:\\ws\\build\\");
+    assertThat(pattern.getMaxDepth()).isEqualTo(2);
+    assertThat(pattern.matches("debug/report.x+l")).isTrue();
+    assertThat(pattern.matches("debug/report.xxl")).isFalse();
+
+    assertThat(IncludePattern.of("/ws/build/report.xml").isFixed()).isTrue();
+  }
+
+  @Test
+  public void shouldFindFilesOfSeveralPatternsOnce() throws IOException {
+    FileUtils.touch(new File(base.getRoot(), "reports/a.xml"));
+    FileUtils.touch(new File(base.getRoot(), "reports/sub/b.xml"));
+    FileUtils.touch(new File(base.getRoot(), "reports/sub/c.txt"));
+
+    String root = base.getRoot().getAbsolutePath() + File.separator;
+    List<String> found = CxxReportFinder.find(Arrays.asList(root + "reports/**/*.xml", root + "reports/*.xml",
+      root + "reports/sub/c.txt", root + "reports/sub/missing.txt"));
+
+    assertThat(found).containsExactly(new File(root, "reports/a.xml").getPath(),
+      new File(root, "reports/sub/b.xml").getPath(), root + "reports/sub/c.txt");
+  }
+
+  @Test
+  public void shouldReuseListingsUntilADirectoryChanges() throws IOException {
+    FileUtils.touch(new File(base.getRoot(), "reports/a.xml"));
+    FileUtils.touch(new File(base.getRoot(), "reports/sub/b.xml"));
+    List<String> includes = Collections.singletonList(base.getRoot().getAbsolutePath() + "/reports/**/*.xml");
+
+    // freshly modified directories are not cached
+    assertThat(CxxReportFinder.find(includes)).hasSize(2);
+    assertThat(CxxReportFinder.cachedListings()).isEqualTo(0);
+
+    FileTime old = FileTime.fromMillis(System.currentTimeMillis() - 3600 * 1000);
+    Files.setLastModifiedTime(new File(base.getRoot(), "reports").toPath(), old);
+    Files.setLastModifiedTime(new File(base.getRoot(), "reports/sub").toPath(), old);
+    assertThat(CxxReportFinder.find(includes)).hasSize(2);
+    assertThat(CxxReportFinder.cachedListings()).isEqualTo(1);
+    assertThat(CxxReportFinder.find(includes)).hasSize(2);
+
+    FileUtils.touch(new File(base.getRoot(), "reports/sub/c.xml"));
+    assertThat(CxxReportFinder.find(includes)).hasSize(3);
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.Settings;
+import org.sonar.cxx.CxxLanguage;
+import org.sonar.cxx.sensors.coverage.CxxCoverageCache;
+import org.sonar.cxx.sensors.coverage.CxxCoverageSensor;
+import org.sonar.cxx.sensors.cppcheck.CxxCppCheckSensor;
+
+public class CxxReportIngestionTest {
+
+  private DefaultFileSystem fs;
+  private CxxLanguage language;
+  private SensorContextTester context;
+  private Settings settings;
+
+  @Before
+  public void setUp() {
+    fs = TestUtils.mockFileSystem();
+    language = TestUtils.mockCxxLanguage();
+    when(language.getPluginProperty(CxxCppCheckSensor.REPORT_PATH_KEY)).thenReturn("sonar.cxx." + CxxCppCheckSensor.REPORT_PATH_KEY);
+    when(language.IsRecoveryEnabled()).thenReturn(true);
+
+    context = SensorContextTester.create(fs.baseDir());
+    settings = new Settings();
+    context.setSettings(settings);
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/code_chunks.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/utils.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+  }
+
+  @Test
+  public void shouldSaveIssuesParsedInBackground() throws Exception {
+    settings.setProperty(language.getPluginProperty(CxxCppCheckSensor.REPORT_PATH_KEY), "cppcheck-reports/cppcheck-result-*.xml");
+    CxxCppCheckSensor sensor = new CxxCppCheckSensor(language, settings);
+    CxxReportIngestion ingestion = new CxxReportIngestion(language, new CxxReportSensor[]{sensor});
+
+    ingestion.start(context);
+    assertThat(context.allIssues()).isEmpty();
+
+    sensor.execute(context);
+    assertThat(context.allIssues()).hasSize(9);
+    // the buffered findings are saved only once
+    assertThat(ingestion.take(sensor, context)).isNull();
+  }
+
+  @Test
+  public void executeShouldStartParsing() {
+    settings.setProperty(language.getPluginProperty(CxxCppCheckSensor.REPORT_PATH_KEY), "cppcheck-reports/cppcheck-result-*.xml");
+    CxxCppCheckSensor sensor = new CxxCppCheckSensor(language, settings);
+    new CxxReportIngestion(language, new CxxReportSensor[]{sensor});
+
+    sensor.execute(context);
+    assertThat(context.allIssues()).hasSize(9);
+  }
+
+  @Test
+  public void sensorsOfOtherLanguagesShouldNotBeRegistered() throws Exception {
+    CxxLanguage otherLanguage = mock(CxxLanguage.class);
+    when(otherLanguage.getKey()).thenReturn("other");
+    CxxCppCheckSensor sensor = new CxxCppCheckSensor(language, settings);
+    CxxReportIngestion ingestion = new CxxReportIngestion(otherLanguage, new CxxReportSensor[]{sensor});
+
+    ingestion.start(context);
+    assertThat(ingestion.take(sensor, context)).isNull();
+  }
+
+  @Test
+  public void duplicateFindingsShouldBeBufferedOnce() {
+    CxxReportIngestion.BufferedReport report = new CxxReportIngestion.BufferedReport(fs.baseDir());
+    report.add("cppcheck", "sources/utils/utils.cpp", "1", "unusedVariable", "msg");
+    report.add("cppcheck", "sources/utils/utils.cpp", "1", "unusedVariable", "msg");
+    report.add("cppcheck", "sources/utils/utils.cpp", "2", "unusedVariable", "msg");
+
+    assertThat(report.getFindings()).hasSize(2);
+  }
+
+  @Test
+  public void sensorsSavingMeasuresShouldNotBeParsedInBackground() throws Exception {
+    CxxCoverageSensor sensor = new CxxCoverageSensor(new CxxCoverageCache(), language, context);
+    CxxReportIngestion ingestion = new CxxReportIngestion(language, new CxxReportSensor[]{sensor});
+
+    ingestion.start(context);
+    assertThat(ingestion.take(sensor, context)).isNull();
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.rule.RuleStatus;
+import org.sonar.api.server.rule.RulesDefinition;
+import org.sonar.api.server.rule.RulesDefinitionXmlLoader;
+
+public class CxxRuleIndexTest {
+
+  private static final String[] BUNDLED = {"/clangsa.xml", "/clangtidy.xml", "/compiler-gcc.xml",
+    "/compiler-vc.xml", "/cppcheck.xml", "/drmemory.xml", "/pclint.xml", "/rats.xml", "/valgrind.xml",
+    "/vera++.xml"};
+
+  private static final String RULES = "<rules>"
+    + "<rule key=\"legacy\" priority=\"MINOR\"><name>Legacy</name><description>legacy format</description></rule>"
+    + "<rule><key>full</key><name> Full </name>"
+    + "<description><![CDATA[ *markdown* ]]></description><descriptionFormat>MARKDOWN</descriptionFormat>"
+    + "<internalKey>F</internalKey><severity>BLOCKER</severity><type>BUG</type><status>BETA</status>"
+    + "<cardinality>MULTIPLE</cardinality><tag>a</tag><tag>b</tag>"
+    + "<remediationFunction>LINEAR_OFFSET</remediationFunction>"
+    + "<remediationFunctionGapMultiplier>5min</remediationFunctionGapMultiplier>"
+    + "<remediationFunctionBaseEffort>10min</remediationFunctionBaseEffort><gapDescription>per call</gapDescription>"
+    + "<param><key>max</key><description>maximum</description><type>INTEGER</type><defaultValue>3</defaultValue></param>"
+    + "</rule></rules>";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void indexShouldDefineTheRulesOfTheXmlLoader() throws Exception {
+    for (String xml : BUNDLED) {
+      RulesDefinition.Repository expected = defineWithXmlLoader(getClass().getResourceAsStream(xml));
+      List<CxxRuleIndex.Rule> rules;
+      try (InputStream input = getClass().getResourceAsStream(xml)) {
+        rules = roundTrip(CxxRuleIndex.parse(new InputStreamReader(input, StandardCharsets.UTF_8)));
+      }
+      assertSameRules(define(rules), expected);
+    }
+  }
+
+  @Test
+  public void indexShouldKeepAllRuleAttributes() throws Exception {
+    RulesDefinition.Repository expected = defineWithXmlLoader(
+      new ByteArrayInputStream(RULES.getBytes(StandardCharsets.UTF_8)));
+    RulesDefinition.Repository repository = define(roundTrip(CxxRuleIndex.parse(new StringReader(RULES))));
+
+    assertSameRules(repository, expected);
+    RulesDefinition.Rule rule = repository.rule("full");
+    assertThat(rule.name()).isEqualTo("Full");
+    assertThat(rule.markdownDescription()).isEqualTo("*markdown*");
+    assertThat(rule.status()).isEqualTo(RuleStatus.BETA);
+    assertThat(rule.template()).isTrue();
+    assertThat(rule.tags()).containsOnly("a", "b");
+    assertThat(rule.param("max").defaultValue()).isEqualTo("3");
+    assertThat(repository.rule("legacy").severity()).isEqualTo("MINOR");
+  }
+
+  @Test
+  public void extensionShouldOnlyBeParsedAgainIfChanged() throws IOException, XMLStreamException {
+    File xml = folder.newFile("extension.xml");
+    FileUtils.writeStringToFile(xml, RULES, "UTF-8");
+    xml.setLastModified(System.currentTimeMillis() - 60 * 1000);
+
+    List<CxxRuleIndex.Rule> rules = CxxRuleIndex.loadExtension(xml);
+    assertThat(rules).hasSize(2);
+    assertThat(CxxRuleIndex.loadExtension(xml)).isSameAs(rules);
+
+    FileUtils.writeStringToFile(xml, "<rules><rule><key>other</key><name>Other</name></rule></rules>", "UTF-8");
+    assertThat(CxxRuleIndex.loadExtension(xml)).hasSize(1);
+  }
+
+  @Test
+  public void shouldDeriveIndexName() {
+    assertThat(CxxRuleIndex.indexName("/cppcheck.xml")).isEqualTo("/cppcheck.idx");
+    assertThat(CxxRuleIndex.indexName("/vera++.xml")).isEqualTo("/vera++.idx");
+  }
+
+  private static List<CxxRuleIndex.Rule> roundTrip(List<CxxRuleIndex.Rule> rules) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    CxxRuleIndex.write(rules, output);
+    return CxxRuleIndex.read(new ByteArrayInputStream(output.toByteArray()));
+  }
+
+  private static RulesDefinition.Repository define(List<CxxRuleIndex.Rule> rules) {
+    RulesDefinition.Context context = new RulesDefinition.Context();
+    RulesDefinition.NewRepository repository = context.createRepository("index", "c++");
+    CxxRuleIndex.define(repository, rules);
+    repository.done();
+    return context.repository("index");
+  }
+
+  private static RulesDefinition.Repository defineWithXmlLoader(InputStream xml) throws IOException {
+    RulesDefinition.Context context = new RulesDefinition.Context();
+    RulesDefinition.NewRepository repository = context.createRepository("xml", "c++");
+    try (InputStream input = xml) {
+      new RulesDefinitionXmlLoader().load(repository, input, StandardCharsets.UTF_8);
+    }
+    repository.done();
+    return context.repository("xml");
+  }
+
+  private static void assertSameRules(RulesDefinition.Repository actual, RulesDefinition.Repository expected) {
+    assertThat(actual.rules()).hasSize(expected.rules().size());
+    for (RulesDefinition.Rule rule : expected.rules()) {
+      RulesDefinition.Rule indexed = actual.rule(rule.key());
+      assertThat(indexed).isNotNull();
+      assertThat(indexed.name()).isEqualTo(rule.name());
+      assertThat(indexed.htmlDescription()).isEqualTo(rule.htmlDescription());
+      assertThat(indexed.markdownDescription()).isEqualTo(rule.markdownDescription());
+      assertThat(indexed.internalKey()).isEqualTo(rule.internalKey());
+      assertThat(indexed.severity()).isEqualTo(rule.severity());
+      assertThat(indexed.type()).isEqualTo(rule.type());
+      assertThat(indexed.status()).isEqualTo(rule.status());
+      assertThat(indexed.template()).isEqualTo(rule.template());
+      assertThat(indexed.tags()).isEqualTo(rule.tags());
+      assertThat(indexed.gapDescription()).isEqualTo(rule.gapDescription());
+      assertThat(indexed.debtRemediationFunction()).isEqualTo(rule.debtRemediationFunction());
+      assertThat(indexed.params()).hasSize(rule.params().size());
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class IssueFingerprintSetTest {
+
+  @Test
+  public void shouldDetectDuplicates() {
+    IssueFingerprintSet set = new IssueFingerprintSet();
+
+    assertThat(set.add("file.cpp", "1", "rule", "message")).isTrue();
+    assertThat(set.add("file.cpp", "1", "rule", "message")).isFalse();
+    assertThat(set.add("file.cpp", "2", "rule", "message")).isTrue();
+    assertThat(set.add(null, null, "rule", "message")).isTrue();
+    assertThat(set.add(null, null, "rule", "message")).isFalse();
+    assertThat(set.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldSeparateFields() {
+    IssueFingerprintSet set = new IssueFingerprintSet();
+
+    assertThat(set.add("file.cpp", "12", "rule", "message")).isTrue();
+    assertThat(set.add("file.cpp1", "2", "rule", "message")).isTrue();
+  }
+
+  @Test
+  public void shouldGrowAndClear() {
+    IssueFingerprintSet set = new IssueFingerprintSet();
+    for (int i = 0; i < 100000; i++) {
+      assertThat(set.add("file.cpp", Integer.toString(i), "rule", "message")).isTrue();
+    }
+    for (int i = 0; i < 100000; i += 1000) {
+      assertThat(set.add("file.cpp", Integer.toString(i), "rule", "message")).isFalse();
+    }
+    assertThat(set.size()).isEqualTo(100000);
+
+    set.clear();
+    assertThat(set.size()).isEqualTo(0);
+    assertThat(set.add("file.cpp", "0", "rule", "message")).isTrue();
+  }
+
+  @Test
+  public void shouldKeepFingerprintsWhenWindowIsCleared() {
+    IssueFingerprintSet set = new IssueFingerprintSet();
+    IssueFingerprintSet window = new IssueFingerprintSet();
+
+    assertThat(set.add("file.cpp", "1", "rule", "message", window)).isTrue();
+    assertThat(set.add("file.cpp", "1", "rule", "message", window)).isFalse();
+    window.clear();
+    assertThat(set.add("file.cpp", "1", "rule", "message", window)).isFalse();
+    assertThat(window.size()).isEqualTo(1);
+    assertThat(set.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldAddFingerprintsOfFieldSequences() {
+    IssueFingerprintSet set = new IssueFingerprintSet();
+
+    assertThat(set.add(new IssueFingerprintSet.Fingerprint().append("Leak").append("a.cpp").append("1"))).isTrue();
+    assertThat(set.add(new IssueFingerprintSet.Fingerprint().append("Leak").append("a.cpp").append("1"))).isFalse();
+    assertThat(set.add(new IssueFingerprintSet.Fingerprint().append("Leak").append("a.cpp1"))).isTrue();
+    assertThat(set.size()).isEqualTo(2);
+  }
+}
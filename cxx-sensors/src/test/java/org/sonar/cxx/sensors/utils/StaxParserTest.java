@@ -0,0 +1,59 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.codehaus.staxmate.in.SMHierarchicCursor;
+import org.codehaus.staxmate.in.SMInputCursor;
+import org.junit.Test;
+
+public class StaxParserTest {
+
+  @Test
+  public void shouldReplaceControlCharsOfWholeReport() throws XMLStreamException {
+    StringBuilder xml = new StringBuilder("<results>");
+    for (int i = 0; i < 20000; i++) {
+      xml.append("<error msg=\"a\u0001b\u0007c\"/>");
+    }
+    xml.append("</results>");
+    final int[] errors = new int[1];
+    final StringBuilder lastMessage = new StringBuilder();
+
+    StaxParser parser = new StaxParser((SMHierarchicCursor rootCursor) -> {
+      rootCursor.advance();
+      SMInputCursor errorCursor = rootCursor.childElementCursor("error");
+      while (errorCursor.getNext() != null) {
+        errors[0]++;
+        lastMessage.setLength(0);
+        lastMessage.append(errorCursor.getAttrValue("msg"));
+      }
+    }, true);
+    parser.parse(new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8)));
+
+    assertThat(errors[0]).isEqualTo(20000);
+    assertThat(lastMessage.toString()).isEqualTo("a b c");
+  }
+}
@@ -19,7 +19,7 @@
  */
 package org.sonar.cxx.sensors.valgrind;
 
-import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -81,7 +81,7 @@ public class CxxValgrindSensorTest {
     ValgrindError error = mock(ValgrindError.class);
     when(error.getKind()).thenReturn("valgrind-error");
     ValgrindFrame frame = inside == true ? generateValgrindFrame() : null;
-    when(error.getLastOwnFrame((anyString()))).thenReturn(frame);
+    when(error.getLastOwnFrame(any(ValgrindOwnership.class))).thenReturn(frame);
     return error;
   }
 
@@ -93,4 +93,10 @@ public class ValgrindFrameTest {
       assertEquals(entry.getKey(), entry.getValue().toString());
     }
   }
+
+  @Test
+  public void dirWhichCannotBeNormalizedShouldBeKept() {
+    assertEquals("/src/lib", new ValgrindFrame("", "", "lala", "/src/./lib", "lala", "111").getDir().replace('\\', '/'));
+    assertEquals("../src", new ValgrindFrame("", "", "lala", "../src", "lala", "111").getDir());
+  }
 }
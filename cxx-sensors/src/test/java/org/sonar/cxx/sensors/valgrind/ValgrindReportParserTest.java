@@ -24,6 +24,9 @@ import org.sonar.cxx.sensors.valgrind.ValgrindError;
 import static org.junit.Assert.assertEquals;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.Before;
@@ -47,6 +50,18 @@ public class ValgrindReportParserTest {
     assertEquals(valgrindErrors.size(), 6);
   }
 
+  @Test
+  public void shouldStreamDistinctErrors() throws javax.xml.stream.XMLStreamException {
+    File absReportsProject = TestUtils.loadResource("/org/sonar/cxx/sensors/reports-project").getAbsoluteFile();
+    File absReportFile = new File(absReportsProject, "valgrind-reports/valgrind-result-SAMPLE.xml");
+    List<ValgrindError> valgrindErrors = new ArrayList<>();
+    parser.processReport(absReportFile, valgrindErrors::add);
+
+    // the report contains 13 errors, repeated stacks are passed only once
+    assertEquals(6, valgrindErrors.size());
+    assertEquals(6, new HashSet<>(valgrindErrors).size());
+  }
+
   @Test(expected = javax.xml.stream.XMLStreamException.class)
   public void shouldThrowWhenGivenAnIncompleteReport_1() throws javax.xml.stream.XMLStreamException {
     File absReportsProject = TestUtils.loadResource("/org/sonar/cxx/sensors/reports-project").getAbsoluteFile();
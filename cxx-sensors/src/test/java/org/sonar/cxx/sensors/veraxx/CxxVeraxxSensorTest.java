@@ -66,4 +66,42 @@ public class CxxVeraxxSensorTest {
     sensor.execute(context);
     assertThat(context.allIssues()).hasSize(10);
   }
+
+  @Test
+  public void shouldNotDuplicateIssuesOfSeveralReports() {
+    SensorContextTester context = SensorContextTester.create(fs.baseDir());
+
+    // the issues of the same files are contained in both reports
+    settings.setProperty(language.getPluginProperty(CxxVeraxxSensor.REPORT_PATH_KEY),
+      "vera++-reports/vera++-result-SAMPLE.xml,vera++-reports/duplicate/vera++-result-SAMPLE.xml");
+    context.setSettings(settings);
+
+    CxxVeraxxSensor sensor = new CxxVeraxxSensor(language, settings);
+
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/application/main.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/tests/SAMPLE-test.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/tests/SAMPLE-test.h").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/tests/main.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/code_chunks.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/utils.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    sensor.execute(context);
+    assertThat(context.allIssues()).hasSize(10);
+  }
+
+  @Test
+  public void shouldNotDuplicateIssuesOfFileListedTwice() {
+    SensorContextTester context = SensorContextTester.create(fs.baseDir());
+
+    // the window of the first 'utils.cpp' element ends with 'main.cpp'
+    settings.setProperty(language.getPluginProperty(CxxVeraxxSensor.REPORT_PATH_KEY),
+      "vera++-reports/duplicate/vera++-result-split-file.xml");
+    context.setSettings(settings);
+
+    CxxVeraxxSensor sensor = new CxxVeraxxSensor(language, settings);
+
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/application/main.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    context.fileSystem().add(new DefaultInputFile("ProjectKey", "sources/utils/utils.cpp").setLanguage("cpp").initMetadata("asd\nasdas\nasda\n"));
+    sensor.execute(context);
+    assertThat(context.allIssues()).hasSize(3);
+  }
 }
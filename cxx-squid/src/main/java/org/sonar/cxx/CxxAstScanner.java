@@ -130,7 +130,7 @@ public final class CxxAstScanner {
       });
 
     /* Functions */
-    builder.withSquidAstVisitor(new SourceCodeBuilderVisitor<>(new SourceCodeBuilderCallback() {
+    withSquidAstVisitor(builder, context, new SourceCodeBuilderVisitor<>(new SourceCodeBuilderCallback() {
       @Override
       public SourceCode createSourceCode(SourceCode parentSourceCode, AstNode astNode) {
         StringBuilder sb = new StringBuilder();
@@ -155,13 +155,13 @@ public final class CxxAstScanner {
       }
     }, CxxGrammarImpl.functionDefinition));
 
-    builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
+    withSquidAstVisitor(builder, context, CounterVisitor.<Grammar>builder()
       .setMetricDef(CxxMetric.FUNCTIONS)
       .subscribeTo(CxxGrammarImpl.functionDefinition)
       .build());
 
     /* Classes */
-    builder.withSquidAstVisitor(new SourceCodeBuilderVisitor<>(new SourceCodeBuilderCallback() {
+    withSquidAstVisitor(builder, context, new SourceCodeBuilderVisitor<>(new SourceCodeBuilderCallback() {
       @Override
       public SourceCode createSourceCode(SourceCode parentSourceCode, AstNode astNode) {
         AstNode classNameAst = astNode.getFirstDescendant(CxxGrammarImpl.className);
@@ -172,25 +172,25 @@ public final class CxxAstScanner {
       }
     }, CxxGrammarImpl.classSpecifier));
 
-    builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
+    withSquidAstVisitor(builder, context, CounterVisitor.<Grammar>builder()
       .setMetricDef(CxxMetric.CLASSES)
       .subscribeTo(CxxGrammarImpl.classSpecifier)
       .build());
 
     /* Metrics */
-    builder.withSquidAstVisitor(new LinesVisitor<>(CxxMetric.LINES));
-    builder.withSquidAstVisitor(new CxxLinesOfCodeVisitor<>(CxxMetric.LINES_OF_CODE));
-    builder.withSquidAstVisitor(new CxxPublicApiVisitor<>(CxxMetric.PUBLIC_API,
+    withSquidAstVisitor(builder, context, new LinesVisitor<>(CxxMetric.LINES));
+    withSquidAstVisitor(builder, context, new CxxLinesOfCodeVisitor<>(CxxMetric.LINES_OF_CODE));
+    withSquidAstVisitor(builder, context, new CxxPublicApiVisitor<>(CxxMetric.PUBLIC_API,
       CxxMetric.PUBLIC_UNDOCUMENTED_API)
       .withHeaderFileSuffixes(conf.getHeaderFileSuffixes()));
 
-    builder.withSquidAstVisitor(CommentsVisitor.<Grammar>builder().withCommentMetric(CxxMetric.COMMENT_LINES)
+    withSquidAstVisitor(builder, context, CommentsVisitor.<Grammar>builder().withCommentMetric(CxxMetric.COMMENT_LINES)
       .withNoSonar(true)
       .withIgnoreHeaderComment(conf.getIgnoreHeaderComments())
       .build());
 
     /* Statements */
-    builder.withSquidAstVisitor(CounterVisitor.<Grammar>builder()
+    withSquidAstVisitor(builder, context, CounterVisitor.<Grammar>builder()
       .setMetricDef(CxxMetric.STATEMENTS)
       .subscribeTo(CxxGrammarImpl.statement)
       .build());
@@ -209,33 +209,42 @@ public final class CxxAstScanner {
       CxxPunctuator.QUEST
     };
 
-    builder.withSquidAstVisitor(ComplexityVisitor.<Grammar>builder()
+    withSquidAstVisitor(builder, context, ComplexityVisitor.<Grammar>builder()
       .setMetricDef(CxxMetric.COMPLEXITY)
       .subscribeTo(complexityAstNodeType)
       .build());
 
-    builder.withSquidAstVisitor(CxxCognitiveComplexityVisitor.<Grammar>builder()
+    withSquidAstVisitor(builder, context, CxxCognitiveComplexityVisitor.<Grammar>builder()
       .setMetricDef(CxxMetric.COGNITIVE_COMPLEXITY)
       .subscribeTo(CxxGrammarImpl.functionDefinition)
       .build());
 
     // to emit a 'new file' event to the internals of the plugin
-    builder.withSquidAstVisitor(new CxxFileVisitor<>(context));
+    withSquidAstVisitor(builder, context, new CxxFileVisitor<>(context));
 
     // log syntax errors
-    builder.withSquidAstVisitor(new CxxParseErrorLoggerVisitor<>(context));
+    withSquidAstVisitor(builder, context, new CxxParseErrorLoggerVisitor<>(context));
 
     /* External visitors (typically Check ones) */
     for (SquidAstVisitor<Grammar> visitor : visitors) {
       if (visitor instanceof CxxCharsetAwareVisitor) {
         ((CxxCharsetAwareVisitor) visitor).setCharset(conf.getCharset());
       }
-      builder.withSquidAstVisitor(visitor);
+      withSquidAstVisitor(builder, context, visitor);
     }
 
     return builder.build();
   }
 
+  private static void withSquidAstVisitor(AstScanner.Builder<Grammar> builder,
+    SquidAstVisitorContextImpl<Grammar> context, SquidAstVisitor<Grammar> visitor) {
+    if (CxxProfiler.isEnabled()) {
+      builder.withSquidAstVisitor(CxxProfilingVisitor.wrap(visitor, context));
+    } else {
+      builder.withSquidAstVisitor(visitor);
+    }
+  }
+
   // Concatenate two strings, but if there is overlap at the intersection,
   // include the intersection/overlap only once.
   public static String intersectingConcatenate(String a, String b) {
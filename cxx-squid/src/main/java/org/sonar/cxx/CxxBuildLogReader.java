@@ -0,0 +1,229 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import javax.annotation.CheckForNull;
+
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Reads build logs line by line. Large logs are memory-mapped and split at
+ * line boundaries into chunks which are parsed concurrently; the results are
+ * passed to the consumer in file order, so the output is the same as reading
+ * the log sequentially. Compressed logs are decompressed on the fly and read
+ * sequentially.
+ */
+public final class CxxBuildLogReader {
+
+  private static final Logger LOG = Loggers.get(CxxBuildLogReader.class);
+  private static final long CHUNK_SIZE = 32L * 1024 * 1024;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Maps a line of the log to a result. Called concurrently for different
+   * chunks, so implementations must not share mutable state.
+   */
+  @FunctionalInterface
+  public interface LineMapper<T> {
+
+    /**
+     * @return result for the line or null if the line is not of interest
+     */
+    @CheckForNull
+    T map(String line);
+  }
+
+  private CxxBuildLogReader() {
+    // utility class
+  }
+
+  /**
+   * @param log build log to read
+   * @param charset encoding of the log
+   * @param mapper creates the results from the lines, running on worker threads for large logs
+   * @param consumer receives the results in file order, always on the calling thread
+   * @throws IOException if the log cannot be read
+   */
+  public static <T> void processLines(File log, Charset charset, LineMapper<T> mapper, Consumer<T> consumer)
+    throws IOException {
+    processLines(log, charset, mapper, consumer, CHUNK_SIZE);
+  }
+
+  static <T> void processLines(File log, Charset charset, LineMapper<T> mapper, Consumer<T> consumer,
+                               long chunkSize) throws IOException {
+    int threads = Runtime.getRuntime().availableProcessors();
+    if (log.length() <= chunkSize || threads < 2 || !isSplittable(charset) || CxxReportFiles.isCompressed(log)) {
+      try (InputStream input = CxxReportFiles.open(log)) {
+        mapLines(input, charset, mapper, consumer);
+      }
+      return;
+    }
+
+    try (FileChannel channel = FileChannel.open(log.toPath(), StandardOpenOption.READ)) {
+      List<long[]> chunks = splitAtLines(channel, chunkSize);
+      LOG.debug("Parse build log '{}' in {} chunks", log, chunks.size());
+      ExecutorService executor = Executors.newFixedThreadPool(Math.min(chunks.size(), threads));
+      try {
+        List<Future<List<T>>> results = new ArrayList<>(chunks.size());
+        for (long[] chunk : chunks) {
+          MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+          results.add(executor.submit(() -> {
+            List<T> chunkResults = new ArrayList<>();
+            mapLines(new ByteBufferInputStream(buffer), charset, mapper, chunkResults::add);
+            return chunkResults;
+          }));
+        }
+        for (Future<List<T>> result : results) {
+          getResult(result).forEach(consumer);
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  private static <T> void mapLines(InputStream input, Charset charset, LineMapper<T> mapper, Consumer<T> consumer)
+    throws IOException {
+    Reader decoder = new InputStreamReader(input, charset.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE));
+    BufferedReader reader = new BufferedReader(decoder, BUFFER_SIZE);
+    String line;
+    while ((line = reader.readLine()) != null) {
+      T result = mapper.map(line);
+      if (result != null) {
+        consumer.accept(result);
+      }
+    }
+  }
+
+  /**
+   * Chunks can be split at '\n' bytes only if the charset encodes line breaks
+   * as single ASCII bytes which never appear inside other characters.
+   */
+  static boolean isSplittable(Charset charset) {
+    if (!charset.canEncode() || charset.name().startsWith("ISO-2022")) {
+      return false;
+    }
+    ByteBuffer lineBreak = charset.encode("\r\n");
+    return lineBreak.remaining() == 2 && lineBreak.get(0) == '\r' && lineBreak.get(1) == '\n';
+  }
+
+  /**
+   * @return [start, end) byte ranges, each one ending after a '\n' or at the end of the file
+   */
+  private static List<long[]> splitAtLines(FileChannel channel, long chunkSize) throws IOException {
+    List<long[]> chunks = new ArrayList<>();
+    long size = channel.size();
+    long start = 0;
+    while (start < size) {
+      long end = start + chunkSize < size ? nextLineStart(channel, start + chunkSize) : size;
+      chunks.add(new long[]{start, end});
+      start = end;
+    }
+    return chunks;
+  }
+
+  private static long nextLineStart(FileChannel channel, long from) throws IOException {
+    long size = channel.size();
+    long position = from;
+    while (position < size) {
+      MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+        Math.min(BUFFER_SIZE, size - position));
+      while (window.hasRemaining()) {
+        if (window.get() == '\n') {
+          return position + window.position();
+        }
+      }
+      position += window.limit();
+    }
+    return size;
+  }
+
+  private static <T> T getResult(Future<T> result) throws IOException {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Parsing of build log interrupted", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(len, buffer.remaining());
+      buffer.get(b, off, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
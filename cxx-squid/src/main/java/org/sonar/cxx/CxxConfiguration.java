@@ -24,8 +24,8 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -43,7 +43,7 @@ public class CxxConfiguration extends SquidConfiguration {
   public static final String OVERALLDEFINEKEY = "CxxOverallDefine";
 
   private boolean ignoreHeaderComments;
-  private final HashMap<String, List<String>> uniqueIncludes = new HashMap<>();
+  private final HashMap<String, Set<String>> uniqueIncludes = new HashMap<>();
   private final HashMap<String, Set<String>> uniqueDefines = new HashMap<>();
   private List<String> forceIncludeFiles = new ArrayList<>();
   private List<String> headerFileSuffixes = new ArrayList<>();
@@ -61,24 +61,24 @@ public class CxxConfiguration extends SquidConfiguration {
 
   public CxxConfiguration(CxxLanguage language) {
     this.language = language;
-    uniqueIncludes.put(OVERALLINCLUDEKEY, new ArrayList<String>());
-    uniqueDefines.put(OVERALLDEFINEKEY, new HashSet<String>());
+    uniqueIncludes.put(OVERALLINCLUDEKEY, new LinkedHashSet<String>());
+    uniqueDefines.put(OVERALLDEFINEKEY, new LinkedHashSet<String>());
     cxxVCppParser = new CxxVCppBuildLogParser(uniqueIncludes, uniqueDefines);
   }
 
   public CxxConfiguration(Charset encoding, CxxLanguage language) {
     super(encoding);
     this.language = language;
-    uniqueIncludes.put(OVERALLINCLUDEKEY, new ArrayList<String>());
-    uniqueDefines.put(OVERALLDEFINEKEY, new HashSet<String>());
+    uniqueIncludes.put(OVERALLINCLUDEKEY, new LinkedHashSet<String>());
+    uniqueDefines.put(OVERALLDEFINEKEY, new LinkedHashSet<String>());
     cxxVCppParser = new CxxVCppBuildLogParser(uniqueIncludes, uniqueDefines);
   }
 
   public CxxConfiguration(FileSystem fs, CxxLanguage language) {
     super(fs.encoding());
     this.language = language;
-    uniqueIncludes.put(OVERALLINCLUDEKEY, new ArrayList<String>());
-    uniqueDefines.put(OVERALLDEFINEKEY, new HashSet<String>());
+    uniqueIncludes.put(OVERALLINCLUDEKEY, new LinkedHashSet<String>());
+    uniqueDefines.put(OVERALLDEFINEKEY, new LinkedHashSet<String>());
     cxxVCppParser = new CxxVCppBuildLogParser(uniqueIncludes, uniqueDefines);
   }
 
@@ -96,49 +96,33 @@ public class CxxConfiguration extends SquidConfiguration {
     }
     
     Set<String> overallDefs = uniqueDefines.get(OVERALLDEFINEKEY);
-    for (String define : defines) {
-      if (!overallDefs.contains(define)) {
-        overallDefs.add(define);
-      }
-    }
+    overallDefs.addAll(Arrays.asList(defines));
   }
   
   public void addOverallDefine(String define) {
-    Set<String> overallDefs = uniqueDefines.get(OVERALLDEFINEKEY);
-    if (!overallDefs.contains(define)) {
-      overallDefs.add(define);
-    }
+    uniqueDefines.get(OVERALLDEFINEKEY).add(define);
   }  
 
   public List<String> getDefines() {
-    Set<String> allDefines = new HashSet<>();
-
+    Set<String> allDefines = new LinkedHashSet<>();
     for (Set<String> elemSet : uniqueDefines.values()) {
-      for (String value : elemSet) {
-        if (!allDefines.contains(value)) {
-          allDefines.add(value);
-        }
-      }
+      allDefines.addAll(elemSet);
     }
-
     return new ArrayList<>(allDefines);
   }
 
   public void setIncludeDirectories(List<String> includeDirectories) {
-    List<String> overallIncludes = uniqueIncludes.get(OVERALLINCLUDEKEY);
+    Set<String> overallIncludes = uniqueIncludes.get(OVERALLINCLUDEKEY);
     for (String include : includeDirectories) {
-      if (!overallIncludes.contains(include)) {
+      if (overallIncludes.add(include)) {
         LOG.debug("setIncludeDirectories() adding dir '{}'", include);
-        overallIncludes.add(include);
       }
     }
   }
   
   public void addOverallIncludeDirectory(String includeDirectory) {
-    List<String> overallIncludes = uniqueIncludes.get(OVERALLINCLUDEKEY);
-    if (!overallIncludes.contains(includeDirectory)) {
+    if (uniqueIncludes.get(OVERALLINCLUDEKEY).add(includeDirectory)) {
       LOG.debug("setIncludeDirectories() adding dir '{}'", includeDirectory);
-      overallIncludes.add(includeDirectory);
     }
   }  
 
@@ -149,17 +133,11 @@ public class CxxConfiguration extends SquidConfiguration {
   }
 
   public List<String> getIncludeDirectories() {
-    List<String> allIncludes = new ArrayList<>();
-
-    for (List<String> elemList : uniqueIncludes.values()) {
-      for (String value : elemList) {
-        if (!allIncludes.contains(value)) {
-          allIncludes.add(value);
-        }
-      }
+    Set<String> allIncludes = new LinkedHashSet<>();
+    for (Set<String> elemSet : uniqueIncludes.values()) {
+      allIncludes.addAll(elemSet);
     }
-
-    return allIncludes;
+    return new ArrayList<>(allIncludes);
   }
 
   public void setForceIncludeFiles(List<String> forceIncludeFiles) {
@@ -290,7 +268,7 @@ public class CxxConfiguration extends SquidConfiguration {
         }
         if(LOG.isDebugEnabled()) {
           LOG.debug("Parse build log OK");
-          for (List<String> allIncludes : uniqueIncludes.values()) {
+          for (Set<String> allIncludes : uniqueIncludes.values()) {
             if (!allIncludes.isEmpty()) {
               LOG.debug("Includes folders ({})='{}'", allIncludes.size(), allIncludes);
             }
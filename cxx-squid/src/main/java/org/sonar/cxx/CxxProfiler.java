@@ -0,0 +1,405 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Measures the time and the allocated bytes of the analysis phases, e.g. the
+ * lexer, the preprocessor, the parser, the visitors and checks or the report
+ * parsers. The measurements are aggregated per phase over the whole analysis.
+ *
+ * Phases are nested per thread: the self time of a phase is its total time
+ * without the time of the phases started within it. Besides the phases, the
+ * costs of items like headers or macros are aggregated in separate tables,
+ * items nest only within their own table. If the profiler is disabled
+ * {@link #start(String)} returns a shared timer which does nothing.
+ */
+public final class CxxProfiler {
+
+  public static final String ENABLED_KEY = "performanceReport";
+
+  public static final String LEXER = "lexer";
+  public static final String PREPROCESSOR = "preprocessor";
+  public static final String PARSER = "parser";
+
+  public static final String PHASES = "phases";
+  public static final String HEADERS = "headers";
+  public static final String MACROS = "macros";
+
+  private static final ConcurrentMap<String, ConcurrentMap<String, Phase>> TABLES = new ConcurrentHashMap<>();
+  private static final List<TranslationUnit> UNITS = Collections.synchronizedList(new ArrayList<TranslationUnit>());
+  private static final ThreadLocal<Map<String, Timer>> CURRENT = new ThreadLocal<Map<String, Timer>>() {
+    @Override
+    protected Map<String, Timer> initialValue() {
+      return new HashMap<>();
+    }
+  };
+  private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+  private static volatile boolean enabled;
+
+  private CxxProfiler() {
+  }
+
+  /**
+   * Enables the profiler if the performance report is requested, the
+   * measurements of the previous modules are kept.
+   *
+   * @param language
+   */
+  public static void configure(CxxLanguage language) {
+    setEnabled(language.getBooleanOption(ENABLED_KEY));
+  }
+
+  /**
+   * @param enable the measurements are discarded if the profiler was disabled
+   */
+  public static synchronized void setEnabled(boolean enable) {
+    if (enable && !enabled) {
+      TABLES.clear();
+      UNITS.clear();
+    }
+    enabled = enable;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return true if the allocated bytes are measured by this JVM
+   */
+  public static boolean isAllocationMeasured() {
+    return THREADS != null;
+  }
+
+  /**
+   * Starts a phase on the current thread, use it with try-with-resources.
+   *
+   * @param phase name of the phase
+   * @return timer which ends the phase when it is closed
+   */
+  public static Timer start(String phase) {
+    return start(PHASES, phase);
+  }
+
+  /**
+   * Starts an item of a cost table on the current thread, the item is not
+   * accounted to the self time of the running phase.
+   *
+   * @param table name of the cost table, e.g. {@link #HEADERS}
+   * @param item name of the item
+   * @return timer which ends the item when it is closed
+   */
+  public static Timer start(String table, String item) {
+    if (!enabled) {
+      return Timer.DISABLED;
+    }
+    Map<String, Timer> running = CURRENT.get();
+    Timer timer = new Timer(table, item, running.get(table));
+    running.put(table, timer);
+    return timer;
+  }
+
+  /**
+   * @param unit measurements of a parsed translation unit
+   */
+  public static void addTranslationUnit(TranslationUnit unit) {
+    if (enabled) {
+      UNITS.add(unit);
+    }
+  }
+
+  /**
+   * @return the measured phases, the most expensive (self time) first
+   */
+  public static List<Phase> getPhases() {
+    return getCosts(PHASES);
+  }
+
+  /**
+   * @param table name of the cost table
+   * @return the measured items, the most expensive (self time) first
+   */
+  public static List<Phase> getCosts(String table) {
+    Map<String, Phase> items = TABLES.get(table);
+    List<Phase> phases = items == null ? new ArrayList<Phase>() : new ArrayList<>(items.values());
+    Collections.sort(phases, new Comparator<Phase>() {
+      @Override
+      public int compare(Phase p1, Phase p2) {
+        int cmp = Long.compare(p2.getSelfNanos(), p1.getSelfNanos());
+        return cmp != 0 ? cmp : p1.getName().compareTo(p2.getName());
+      }
+    });
+    return phases;
+  }
+
+  /**
+   * @return the parsed translation units, the slowest first
+   */
+  public static List<TranslationUnit> getTranslationUnits() {
+    List<TranslationUnit> units;
+    synchronized (UNITS) {
+      units = new ArrayList<>(UNITS);
+    }
+    Collections.sort(units, new Comparator<TranslationUnit>() {
+      @Override
+      public int compare(TranslationUnit u1, TranslationUnit u2) {
+        int cmp = Long.compare(u2.getTotalNanos(), u1.getTotalNanos());
+        return cmp != 0 ? cmp : u1.getPath().compareTo(u2.getPath());
+      }
+    });
+    return units;
+  }
+
+  @CheckForNull
+  private static com.sun.management.ThreadMXBean allocationCounter() {
+    try {
+      java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      if (threads instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+        if (counter.isThreadAllocatedMemorySupported()) {
+          counter.setThreadAllocatedMemoryEnabled(true);
+          return counter;
+        }
+      }
+    } catch (UnsupportedOperationException | SecurityException | LinkageError e) {
+      // allocated bytes are not measured on this JVM
+    }
+    return null;
+  }
+
+  private static long allocatedBytes() {
+    return THREADS == null ? 0L : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Running phase or item on the current thread.
+   */
+  public static final class Timer implements AutoCloseable {
+
+    private static final Timer DISABLED = new Timer();
+
+    private final String table;
+    private final String name;
+    private final Timer parent;
+    private final long startBytes;
+    private final long startNanos;
+    private long nanos;
+    private long childNanos;
+    private long childBytes;
+
+    private Timer() {
+      table = null;
+      name = null;
+      parent = null;
+      startBytes = 0L;
+      startNanos = 0L;
+    }
+
+    private Timer(String table, String name, @Nullable Timer parent) {
+      this.table = table;
+      this.name = name;
+      this.parent = parent;
+      startBytes = allocatedBytes();
+      startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void close() {
+      if (name == null) {
+        return;
+      }
+      nanos = System.nanoTime() - startNanos;
+      long bytes = allocatedBytes() - startBytes;
+      item(table, name).add(nanos, nanos - childNanos, bytes, bytes - childBytes);
+      Map<String, Timer> running = CURRENT.get();
+      if (parent != null) {
+        parent.childNanos += nanos;
+        parent.childBytes += bytes;
+        running.put(table, parent);
+      } else {
+        running.remove(table);
+      }
+    }
+
+    /**
+     * @return total time of the closed timer, 0 if the profiler is disabled
+     */
+    public long getNanos() {
+      return nanos;
+    }
+
+    /**
+     * @return time of the nested phases or items of the same table
+     */
+    public long getChildNanos() {
+      return childNanos;
+    }
+
+    private static Phase item(String table, String name) {
+      ConcurrentMap<String, Phase> items = TABLES.get(table);
+      if (items == null) {
+        ConcurrentMap<String, Phase> newItems = new ConcurrentHashMap<>();
+        items = TABLES.putIfAbsent(table, newItems);
+        if (items == null) {
+          items = newItems;
+        }
+      }
+      Phase phase = items.get(name);
+      if (phase == null) {
+        Phase newPhase = new Phase(name);
+        phase = items.putIfAbsent(name, newPhase);
+        if (phase == null) {
+          phase = newPhase;
+        }
+      }
+      return phase;
+    }
+  }
+
+  /**
+   * Measurements of a translation unit, the preprocessor time includes the
+   * headers read for the unit.
+   */
+  public static final class TranslationUnit {
+
+    private final String path;
+    private final long lexerNanos;
+    private final long preprocessorNanos;
+    private final long parserNanos;
+    private final int tokens;
+    private final int includes;
+    private final int peakMacros;
+
+    public TranslationUnit(String path, long lexerNanos, long preprocessorNanos, long parserNanos,
+      int tokens, int includes, int peakMacros) {
+      this.path = path;
+      this.lexerNanos = lexerNanos;
+      this.preprocessorNanos = preprocessorNanos;
+      this.parserNanos = parserNanos;
+      this.tokens = tokens;
+      this.includes = includes;
+      this.peakMacros = peakMacros;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public long getLexerNanos() {
+      return lexerNanos;
+    }
+
+    public long getPreprocessorNanos() {
+      return preprocessorNanos;
+    }
+
+    public long getParserNanos() {
+      return parserNanos;
+    }
+
+    public long getTotalNanos() {
+      return lexerNanos + preprocessorNanos + parserNanos;
+    }
+
+    /**
+     * @return number of tokens after the preprocessor expanded the macros
+     */
+    public int getTokens() {
+      return tokens;
+    }
+
+    /**
+     * @return number of headers resolved and read for the unit
+     */
+    public int getIncludes() {
+      return includes;
+    }
+
+    /**
+     * @return peak number of macros in effect while the unit was preprocessed
+     */
+    public int getPeakMacros() {
+      return peakMacros;
+    }
+  }
+
+  /**
+   * Measurements of a phase or item aggregated over the analysis.
+   */
+  public static final class Phase {
+
+    private final String name;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong selfNanos = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong selfBytes = new AtomicLong();
+
+    Phase(String name) {
+      this.name = name;
+    }
+
+    void add(long nanos, long ownNanos, long bytes, long ownBytes) {
+      calls.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      selfNanos.addAndGet(ownNanos);
+      totalBytes.addAndGet(bytes);
+      selfBytes.addAndGet(ownBytes);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getCalls() {
+      return calls.get();
+    }
+
+    public long getTotalNanos() {
+      return totalNanos.get();
+    }
+
+    public long getSelfNanos() {
+      return selfNanos.get();
+    }
+
+    public long getTotalBytes() {
+      return totalBytes.get();
+    }
+
+    public long getSelfBytes() {
+      return selfBytes.get();
+    }
+  }
+}
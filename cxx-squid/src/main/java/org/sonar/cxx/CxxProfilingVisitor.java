@@ -0,0 +1,132 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx;
+
+import javax.annotation.Nullable;
+
+import org.sonar.squidbridge.AstScannerExceptionHandler;
+import org.sonar.squidbridge.SquidAstVisitor;
+import org.sonar.squidbridge.SquidAstVisitorContext;
+import org.sonar.squidbridge.checks.SquidCheck;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Token;
+
+/**
+ * Forwards the events of the AST walker to a visitor or check and measures
+ * them as one phase of the {@link CxxProfiler}.
+ */
+class CxxProfilingVisitor extends SquidAstVisitor<Grammar> {
+
+  private final SquidAstVisitor<Grammar> visitor;
+  private final String phase;
+
+  CxxProfilingVisitor(SquidAstVisitor<Grammar> visitor) {
+    this.visitor = visitor;
+    String name = visitor.getClass().getSimpleName();
+    if (name.isEmpty()) {
+      name = visitor.getClass().getName();
+    }
+    this.phase = (visitor instanceof SquidCheck ? "check " : "visitor ") + name;
+  }
+
+  /**
+   * Exception handlers are not wrapped, the scanner has to see their type.
+   *
+   * @return the measured visitor
+   */
+  static SquidAstVisitor<Grammar> wrap(SquidAstVisitor<Grammar> visitor, SquidAstVisitorContext<Grammar> context) {
+    if (visitor instanceof AstScannerExceptionHandler) {
+      return visitor;
+    }
+    visitor.setContext(context);
+    if (visitor instanceof AstAndTokenVisitor) {
+      return new TokenVisitor(visitor);
+    }
+    return new CxxProfilingVisitor(visitor);
+  }
+
+  @Override
+  public void init() {
+    try (CxxProfiler.Timer timer = CxxProfiler.start(phase)) {
+      visitor.init();
+    }
+    for (AstNodeType type : visitor.getAstNodeTypesToVisit()) {
+      subscribeTo(type);
+    }
+  }
+
+  @Override
+  public void visitFile(@Nullable AstNode ast) {
+    try (CxxProfiler.Timer timer = CxxProfiler.start(phase)) {
+      visitor.visitFile(ast);
+    }
+  }
+
+  @Override
+  public void leaveFile(@Nullable AstNode ast) {
+    try (CxxProfiler.Timer timer = CxxProfiler.start(phase)) {
+      visitor.leaveFile(ast);
+    }
+  }
+
+  @Override
+  public void visitNode(AstNode ast) {
+    try (CxxProfiler.Timer timer = CxxProfiler.start(phase)) {
+      visitor.visitNode(ast);
+    }
+  }
+
+  @Override
+  public void leaveNode(AstNode ast) {
+    try (CxxProfiler.Timer timer = CxxProfiler.start(phase)) {
+      visitor.leaveNode(ast);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    visitor.destroy();
+  }
+
+  String getPhase() {
+    return phase;
+  }
+
+  private static final class TokenVisitor extends CxxProfilingVisitor implements AstAndTokenVisitor {
+
+    private final AstAndTokenVisitor tokenVisitor;
+
+    TokenVisitor(SquidAstVisitor<Grammar> visitor) {
+      super(visitor);
+      this.tokenVisitor = (AstAndTokenVisitor) visitor;
+    }
+
+    @Override
+    public void visitToken(Token token) {
+      try (CxxProfiler.Timer timer = CxxProfiler.start(getPhase())) {
+        tokenVisitor.visitToken(token);
+      }
+    }
+  }
+}
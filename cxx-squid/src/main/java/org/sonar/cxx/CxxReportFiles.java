@@ -0,0 +1,150 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import javax.annotation.CheckForNull;
+
+import org.tukaani.xz.XZInputStream;
+
+/**
+ * Opens report files. Reports compressed with gzip (.gz), xz (.xz) or
+ * Zstandard (.zst) are decompressed on the fly while they are read, so
+ * archived reports can be passed to the sensors without unpacking them first.
+ */
+public final class CxxReportFiles {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private enum Compression {
+    GZIP(".gz"),
+    XZ(".xz"),
+    ZSTD(".zst");
+
+    private final String extension;
+
+    Compression(String extension) {
+      this.extension = extension;
+    }
+  }
+
+  private CxxReportFiles() {
+    // utility class
+  }
+
+  /**
+   * @param file report file
+   * @return true if the report is compressed and has to be opened with {@link #open(File)}
+   */
+  public static boolean isCompressed(File file) {
+    return compressionOf(file.getName()) != null;
+  }
+
+  /**
+   * @param filename name or path of a report
+   * @return the name without the extension of a supported compression format
+   */
+  public static String stripCompressionExtension(String filename) {
+    Compression compression = compressionOf(filename);
+    if (compression == null) {
+      return filename;
+    }
+    return filename.substring(0, filename.length() - compression.extension.length());
+  }
+
+  /**
+   * @param filename name or path of a report
+   * @return the names of the compressed variants of the report
+   */
+  public static String[] compressedNames(String filename) {
+    Compression[] compressions = Compression.values();
+    String[] names = new String[compressions.length];
+    for (int i = 0; i < compressions.length; i++) {
+      names[i] = filename + compressions[i].extension;
+    }
+    return names;
+  }
+
+  /**
+   * Opens a buffered stream on the report, decompressing it if necessary.
+   *
+   * @param file report file
+   * @return uncompressed content of the report
+   * @throws IOException if the report cannot be opened or is not in the expected format
+   */
+  public static InputStream open(File file) throws IOException {
+    Compression compression = compressionOf(file.getName());
+    InputStream input = new FileInputStream(file);
+    if (compression == null) {
+      return new BufferedInputStream(input, BUFFER_SIZE);
+    }
+    try {
+      InputStream buffered = new BufferedInputStream(input, BUFFER_SIZE);
+      switch (compression) {
+        case GZIP:
+          return new BufferedInputStream(new GZIPInputStream(buffered, BUFFER_SIZE), BUFFER_SIZE);
+        case XZ:
+          return new BufferedInputStream(new XZInputStream(buffered), BUFFER_SIZE);
+        default:
+          return new BufferedInputStream(new ZstdInputStream(buffered), BUFFER_SIZE);
+      }
+    } catch (IOException | RuntimeException e) {
+      input.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens a reader on the report, decompressing it if necessary. Malformed
+   * and unmappable input is replaced, like the readers used before, so a
+   * single broken character does not abort the whole report.
+   *
+   * @param file report file
+   * @param charset encoding of the uncompressed report
+   * @return reader on the uncompressed content of the report
+   * @throws IOException if the report cannot be opened
+   */
+  public static BufferedReader newReader(File file, Charset charset) throws IOException {
+    return new BufferedReader(new InputStreamReader(open(file), charset), BUFFER_SIZE);
+  }
+
+  @CheckForNull
+  private static Compression compressionOf(String filename) {
+    String name = filename.toLowerCase(Locale.ENGLISH);
+    for (Compression compression : Compression.values()) {
+      if (name.endsWith(compression.extension)) {
+        return compression;
+      }
+    }
+    return null;
+  }
+}
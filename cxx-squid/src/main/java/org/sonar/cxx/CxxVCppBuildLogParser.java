@@ -19,17 +19,15 @@
  */
 package org.sonar.cxx;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -44,20 +42,35 @@ public class CxxVCppBuildLogParser {
 
   private static final Logger LOG = Loggers.get(CxxVCppBuildLogParser.class);
 
-  private final HashMap<String, List<String>> uniqueIncludes;
+  private final HashMap<String, Set<String>> uniqueIncludes;
   private final HashMap<String, Set<String>> uniqueDefines;
 
   private String platformToolset = "V120";
+  private Path currentProjectPath;
+  private boolean detectedPlatform;
   private String platform = "Win32";
   private static final String CPPWINRTVERSION = "__cplusplus_winrt=201009";
   private static final String CPPVERSION = "__cplusplus=199711L";  
 
+  private static final Pattern BUILDING_X64 = Pattern.compile("Building solution configuration \".*\\|x64\".");
+  // match "bin\CL.exe", "bin\amd64\CL.exe", "bin\x86_amd64\CL.exe"
+  private static final Pattern CL_EXE = Pattern.compile("^.*\\\\bin\\\\.*CL.exe\\x20.*$");
+  private static final Pattern CL_EXE_V141 =
+    Pattern.compile("^.*VC\\\\Tools\\\\MSVC\\\\14.10.*\\\\bin\\\\HostX..\\\\x..\\\\CL.exe.*$");
+  private static final Pattern FROM_PROJECT = Pattern.compile("\" from project \"", Pattern.LITERAL);
+  private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+  private static final Pattern DRIVE_LETTER = Pattern.compile("^[a-zA-Z]:.*$");
+  private static final Pattern INCLUDE_QUOTED = Pattern.compile("/I\"(.*?)\"");
+  private static final Pattern INCLUDE = Pattern.compile("/I([^\\s\"]+) ");
+  private static final Pattern DEFINE_SEPARATE = Pattern.compile("[/-]D\\s([^\\s]+)");
+  private static final Pattern DEFINE = Pattern.compile("[/-]D([^\\s]+)");
+
   /**
    * CxxVCppBuildLogParser (ctor)
    * @param uniqueIncludesIn
    * @param uniqueDefinesIn
    */
-  public CxxVCppBuildLogParser(HashMap<String, List<String>> uniqueIncludesIn, 
+  public CxxVCppBuildLogParser(HashMap<String, Set<String>> uniqueIncludesIn, 
       HashMap<String, Set<String>> uniqueDefinesIn) { 
     uniqueIncludes = uniqueIncludesIn;
     uniqueDefines = uniqueDefinesIn;
@@ -93,55 +106,20 @@ public class CxxVCppBuildLogParser {
   * @param charsetName
   */
   public void parseVCppLog(File buildLog, String baseDir, String charsetName) {
-    boolean detectedPlatform = false;
-    try (FileInputStream input = new FileInputStream(buildLog)) {
-      BufferedReader br = new BufferedReader(new InputStreamReader(input, charsetName));
-      String line;
-      LOG.debug("build log parser baseDir='{}'", baseDir);
-      Path currentProjectPath = Paths.get(baseDir);
-
-      List<String> overallIncludes = uniqueIncludes.get(CxxConfiguration.OVERALLINCLUDEKEY);
-
-      while ((line = br.readLine()) != null) {
-        if (line.trim().startsWith("INCLUDE=")) { // handle environment includes 
-          String[] includes = line.split("=")[1].split(";");
-          for (String include : includes) {
-            if (!overallIncludes.contains(include)) {
-              overallIncludes.add(include);
-            }
-          }
-        }
+    parseVCppLog(buildLog, baseDir, charsetName, true);
+  }
 
-          // get base path of project to make 
-        // Target "ClCompile" in file "C:\Program Files (x86)\MSBuild\Microsoft.Cpp\v4.0\V120\Microsoft.CppCommon.targets" from project "D:\Development\SonarQube\cxx\sonar-cxx\integration-tests\testdata\googletest_bullseye_vs_project\PathHandling.Test\PathHandling.Test.vcxproj" (target "_ClCompile" depends on it):
-        if (line.contains("Target \"ClCompile\" in file")) {
-          String pathProject = line.split("\" from project \"")[1].split("\\s+")[0].replace("\"", "");
-          if (pathProject.endsWith(":")) {
-            pathProject = pathProject.substring(0, pathProject.length() - 2);
-          }
-          currentProjectPath = Paths.get(pathProject).getParent();
-          if (currentProjectPath == null) {
-            currentProjectPath = Paths.get(baseDir);
-          }
-        }
-          // 1>Task "Message"
-        // 1>  Configuration=Debug
-        // 1>Done executing task "Message".
-        // 1>Task "Message"
-        //1>  Platform=Win32         
-        if (line.trim().endsWith("Platform=x64") || line.trim().matches("Building solution configuration \".*\\|x64\".")) {
-          setPlatform("x64");
-        }
-        // match "bin\CL.exe", "bin\amd64\CL.exe", "bin\x86_amd64\CL.exe"
-        if (line.matches("^.*\\\\bin\\\\.*CL.exe\\x20.*$")) {
-          detectedPlatform= setPlatformToolsetFromLine(line);
-          String[] allElems = line.split("\\s+");
-          String data = allElems[allElems.length - 1];
-          parseCLParameters(line, currentProjectPath, data);
-        }
-      }
-      br.close();
-    } catch (IOException ex) {
+  void parseVCppLog(File buildLog, String baseDir, String charsetName, boolean prefilter) {
+    LOG.debug("build log parser baseDir='{}'", baseDir);
+    currentProjectPath = Paths.get(baseDir);
+    detectedPlatform = false;
+    try {
+      // relevant lines are selected concurrently for large logs, the state
+      // (project path, platform) is tracked in file order on this thread
+      CxxBuildLogReader.processLines(buildLog, Charset.forName(charsetName),
+        (String line) -> !prefilter || isRelevantLine(line) ? line : null,
+        (String line) -> parseVCppLogLine(line, baseDir));
+    } catch (IOException | IllegalArgumentException ex) {
       LOG.error("Cannot parse build log", ex);
     }
     if (!detectedPlatform) {
@@ -149,6 +127,55 @@ public class CxxVCppBuildLogParser {
     }
   }
 
+  /**
+   * Cheap literal checks first, regular expressions only for candidates
+   */
+  private static boolean isRelevantLine(String line) {
+    return line.contains("INCLUDE=")
+      || line.contains("Target \"ClCompile\" in file")
+      || line.contains("Platform=x64")
+      || line.contains("Building solution configuration")
+      || line.contains("CL.exe");
+  }
+
+  private void parseVCppLogLine(String line, String baseDir) {
+    String trimmed = line.trim();
+    if (trimmed.startsWith("INCLUDE=")) { // handle environment includes 
+      Set<String> overallIncludes = uniqueIncludes.get(CxxConfiguration.OVERALLINCLUDEKEY);
+      String[] includes = line.split("=")[1].split(";");
+      for (String include : includes) {
+        overallIncludes.add(include);
+      }
+    }
+
+      // get base path of project to make 
+    // Target "ClCompile" in file "C:\Program Files (x86)\MSBuild\Microsoft.Cpp\v4.0\V120\Microsoft.CppCommon.targets" from project "D:\Development\SonarQube\cxx\sonar-cxx\integration-tests\testdata\googletest_bullseye_vs_project\PathHandling.Test\PathHandling.Test.vcxproj" (target "_ClCompile" depends on it):
+    if (line.contains("Target \"ClCompile\" in file")) {
+      String pathProject = WHITESPACES.split(FROM_PROJECT.split(line)[1])[0].replace("\"", "");
+      if (pathProject.endsWith(":")) {
+        pathProject = pathProject.substring(0, pathProject.length() - 2);
+      }
+      currentProjectPath = Paths.get(pathProject).getParent();
+      if (currentProjectPath == null) {
+        currentProjectPath = Paths.get(baseDir);
+      }
+    }
+      // 1>Task "Message"
+    // 1>  Configuration=Debug
+    // 1>Done executing task "Message".
+    // 1>Task "Message"
+    //1>  Platform=Win32         
+    if (trimmed.endsWith("Platform=x64") || BUILDING_X64.matcher(trimmed).matches()) {
+      setPlatform("x64");
+    }
+    if (line.contains("CL.exe") && CL_EXE.matcher(line).matches()) {
+      detectedPlatform= setPlatformToolsetFromLine(line);
+      String[] allElems = WHITESPACES.split(line);
+      String data = allElems[allElems.length - 1];
+      parseCLParameters(line, currentProjectPath, data);
+    }
+  }
+
   /**
    * setPlatformToolsetFromLine
    * @param line - which contains "cl.exe" string
@@ -172,7 +199,7 @@ public class CxxVCppBuildLogParser {
       setPlatformToolset("V140");
       return true;
     } else if (line.contains("\\V141\\Microsoft.CppBuild.targets") || 
-               line.matches("^.*VC\\\\Tools\\\\MSVC\\\\14.10.*\\\\bin\\\\HostX..\\\\x..\\\\CL.exe.*$")) {
+               CL_EXE_V141.matcher(line).matches()) {
       setPlatformToolset("V141");
       return true;
     }
@@ -188,20 +215,15 @@ public class CxxVCppBuildLogParser {
     String path = data.replaceAll("\"", "");
     String fileElement;
     try {
-      if (!path.isEmpty() && path.matches("^[a-zA-Z]:.*$")) {
+      if (!path.isEmpty() && DRIVE_LETTER.matcher(path).matches()) {
         // do not add project path if data is not a relative path
         fileElement = Paths.get(path).toAbsolutePath().toString();
       } else {
         fileElement = Paths.get(currentProjectPath.toAbsolutePath().toString(), path).toAbsolutePath().toString();
       }
 
-      if (!uniqueDefines.containsKey(fileElement)) {
-        uniqueDefines.put(fileElement, new HashSet<String>());
-      }
-
-      if (!uniqueIncludes.containsKey(fileElement)) {
-        uniqueIncludes.put(fileElement, new ArrayList<String>());
-      }
+      uniqueDefines.computeIfAbsent(fileElement, k -> new LinkedHashSet<>());
+      uniqueIncludes.computeIfAbsent(fileElement, k -> new LinkedHashSet<>());
 
       parseVCppCompilerCLLine(line, currentProjectPath.toAbsolutePath().toString(), fileElement);
     } catch (InvalidPathException ex) {
@@ -213,19 +235,19 @@ public class CxxVCppBuildLogParser {
 
   private void parseVCppCompilerCLLine(String line, String projectPath, String fileElement) {
 
-    for (String includeElem : getMatches(Pattern.compile("/I\"(.*?)\""), line)) {
+    for (String includeElem : getMatches(INCLUDE_QUOTED, line)) {
       parseInclude(includeElem, projectPath, fileElement);
     }
 
-    for (String includeElem : getMatches(Pattern.compile("/I([^\\s\"]+) "), line)) {
+    for (String includeElem : getMatches(INCLUDE, line)) {
       parseInclude(includeElem, projectPath, fileElement);
     }
 
-    for (String macroElem : getMatches(Pattern.compile("[/-]D\\s([^\\s]+)"), line)) {
+    for (String macroElem : getMatches(DEFINE_SEPARATE, line)) {
       addMacro(macroElem, fileElement);
     }
 
-    for (String macroElem : getMatches(Pattern.compile("[/-]D([^\\s]+)"), line)) {
+    for (String macroElem : getMatches(DEFINE, line)) {
       addMacro(macroElem, fileElement);
     }
 
@@ -259,7 +281,7 @@ public class CxxVCppBuildLogParser {
 
   private void parseInclude(String element, String project, String fileElement) {
 
-    List<String> includesPerUnit = uniqueIncludes.get(fileElement);
+    Set<String> includesPerUnit = uniqueIncludes.get(fileElement);
 
     try {
       File includeRoot = new File(element.replace("\"", ""));
@@ -275,9 +297,7 @@ public class CxxVCppBuildLogParser {
         }
       } 
       includePath = includeRoot.getCanonicalPath();
-      if (!includesPerUnit.contains(includePath)) {
-        includesPerUnit.add(includePath);
-      }
+      includesPerUnit.add(includePath);
     } catch (IOException io) { 
       if (LOG.isDebugEnabled()) {
         LOG.error("Cannot parse include path using element '{}' : '{}'", element, io);
@@ -291,10 +311,7 @@ public class CxxVCppBuildLogParser {
 
     Set<String> definesPerUnit = uniqueDefines.get(file);
 
-    String macro = macroElem.replace('=', ' ');
-    if (!definesPerUnit.contains(macro)) {
-      definesPerUnit.add(macro);
-    }
+    definesPerUnit.add(macroElem.replace('=', ' '));
   }
 
   private boolean existMacro(String macroElem, String file) {
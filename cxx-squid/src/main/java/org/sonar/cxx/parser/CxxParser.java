@@ -23,6 +23,7 @@ import java.io.File;
 import java.util.Collection;
 
 import org.sonar.cxx.CxxConfiguration;
+import org.sonar.cxx.CxxProfiler;
 import org.sonar.cxx.lexer.CxxLexer;
 import org.sonar.cxx.preprocessor.CxxPreprocessor;
 import org.sonar.cxx.preprocessor.JoinStringsPreprocessor;
@@ -64,6 +65,9 @@ public final class CxxParser {
 
   public static Parser<Grammar> create(SquidAstVisitorContext<Grammar> context, CxxConfiguration conf, CxxLanguage language) {
     cxxpp = new CxxPreprocessor(context, conf, language);
+    if (CxxProfiler.isEnabled()) {
+      return new CxxProfilingParser(CxxGrammarImpl.create(conf), conf, cxxpp);
+    }
     return Parser.builder(CxxGrammarImpl.create(conf))
       .withLexer(CxxLexer.create(conf, cxxpp, new JoinStringsPreprocessor()))
       .build();
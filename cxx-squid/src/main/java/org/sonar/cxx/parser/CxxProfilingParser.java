@@ -0,0 +1,134 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.parser;
+
+import java.io.File;
+import java.util.List;
+
+import org.sonar.cxx.CxxConfiguration;
+import org.sonar.cxx.CxxProfiler;
+import org.sonar.cxx.lexer.CxxLexer;
+import org.sonar.cxx.preprocessor.CxxPreprocessor;
+import org.sonar.cxx.preprocessor.JoinStringsPreprocessor;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Grammar;
+import com.sonar.sslr.api.Preprocessor; //@todo: deprecated, see http://javadocs.sonarsource.org/4.5.2/apidocs/deprecated-list.html
+import com.sonar.sslr.api.PreprocessorAction; //@todo: deprecated PreprocessorAction
+import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.Rule;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.Lexer;
+import com.sonar.sslr.impl.LexerException;
+import com.sonar.sslr.impl.Parser;
+import com.sonar.sslr.impl.matcher.RuleDefinition;
+
+/**
+ * Parser which measures the lexer, the preprocessor and the grammar
+ * separately and records the measurements of each parsed file as a
+ * translation unit, see {@link CxxProfiler}.
+ */
+final class CxxProfilingParser extends Parser<Grammar> {
+
+  private final CxxPreprocessor preprocessor;
+  private final Lexer lexer;
+  private final Parser<Grammar> parser;
+
+  CxxProfilingParser(Grammar grammar, CxxConfiguration conf, CxxPreprocessor preprocessor) {
+    super(grammar);
+    this.preprocessor = preprocessor;
+    this.lexer = CxxLexer.create(conf, new ProfilingPreprocessor(preprocessor), new JoinStringsPreprocessor());
+    this.parser = Parser.builder(grammar).withLexer(lexer).build();
+  }
+
+  @Override
+  public AstNode parse(File file) {
+    CxxProfiler.Timer lexing = CxxProfiler.start(CxxProfiler.LEXER);
+    try {
+      lexer.lex(file);
+    } catch (LexerException e) {
+      throw new RecognitionException(e);
+    } finally {
+      lexing.close();
+    }
+    List<Token> tokens = lexer.getTokens();
+    CxxProfiler.Timer parsing = CxxProfiler.start(CxxProfiler.PARSER);
+    try {
+      return parser.parse(tokens);
+    } finally {
+      parsing.close();
+      // the preprocessor is the only phase nested in the lexer
+      CxxProfiler.addTranslationUnit(new CxxProfiler.TranslationUnit(file.getPath(),
+        lexing.getNanos() - lexing.getChildNanos(), lexing.getChildNanos(), parsing.getNanos(),
+        tokens.size(), preprocessor.getIncludedFileCount(), preprocessor.getPeakMacroCount()));
+    }
+  }
+
+  @Override
+  public AstNode parse(String source) {
+    try (CxxProfiler.Timer timer = CxxProfiler.start(CxxProfiler.LEXER)) {
+      lexer.lex(source);
+    } catch (LexerException e) {
+      throw new RecognitionException(e);
+    }
+    return parse(lexer.getTokens());
+  }
+
+  @Override
+  public AstNode parse(List<Token> tokens) {
+    try (CxxProfiler.Timer timer = CxxProfiler.start(CxxProfiler.PARSER)) {
+      return parser.parse(tokens);
+    }
+  }
+
+  @Override
+  public RuleDefinition getRootRule() {
+    return parser.getRootRule();
+  }
+
+  @Override
+  public void setRootRule(Rule rootRule) {
+    parser.setRootRule(rootRule);
+  }
+
+  /**
+   * Measures the preprocessor, the time is not accounted to the lexer.
+   */
+  static final class ProfilingPreprocessor extends Preprocessor { //@todo deprecated Preprocessor
+
+    private final Preprocessor preprocessor;
+
+    ProfilingPreprocessor(Preprocessor preprocessor) {
+      this.preprocessor = preprocessor;
+    }
+
+    @Override
+    public void init() {
+      preprocessor.init();
+    }
+
+    @Override
+    public PreprocessorAction process(List<Token> tokens) { //@todo deprecated PreprocessorAction
+      try (CxxProfiler.Timer timer = CxxProfiler.start(CxxProfiler.PREPROCESSOR)) {
+        return preprocessor.process(tokens);
+      }
+    }
+  }
+}
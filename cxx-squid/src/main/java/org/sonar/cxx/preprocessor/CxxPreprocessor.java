@@ -52,6 +52,7 @@ import com.sonar.sslr.impl.Parser;
 
 import org.sonar.cxx.CxxCompilationUnitSettings;
 import org.sonar.cxx.CxxConfiguration;
+import org.sonar.cxx.CxxProfiler;
 import org.sonar.cxx.lexer.CxxLexer;
 import org.sonar.squidbridge.SquidAstVisitorContext;
 
@@ -165,6 +166,7 @@ public class CxxPreprocessor extends Preprocessor {
   private final MapChain<String, Macro> fixedMacros = new MapChain<>();
   private MapChain<String, Macro> unitMacros = null;
   private final Set<File> analysedFiles = new HashSet<>();
+  private int peakMacroCount = 0;
   private SourceCodeProvider codeProvider = new SourceCodeProvider();
   private SourceCodeProvider unitCodeProvider = null;
   private SquidAstVisitorContext<Grammar> context;
@@ -302,6 +304,20 @@ public class CxxPreprocessor extends Preprocessor {
     return missingIncludeFiles.get(file.getPath());
   }
 
+  /**
+   * @return number of headers resolved and read for the current translation unit
+   */
+  public int getIncludedFileCount() {
+    return analysedFiles.size();
+  }
+
+  /**
+   * @return peak number of macros in effect for the current translation unit
+   */
+  public int getPeakMacroCount() {
+    return Math.max(peakMacroCount, getMacros().size());
+  }
+
   private boolean isCFile(String filePath) {
     for (String pattern : cFilesPatterns) {
       String patt = pattern.replace("*", "");
@@ -467,6 +483,7 @@ public class CxxPreprocessor extends Preprocessor {
     LOG.debug("finished preprocessing '{}'", file);
 
     analysedFiles.clear();
+    peakMacroCount = 0;
     fixedMacros.clearLowPrio();
     unitMacros = null;
     compilationUnitSettings = null;
@@ -629,6 +646,7 @@ public class CxxPreprocessor extends Preprocessor {
       LOG.trace("[{}:{}]: storing macro: '{}'", new Object[]{filename, token.getLine(), macro});
     }
     getMacros().put(macro.name, macro);
+    peakMacroCount = Math.max(peakMacroCount, getMacros().size());
 
     return new PreprocessorAction(1,  Collections.singletonList(Trivia.createSkippedText(token)), new ArrayList<Token>()); //@todo: deprecated PreprocessorAction
   }
@@ -674,7 +692,7 @@ public class CxxPreprocessor extends Preprocessor {
       globalStateStack.push(currentFileState);
       currentFileState = new State(includedFile);
 
-      try {
+      try (CxxProfiler.Timer timer = CxxProfiler.start(CxxProfiler.HEADERS, includedFile.getAbsolutePath())) {
         IncludeLexer.create(this.language, this).lex(getCodeProvider().getSourceCode(includedFile, charset));
       } catch (IOException ex) {
         LOG.error("[{}: Cannot read file]: {}", includedFile.getAbsoluteFile(), ex);
@@ -702,69 +720,76 @@ public class CxxPreprocessor extends Preprocessor {
     // and to expand recursively all macros which may be in there.
     //
 
-    PreprocessorAction ppaction = PreprocessorAction.NO_OPERATION; //@todo: deprecated PreprocessorAction
     Macro macro = getMacro(curr.getValue());
-    if (macro != null) {
-      List<Token> replTokens = new LinkedList<>();
-      int tokensConsumed = 0;
+    if (macro == null) {
+      return PreprocessorAction.NO_OPERATION; //@todo: deprecated PreprocessorAction
+    }
+    try (CxxProfiler.Timer timer = CxxProfiler.start(CxxProfiler.MACROS, macro.name)) {
+      return handleMacroInstance(macro, tokens, curr, filename);
+    }
+  }
 
-      if (macro.params == null) {
-        tokensConsumed = 1;
-        replTokens = new LinkedList<>(expandMacro(macro.name, serialize(evaluateHashhashOperators(macro.body))));
-      } else {
-        int tokensConsumedMatchingArgs = expandFunctionLikeMacro(macro.name,
-          tokens.subList(1, tokens.size()),
-          replTokens);
-        if (tokensConsumedMatchingArgs > 0) {
-          tokensConsumed = 1 + tokensConsumedMatchingArgs;
-        }
+  private PreprocessorAction handleMacroInstance(Macro macro, List<Token> tokens, Token curr, String filename) { //@todo: deprecated PreprocessorAction
+    PreprocessorAction ppaction = PreprocessorAction.NO_OPERATION; //@todo: deprecated PreprocessorAction
+    List<Token> replTokens = new LinkedList<>();
+    int tokensConsumed = 0;
+
+    if (macro.params == null) {
+      tokensConsumed = 1;
+      replTokens = new LinkedList<>(expandMacro(macro.name, serialize(evaluateHashhashOperators(macro.body))));
+    } else {
+      int tokensConsumedMatchingArgs = expandFunctionLikeMacro(macro.name,
+        tokens.subList(1, tokens.size()),
+        replTokens);
+      if (tokensConsumedMatchingArgs > 0) {
+        tokensConsumed = 1 + tokensConsumedMatchingArgs;
       }
+    }
 
-      if (tokensConsumed > 0) {
-
-        // Rescanning to expand function like macros, in case it requires consuming more tokens
-        List<Token> outTokens = new LinkedList<>();
-        getMacros().disable(macro.name);
-        while (!replTokens.isEmpty()) {
-          Token c = replTokens.get(0);
-          PreprocessorAction action = PreprocessorAction.NO_OPERATION; //@todo: deprecated PreprocessorAction
-          if (c.getType().equals(IDENTIFIER)) {
-            List<Token> rest = new ArrayList(replTokens);
-            rest.addAll(tokens.subList(tokensConsumed, tokens.size()));
-            action = handleIdentifiersAndKeywords(rest, c, filename);
-          }
-          if (action.equals(PreprocessorAction.NO_OPERATION)) { //@todo: deprecated PreprocessorAction
-            replTokens.remove(0);
-            outTokens.add(c);
+    if (tokensConsumed > 0) {
+
+      // Rescanning to expand function like macros, in case it requires consuming more tokens
+      List<Token> outTokens = new LinkedList<>();
+      getMacros().disable(macro.name);
+      while (!replTokens.isEmpty()) {
+        Token c = replTokens.get(0);
+        PreprocessorAction action = PreprocessorAction.NO_OPERATION; //@todo: deprecated PreprocessorAction
+        if (c.getType().equals(IDENTIFIER)) {
+          List<Token> rest = new ArrayList(replTokens);
+          rest.addAll(tokens.subList(tokensConsumed, tokens.size()));
+          action = handleIdentifiersAndKeywords(rest, c, filename);
+        }
+        if (action.equals(PreprocessorAction.NO_OPERATION)) { //@todo: deprecated PreprocessorAction
+          replTokens.remove(0);
+          outTokens.add(c);
+        } else {
+          outTokens.addAll(action.getTokensToInject());
+          int tokensConsumedRescanning = action.getNumberOfConsumedTokens();
+          if (tokensConsumedRescanning >= replTokens.size()) {
+            tokensConsumed += tokensConsumedRescanning - replTokens.size();
+            replTokens.clear();
           } else {
-            outTokens.addAll(action.getTokensToInject());
-            int tokensConsumedRescanning = action.getNumberOfConsumedTokens();
-            if (tokensConsumedRescanning >= replTokens.size()) {
-              tokensConsumed += tokensConsumedRescanning - replTokens.size();
-              replTokens.clear();
-            } else {
-              replTokens.subList(0, tokensConsumedRescanning).clear();
-            }
+            replTokens.subList(0, tokensConsumedRescanning).clear();
           }
         }
-        replTokens = outTokens;
-        getMacros().enable(macro.name);
+      }
+      replTokens = outTokens;
+      getMacros().enable(macro.name);
 
-        replTokens = reallocate(replTokens, curr);
+      replTokens = reallocate(replTokens, curr);
 
-        if (LOG.isTraceEnabled()) {
-          LOG.trace("[{}:{}]: replacing '" + curr.getValue()
-            + (tokensConsumed == 1
-              ? ""
-              : serialize(tokens.subList(1, tokensConsumed))) + "' -> '" + serialize(replTokens) + '\'',
-            filename, curr.getLine());
-        }
-
-        ppaction = new PreprocessorAction( //@todo: deprecated PreprocessorAction
-          tokensConsumed,
-           Collections.singletonList(Trivia.createSkippedText(tokens.subList(0, tokensConsumed))),
-          replTokens);
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("[{}:{}]: replacing '" + curr.getValue()
+          + (tokensConsumed == 1
+            ? ""
+            : serialize(tokens.subList(1, tokensConsumed))) + "' -> '" + serialize(replTokens) + '\'',
+          filename, curr.getLine());
       }
+
+      ppaction = new PreprocessorAction( //@todo: deprecated PreprocessorAction
+        tokensConsumed,
+         Collections.singletonList(Trivia.createSkippedText(tokens.subList(0, tokensConsumed))),
+        replTokens);
     }
 
     return ppaction;
@@ -35,6 +35,8 @@ public class MapChain<K, V> {
   private final Map<K, V> highPrioDisabled = new HashMap<>();
   private final Map<K, V> lowPrioDisabled = new HashMap<>();
   private boolean isHighPrioEnabled = false;
+  // number of distinct keys of the enabled entries
+  private int size;
 
   /**
    * get
@@ -57,6 +59,9 @@ public class MapChain<K, V> {
    * @return V
    */
   public V put(K key, V value) {
+    if (!isEnabled(key)) {
+      size++;
+    }
     if (isHighPrioEnabled) {
       return highPrioMap.put(key, value);
     } else {
@@ -64,12 +69,23 @@ public class MapChain<K, V> {
     }
   }
 
+  /**
+   * size
+   * @return number of distinct keys of the enabled entries
+   */
+  public int size() {
+    return size;
+  }
+
   /**
    * removeLowPrio
    * @param key
    * @return V
    */
   public V removeLowPrio(K key) {
+    if (lowPrioMap.containsKey(key) && !highPrioMap.containsKey(key)) {
+      size--;
+    }
     return lowPrioMap.remove(key);
   }
 
@@ -78,6 +94,7 @@ public class MapChain<K, V> {
    */
   public void clearLowPrio() {
     lowPrioMap.clear();
+    size = highPrioMap.size();
   }
 
   /**
@@ -85,6 +102,9 @@ public class MapChain<K, V> {
    * @param key
    */
   public void disable(K key) {
+    if (isEnabled(key)) {
+      size--;
+    }
     move(key, lowPrioMap, lowPrioDisabled);
     move(key, highPrioMap, highPrioDisabled);
   }
@@ -94,8 +114,16 @@ public class MapChain<K, V> {
    * @param key
    */
   public void enable(K key) {
+    boolean wasEnabled = isEnabled(key);
     move(key, lowPrioDisabled, lowPrioMap);
     move(key, highPrioDisabled, highPrioMap);
+    if (!wasEnabled && isEnabled(key)) {
+      size++;
+    }
+  }
+
+  private boolean isEnabled(K key) {
+    return highPrioMap.containsKey(key) || lowPrioMap.containsKey(key);
   }
 
   private void move(K key, Map<K, V> from, Map<K, V> to) {
@@ -89,6 +89,34 @@ public class CxxAstScannerTest {
     assertThat(file.getInt(CxxMetric.FUNCTIONS)).isEqualTo(2);
   }
 
+  @Test
+  public void profiled_functions() throws UnsupportedEncodingException, IOException {
+    CxxProfiler.setEnabled(true);
+    try {
+      CxxFileTester tester = CxxFileTesterHelper.CreateCxxFileTester("src/test/resources/metrics/profiled.cc", ".");
+      SourceFile file = CxxAstScanner.scanSingleFile(tester.cxxFile, tester.sensorContext, CxxFileTesterHelper.mockCxxLanguage());
+      assertThat(file.getInt(CxxMetric.FUNCTIONS)).isEqualTo(2);
+      assertThat(CxxProfilerTest.phase(CxxProfiler.LEXER)).isNotNull();
+      assertThat(CxxProfilerTest.phase(CxxProfiler.PREPROCESSOR)).isNotNull();
+      assertThat(CxxProfilerTest.phase(CxxProfiler.PARSER).getCalls()).isEqualTo(1);
+      assertThat(CxxProfilerTest.phase("visitor CxxLinesOfCodeVisitor")).isNotNull();
+
+      assertThat(CxxProfiler.getTranslationUnits()).hasSize(1);
+      CxxProfiler.TranslationUnit unit = CxxProfiler.getTranslationUnits().get(0);
+      assertThat(unit.getPath()).endsWith("profiled.cc");
+      assertThat(unit.getTokens()).isGreaterThan(0);
+      assertThat(unit.getIncludes()).isEqualTo(1);
+      assertThat(unit.getPeakMacros()).isGreaterThanOrEqualTo(2);
+
+      assertThat(CxxProfiler.getCosts(CxxProfiler.HEADERS)).hasSize(1);
+      assertThat(CxxProfiler.getCosts(CxxProfiler.HEADERS).get(0).getName()).endsWith("profiled.h");
+      assertThat(CxxProfilerTest.cost(CxxProfiler.MACROS, "ANSWER").getCalls()).isGreaterThanOrEqualTo(2);
+      assertThat(CxxProfilerTest.cost(CxxProfiler.MACROS, "SQUARE")).isNotNull();
+    } finally {
+      CxxProfiler.setEnabled(false);
+    }
+  }
+
   @Test
   public void classes() throws UnsupportedEncodingException, IOException {
     CxxFileTester tester = CxxFileTesterHelper.CreateCxxFileTester("src/test/resources/metrics/classes.cc", ".");
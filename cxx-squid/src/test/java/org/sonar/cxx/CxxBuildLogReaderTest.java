@@ -0,0 +1,79 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CxxBuildLogReaderTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void chunkedReadShouldKeepFileOrder() throws IOException {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      content.append("line ").append(i).append(i % 3 == 0 ? " warning: äöü\r\n" : "\n");
+    }
+    content.append("last line without line break");
+    File log = tempFolder.newFile("build.log");
+    Files.write(log.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+
+    List<String> sequential = new ArrayList<>();
+    CxxBuildLogReader.processLines(log, StandardCharsets.UTF_8, line -> line, sequential::add, Long.MAX_VALUE);
+    List<String> chunked = new ArrayList<>();
+    CxxBuildLogReader.processLines(log, StandardCharsets.UTF_8, line -> line, chunked::add, 100);
+
+    assertThat(sequential).hasSize(1001);
+    assertThat(sequential.get(3)).isEqualTo("line 3 warning: äöü");
+    assertThat(chunked).isEqualTo(sequential);
+  }
+
+  @Test
+  public void mapperShouldFilterLines() throws IOException {
+    File log = tempFolder.newFile("filter.log");
+    Files.write(log.toPath(), "a\nwarning: b\nc\nwarning: d\n".getBytes(StandardCharsets.UTF_8));
+
+    List<String> warnings = new ArrayList<>();
+    CxxBuildLogReader.processLines(log, StandardCharsets.UTF_8,
+      line -> line.startsWith("warning:") ? line.substring(9) : null, warnings::add, 4);
+
+    assertThat(warnings).containsExactly("b", "d");
+  }
+
+  @Test
+  public void onlyAsciiCompatibleCharsetsShouldBeSplit() {
+    assertThat(CxxBuildLogReader.isSplittable(StandardCharsets.UTF_8)).isTrue();
+    assertThat(CxxBuildLogReader.isSplittable(StandardCharsets.ISO_8859_1)).isTrue();
+    assertThat(CxxBuildLogReader.isSplittable(StandardCharsets.UTF_16)).isFalse();
+    assertThat(CxxBuildLogReader.isSplittable(StandardCharsets.UTF_16LE)).isFalse();
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import javax.annotation.CheckForNull;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class CxxProfilerTest {
+
+  @After
+  public void tearDown() {
+    CxxProfiler.setEnabled(false);
+  }
+
+  @Test
+  public void disabledProfilerMeasuresNothing() {
+    CxxProfiler.setEnabled(false);
+    try (CxxProfiler.Timer timer = CxxProfiler.start("disabled")) {
+      assertThat(CxxProfiler.start("nested")).isSameAs(timer);
+    }
+    assertThat(phase("disabled")).isNull();
+  }
+
+  @Test
+  public void nestedPhaseIsExcludedFromSelfTime() {
+    CxxProfiler.setEnabled(true);
+    for (int i = 0; i < 2; i++) {
+      try (CxxProfiler.Timer outer = CxxProfiler.start("outer")) {
+        try (CxxProfiler.Timer inner = CxxProfiler.start("inner")) {
+          assertThat(new StringBuilder("allocation").reverse().toString()).isEqualTo("noitacolla");
+        }
+      }
+    }
+
+    CxxProfiler.Phase outer = phase("outer");
+    CxxProfiler.Phase inner = phase("inner");
+    assertThat(outer.getCalls()).isEqualTo(2);
+    assertThat(inner.getCalls()).isEqualTo(2);
+    assertThat(outer.getTotalNanos()).isGreaterThanOrEqualTo(inner.getTotalNanos());
+    assertThat(outer.getSelfNanos()).isEqualTo(outer.getTotalNanos() - inner.getTotalNanos());
+    assertThat(inner.getSelfNanos()).isEqualTo(inner.getTotalNanos());
+    assertThat(outer.getSelfBytes()).isEqualTo(outer.getTotalBytes() - inner.getTotalBytes());
+    if (CxxProfiler.isAllocationMeasured()) {
+      assertThat(inner.getTotalBytes()).isGreaterThan(0);
+    }
+  }
+
+  @Test
+  public void enablingDiscardsPreviousMeasurements() {
+    CxxProfiler.setEnabled(true);
+    CxxProfiler.start("previous").close();
+    CxxProfiler.setEnabled(true);
+    assertThat(phase("previous")).isNotNull();
+
+    CxxProfiler.setEnabled(false);
+    CxxProfiler.setEnabled(true);
+    assertThat(phase("previous")).isNull();
+  }
+
+  @Test
+  public void costItemsAreNotAccountedToPhases() {
+    CxxProfiler.setEnabled(true);
+    CxxProfiler.Timer lexer = CxxProfiler.start(CxxProfiler.LEXER);
+    try (CxxProfiler.Timer header = CxxProfiler.start(CxxProfiler.HEADERS, "a.h")) {
+      CxxProfiler.start(CxxProfiler.HEADERS, "b.h").close();
+    }
+    lexer.close();
+
+    assertThat(lexer.getChildNanos()).isEqualTo(0);
+    assertThat(phase(CxxProfiler.LEXER).getSelfNanos()).isEqualTo(lexer.getNanos());
+    CxxProfiler.Phase a = cost(CxxProfiler.HEADERS, "a.h");
+    CxxProfiler.Phase b = cost(CxxProfiler.HEADERS, "b.h");
+    assertThat(a.getSelfNanos()).isEqualTo(a.getTotalNanos() - b.getTotalNanos());
+    assertThat(CxxProfiler.getCosts(CxxProfiler.MACROS)).isEmpty();
+  }
+
+  @Test
+  public void translationUnitsAreOrderedByTime() {
+    CxxProfiler.setEnabled(true);
+    CxxProfiler.addTranslationUnit(new CxxProfiler.TranslationUnit("fast.cc", 1, 2, 3, 10, 1, 5));
+    CxxProfiler.addTranslationUnit(new CxxProfiler.TranslationUnit("slow.cc", 10, 20, 30, 100, 10, 50));
+
+    assertThat(CxxProfiler.getTranslationUnits()).hasSize(2);
+    assertThat(CxxProfiler.getTranslationUnits().get(0).getPath()).isEqualTo("slow.cc");
+    assertThat(CxxProfiler.getTranslationUnits().get(0).getTotalNanos()).isEqualTo(60);
+  }
+
+  @CheckForNull
+  static CxxProfiler.Phase phase(String name) {
+    return cost(CxxProfiler.PHASES, name);
+  }
+
+  @CheckForNull
+  static CxxProfiler.Phase cost(String table, String name) {
+    for (CxxProfiler.Phase phase : CxxProfiler.getCosts(table)) {
+      if (phase.getName().equals(name)) {
+        return phase;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+public class CxxReportFilesTest {
+
+  private static final String CONTENT = "<results>\n  <error file=\"äöü.cpp\"/>\n</results>\n";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void plainReportShouldBeReadUnchanged() throws IOException {
+    File report = tempFolder.newFile("report.xml");
+    Files.write(report.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+
+    assertThat(CxxReportFiles.isCompressed(report)).isFalse();
+    assertThat(read(report)).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void gzipReportShouldBeDecompressed() throws IOException {
+    File report = tempFolder.newFile("report.xml.gz");
+    try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(report.toPath()))) {
+      output.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertThat(CxxReportFiles.isCompressed(report)).isTrue();
+    assertThat(read(report)).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void xzReportShouldBeDecompressed() throws IOException {
+    File report = tempFolder.newFile("report.xml.XZ");
+    try (OutputStream output = new XZOutputStream(Files.newOutputStream(report.toPath()), new LZMA2Options())) {
+      output.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertThat(CxxReportFiles.isCompressed(report)).isTrue();
+    assertThat(read(report)).isEqualTo(CONTENT);
+  }
+
+  @Test(expected = IOException.class)
+  public void corruptCompressedReportShouldFail() throws IOException {
+    File report = tempFolder.newFile("report.xml.gz");
+    Files.write(report.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+
+    read(report);
+  }
+
+  @Test
+  public void malformedInputShouldBeReplaced() throws IOException {
+    File report = tempFolder.newFile("latin1.log");
+    Files.write(report.toPath(), "a\u00e4b\n".getBytes(StandardCharsets.ISO_8859_1));
+
+    assertThat(read(report)).isEqualTo("a\ufffdb\n");
+  }
+
+  @Test
+  public void compressionExtensionShouldBeStripped() {
+    assertThat(CxxReportFiles.stripCompressionExtension("reports/cppcheck.xml.zst")).isEqualTo("reports/cppcheck.xml");
+    assertThat(CxxReportFiles.stripCompressionExtension("reports/cppcheck.xml")).isEqualTo("reports/cppcheck.xml");
+    assertThat(CxxReportFiles.compressedNames("a/*.xml")).containsOnly("a/*.xml.gz", "a/*.xml.xz", "a/*.xml.zst");
+  }
+
+  private static String read(File report) throws IOException {
+    StringBuilder content = new StringBuilder();
+    try (BufferedReader reader = CxxReportFiles.newReader(report, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        content.append(line).append('\n');
+      }
+    }
+    return content.toString();
+  }
+}
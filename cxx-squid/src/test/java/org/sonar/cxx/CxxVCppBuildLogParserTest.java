@@ -0,0 +1,59 @@
+/*
+ * Sonar C++ Plugin (Community)
+ * Copyright (C) 2010-2017 SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CxxVCppBuildLogParserTest {
+
+  private static final String[] LOGS = {
+    "vc++13.txt", "ParallelBuildLog.txt", "platformCommonX64.txt", "platformToolsetv100.txt",
+    "platformToolsetv140.txt", "platformToolsetv141x64.txt"};
+
+  private static HashMap<String, Set<String>> newMap(String key) {
+    HashMap<String, Set<String>> map = new HashMap<>();
+    map.put(key, new LinkedHashSet<String>());
+    return map;
+  }
+
+  @Test
+  public void prefilterShouldNotChangeIncludesAndDefines() {
+    for (String log : LOGS) {
+      File buildLog = new File("src/test/resources/compiler/" + log);
+      HashMap<String, Set<String>> includes = newMap(CxxConfiguration.OVERALLINCLUDEKEY);
+      HashMap<String, Set<String>> defines = newMap(CxxConfiguration.OVERALLDEFINEKEY);
+      new CxxVCppBuildLogParser(includes, defines).parseVCppLog(buildLog, ".", "UTF8", true);
+      HashMap<String, Set<String>> allIncludes = newMap(CxxConfiguration.OVERALLINCLUDEKEY);
+      HashMap<String, Set<String>> allDefines = newMap(CxxConfiguration.OVERALLDEFINEKEY);
+      new CxxVCppBuildLogParser(allIncludes, allDefines).parseVCppLog(buildLog, ".", "UTF8", false);
+
+      assertThat(includes.size()).as(log).isGreaterThan(1);
+      assertThat(includes).as(log).isEqualTo(allIncludes);
+      assertThat(defines).as(log).isEqualTo(allDefines);
+    }
+  }
+}
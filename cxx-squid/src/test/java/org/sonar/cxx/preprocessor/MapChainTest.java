@@ -112,4 +112,39 @@ public class MapChainTest {
     assertEquals(mc.get("khigh"), "vhigh");
     assertEquals(mc.get("klow"), "vlow");
   }
+
+  @Test
+  public void sizeCountsEnabledMappings() {
+    mc.setHighPrio(true);
+    mc.put("khigh", "vhigh");
+    mc.setHighPrio(false);
+    mc.put("klow", "vlow");
+    assertEquals(mc.size(), 2);
+
+    mc.disable("klow");
+    assertEquals(mc.size(), 1);
+  }
+
+  @Test
+  public void sizeCountsKeysOfBothPrioritiesOnce() {
+    mc.setHighPrio(true);
+    mc.put("k", "vhigh");
+    mc.setHighPrio(false);
+    mc.put("k", "vlow");
+    mc.put("k", "vlow2");
+    assertEquals(mc.size(), 1);
+
+    mc.removeLowPrio("k");
+    assertEquals(mc.size(), 1);
+
+    mc.put("k", "vlow");
+    mc.disable("k");
+    assertEquals(mc.size(), 0);
+    mc.enable("k");
+    assertEquals(mc.size(), 1);
+
+    mc.put("klow", "vlow");
+    mc.clearLowPrio();
+    assertEquals(mc.size(), 1);
+  }
 }
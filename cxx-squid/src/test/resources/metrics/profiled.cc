@@ -0,0 +1,9 @@
+#include "profiled.h"
+
+int square_answer() {
+  return SQUARE(ANSWER);
+}
+
+int answer() {
+  return ANSWER;
+}
@@ -0,0 +1,2 @@
+#define SQUARE(x) ((x) * (x))
+#define ANSWER 42
@@ -25,6 +25,7 @@ import java.util.Arrays;
 import org.sonar.api.Plugin;
 
 import org.sonar.api.PropertyType;
+import org.sonar.api.batch.InstantiationStrategy;
 import org.sonar.api.batch.bootstrap.ProjectDefinition;
 import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.batch.sensor.SensorContext;
@@ -34,6 +35,7 @@ import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.api.platform.ServerFileSystem;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.server.rule.RulesDefinitionXmlLoader;
+import org.sonar.cxx.CxxProfiler;
 import org.sonar.cxx.sensors.clangtidy.CxxClangTidyRuleRepository;
 import org.sonar.cxx.sensors.clangtidy.CxxClangTidySensor;
 import org.sonar.cxx.sensors.clangsa.CxxClangSARuleRepository;
@@ -53,14 +55,19 @@ import org.sonar.cxx.sensors.other.CxxOtherRepository;
 import org.sonar.cxx.sensors.other.CxxOtherSensor;
 import org.sonar.cxx.sensors.pclint.CxxPCLintRuleRepository;
 import org.sonar.cxx.sensors.pclint.CxxPCLintSensor;
+import org.sonar.cxx.sensors.performance.CxxPerformanceReportSensor;
 import org.sonar.cxx.sensors.rats.CxxRatsRuleRepository;
 import org.sonar.cxx.sensors.rats.CxxRatsSensor;
+import org.sonar.cxx.sensors.sarif.CxxSarifSensor;
 import org.sonar.cxx.sensors.squid.CxxSquidSensor;
 import org.sonar.cxx.sensors.tests.dotnet.CxxUnitTestResultsProvider;
 import org.sonar.cxx.sensors.tests.dotnet.CxxUnitTestResultsProvider.CxxUnitTestResultsAggregator;
 import org.sonar.cxx.sensors.tests.dotnet.CxxUnitTestResultsProvider.CxxUnitTestResultsImportSensor;
 import org.sonar.cxx.sensors.tests.xunit.CxxXunitSensor;
 import org.sonar.cxx.sensors.utils.CxxMetrics;
+import org.sonar.cxx.sensors.utils.CxxReportCache;
+import org.sonar.cxx.sensors.utils.CxxReportIngestion;
+import org.sonar.cxx.sensors.utils.CxxReportSensor;
 import org.sonar.cxx.sensors.valgrind.CxxValgrindRuleRepository;
 import org.sonar.cxx.sensors.valgrind.CxxValgrindSensor;
 import org.sonar.cxx.sensors.veraxx.CxxVeraxxRuleRepository;
@@ -171,6 +178,27 @@ public final class CPlugin implements Plugin {
       .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
       .type(PropertyType.BOOLEAN)
       .index(10)
+      .build(),
+      PropertyDefinition.builder(LANG_PROP_PREFIX + CxxReportCache.PATH_KEY)
+      .name("Report cache directory")
+      .description("Directory of a local cache of the findings of the imported reports, absolute or relative to "
+        + "projects root. A report which did not change since it was cached is not parsed again. "
+        + "Leave empty to parse all reports.")
+      .subCategory(subcateg)
+      .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+      .index(11)
+      .build(),
+      PropertyDefinition.builder(LANG_PROP_PREFIX + CxxProfiler.ENABLED_KEY)
+      .defaultValue("False")
+      .name("Performance report")
+      .description("Measures the time and the allocated memory of the lexer, the preprocessor, the parser, each "
+        + "check and visitor and the report parsers, and lists the slowest files and the most expensive headers "
+        + "and macros. A summary is logged at the end of the analysis and written as JSON to the working "
+        + "directory.")
+      .subCategory(subcateg)
+      .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+      .type(PropertyType.BOOLEAN)
+      .index(12)
       .build()
     ));
   }
@@ -311,6 +339,14 @@ public final class CPlugin implements Plugin {
       .type(PropertyType.TEXT)
       .subCategory(subcateg)
       .index(17)
+      .build(),
+      PropertyDefinition.builder(LANG_PROP_PREFIX + CxxSarifSensor.REPORT_PATH_KEY)
+      .name("SARIF report(s)")
+      .description("Path to SARIF 2.1 logs of external code analysers, relative to projects root."
+        + USE_ANT_STYLE_WILDCARDS + " The issues are reported against the rules of the 'Other' repository.")
+      .subCategory(subcateg)
+      .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+      .index(18)
       .build()
     ));
   }
@@ -491,6 +527,7 @@ public final class CPlugin implements Plugin {
 
     // utility classes
     l.add(CxxCoverageAggregator.class);
+    l.add(CxxReportIngestionImpl.class);
     l.add(CxxUnitTestResultsAggregator.class);
         
     // metrics    
@@ -508,11 +545,15 @@ public final class CPlugin implements Plugin {
     l.add(CxxClangTidySensorImpl.class);
     l.add(CxxClangSASensorImpl.class);
     l.add(CxxExternalRulesSensorImpl.class);
+    l.add(CxxSarifSensorImpl.class);
 
     // test sensors
     l.add(CxxXunitSensorImpl.class);
     l.add(CxxUnitTestResultsImportSensorImpl.class);
     l.add(CxxCoverageSensorImpl.class);    
+
+    // performance report, after all other sensors
+    l.add(CxxPerformanceReportSensorImpl.class);
     
     // rule provides
     l.add(CxxRatsRuleRepositoryImpl.class);
@@ -606,8 +647,9 @@ public final class CPlugin implements Plugin {
     public CxxSquidSensorImpl(Settings settings,
             FileLinesContextFactory fileLinesContextFactory,
             CheckFactory checkFactory,
-            CxxCoverageAggregator coverageCache) {
-      super(new CLanguage(settings), fileLinesContextFactory, checkFactory, coverageCache);      
+            CxxCoverageAggregator coverageCache,
+            CxxReportIngestionImpl reportIngestion) {
+      super(new CLanguage(settings), fileLinesContextFactory, checkFactory, null, coverageCache, reportIngestion);      
     }
   }
     
@@ -680,18 +722,35 @@ public final class CPlugin implements Plugin {
     public CxxExternalRulesSensorImpl(Settings settings) {
       super(new CLanguage(settings), settings);      
     }
+  }
+  public static class CxxSarifSensorImpl extends CxxSarifSensor {
+    public CxxSarifSensorImpl(Settings settings) {
+      super(new CLanguage(settings), settings);
+    }
   } 
+  public static class CxxPerformanceReportSensorImpl extends CxxPerformanceReportSensor {
+    public CxxPerformanceReportSensorImpl(Settings settings) {
+      super(new CLanguage(settings));
+    }
+  }
   public static class CxxUnitTestResultsImportSensorImpl extends CxxUnitTestResultsImportSensor {
     public CxxUnitTestResultsImportSensorImpl(Settings settings, CxxUnitTestResultsAggregator unitTestResultsAggregator, ProjectDefinition projectDef) {
       super(unitTestResultsAggregator, projectDef, new CLanguage(settings));      
     }
   }   
   
+  @InstantiationStrategy(InstantiationStrategy.PER_BATCH)
   public static class CxxCoverageAggregator extends CxxCoverageCache {
     public CxxCoverageAggregator() {                  
       super();
     }
   }
+
+  public static class CxxReportIngestionImpl extends CxxReportIngestion {
+    public CxxReportIngestionImpl(Settings settings, CxxReportSensor[] reportSensors) {
+      super(new CLanguage(settings), reportSensors);
+    }
+  }
     
   @Override
   public String toString() {
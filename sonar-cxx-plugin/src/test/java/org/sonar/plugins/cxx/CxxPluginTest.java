@@ -20,10 +20,32 @@
 package org.sonar.plugins.cxx;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.junit.Test;
+import org.sonar.api.BatchExtension;
 import org.sonar.api.Plugin;
 import org.sonar.api.SonarQubeVersion;
+import org.sonar.api.batch.BatchSide;
+import org.sonar.api.batch.bootstrap.ProjectDefinition;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.Settings;
+import org.sonar.api.measures.FileLinesContextFactory;
+import org.sonar.api.utils.AnnotationUtils;
+import org.sonar.plugins.cxx.CxxPlugin.CxxReportIngestionImpl;
+import org.sonar.plugins.cxx.CxxPlugin.CxxSquidSensorImpl;
 
 public class CxxPluginTest {
 
@@ -32,6 +54,114 @@ public class CxxPluginTest {
    Plugin.Context context = new Plugin.Context(SonarQubeVersion.V5_6);
    CxxPlugin plugin = new CxxPlugin();
    plugin.define(context);
-   assertThat(context.getExtensions()).hasSize(75);
+   assertThat(context.getExtensions()).hasSize(81);
+  }
+
+  @Test
+  public void scannerContainerShouldCreateAllScannerExtensions() throws Exception {
+    Plugin.Context context = new Plugin.Context(SonarQubeVersion.V5_6);
+    new CxxPlugin().define(context);
+    SensorContextTester sensorContext = SensorContextTester.create(new File("."));
+    ScannerContainer container = new ScannerContainer(context.getExtensions(), new Settings(),
+      sensorContext, mock(FileLinesContextFactory.class), new CheckFactory(mock(ActiveRules.class)),
+      ProjectDefinition.create());
+
+    container.createAll();
+    assertThat(container.getComponent(CxxSquidSensorImpl.class)).isNotNull();
+    assertThat(container.getComponent(CxxReportIngestionImpl.class)).isNotNull();
+  }
+
+  /**
+   * Creates the extensions like the scanner: only classes marked as scanner
+   * side are installed, constructor parameters are resolved from the installed
+   * and platform components, arrays get all matching components.
+   */
+  private static final class ScannerContainer {
+
+    private final List<Class<?>> extensions = new ArrayList<>();
+    private final Map<Class<?>, Object> components = new LinkedHashMap<>();
+    private final Set<Class<?>> creating = new HashSet<>();
+
+    ScannerContainer(List<?> pluginExtensions, Object... platformComponents) {
+      for (Object extension : pluginExtensions) {
+        if (extension instanceof Class && isScannerSide((Class<?>) extension)) {
+          extensions.add((Class<?>) extension);
+        }
+      }
+      for (Object component : platformComponents) {
+        components.put(component.getClass(), component);
+      }
+    }
+
+    private static boolean isScannerSide(Class<?> extension) {
+      return AnnotationUtils.getAnnotation(extension, BatchSide.class) != null
+        || BatchExtension.class.isAssignableFrom(extension);
+    }
+
+    void createAll() throws Exception {
+      for (Class<?> extension : extensions) {
+        getComponent(extension);
+      }
+    }
+
+    Object getComponent(Class<?> type) throws Exception {
+      List<Object> matches = getComponents(type);
+      if (matches.size() != 1) {
+        throw new IllegalStateException(matches.size() + " components of type " + type.getName());
+      }
+      return matches.get(0);
+    }
+
+    private List<Object> getComponents(Class<?> type) throws Exception {
+      List<Object> matches = new ArrayList<>();
+      for (Object component : components.values()) {
+        if (type.isInstance(component) && !extensions.contains(component.getClass())) {
+          matches.add(component);
+        }
+      }
+      for (Class<?> extension : extensions) {
+        if (type.isAssignableFrom(extension)) {
+          matches.add(create(extension));
+        }
+      }
+      return matches;
+    }
+
+    private Object create(Class<?> extension) throws Exception {
+      Object component = components.get(extension);
+      if (component != null) {
+        return component;
+      }
+      if (!creating.add(extension)) {
+        throw new IllegalStateException("Cyclic dependency of " + extension.getName());
+      }
+      Constructor<?> greediest = null;
+      for (Constructor<?> constructor : extension.getConstructors()) {
+        if (greediest == null || constructor.getParameterCount() > greediest.getParameterCount()) {
+          greediest = constructor;
+        }
+      }
+      if (greediest == null) {
+        throw new IllegalStateException("No public constructor in " + extension.getName());
+      }
+      Class<?>[] types = greediest.getParameterTypes();
+      Object[] parameters = new Object[types.length];
+      for (int i = 0; i < types.length; i++) {
+        if (types[i].isArray()) {
+          List<Object> matches = getComponents(types[i].getComponentType());
+          Object array = Array.newInstance(types[i].getComponentType(), matches.size());
+          for (int j = 0; j < matches.size(); j++) {
+            Array.set(array, j, matches.get(j));
+          }
+          parameters[i] = array;
+        } else {
+          parameters[i] = getComponent(types[i]);
+        }
+      }
+      component = greediest.newInstance(parameters);
+      components.put(extension, component);
+      creating.remove(extension);
+      return component;
+    }
   }
 }